@@ -36,6 +36,12 @@ public class MainApp extends Application {
         NavigationManager.navigateTo("home.fxml");
     }
 
+    @Override
+    public void stop() {
+        // Flush pending data and stop background workers
+        ServiceLocator.shutdown();
+    }
+
     public static void main(String[] args) {
         launch();
     }
@@ -1,6 +1,7 @@
 package com.insurance.config;
 
 import com.google.gson.Gson;
+import com.insurance.factory.IdGenerator;
 import com.insurance.service.IConfigService;
 
 import java.io.FileReader;
@@ -15,10 +16,43 @@ public class ConfigService implements IConfigService {
 
     private static ConfigService instance;
     private static final String CONFIG_FILE = "input.json";
+    private static final long DEFAULT_JOURNAL_COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+    private static final long DEFAULT_GROUP_COMMIT_WINDOW_MILLIS = 5;
+    private static final String DEFAULT_SNAPSHOT_FORMAT = "ndjson";
+    private static final String DEFAULT_STORAGE_BACKEND = "file";
+    private static final String DEFAULT_JDBC_URL = "jdbc:h2:./database/insurance";
+    private static final String DEFAULT_POLICY_STORE = "map";
+    private static final int DEFAULT_LOG_BUFFER_CAPACITY = 8192;
+    private static final long DEFAULT_LOG_FLUSH_INTERVAL_MILLIS = 200;
+    private static final String DEFAULT_LOG_BACKPRESSURE = "block";
+    private static final long DEFAULT_LOG_MAX_FILE_BYTES = 64L * 1024 * 1024;
+    private static final String DEFAULT_ID_ENCODING = "base32";
+    private static final long DEFAULT_DATA_WATCH_POLL_MILLIS = 2000;
 
     private String companyName;
     private String appVersion;
     private String developerNames;
+    private long journalCompactionThresholdBytes;
+    private boolean groupCommitEnabled;
+    private long groupCommitWindowMillis;
+    private String snapshotFormat;
+    private boolean snapshotPrettyPrint;
+    private String storageBackend;
+    private String jdbcUrl;
+    private int dataShardsPerType;
+    private String policyStore;
+    private boolean asyncLoggingEnabled;
+    private int logBufferCapacity;
+    private long logFlushIntervalMillis;
+    private String logBackpressure;
+    private long logMaxFileBytes;
+    private boolean logRotateDaily;
+    private int logRetentionDays;
+    private int logMaxSegments;
+    private int idNodeId;
+    private String idEncoding;
+    private boolean dataWatchEnabled;
+    private long dataWatchPollMillis;
 
     /** Private constructor - loads configuration from file. */
     private ConfigService() {
@@ -49,6 +83,30 @@ public class ConfigService implements IConfigService {
             this.companyName = data.companyName;
             this.appVersion = data.appVersion;
             this.developerNames = data.developerNames;
+            this.journalCompactionThresholdBytes = data.journalCompactionThresholdBytes > 0
+                    ? data.journalCompactionThresholdBytes : DEFAULT_JOURNAL_COMPACTION_THRESHOLD;
+            this.groupCommitEnabled = data.groupCommitEnabled;
+            this.groupCommitWindowMillis = data.groupCommitWindowMillis > 0
+                    ? data.groupCommitWindowMillis : DEFAULT_GROUP_COMMIT_WINDOW_MILLIS;
+            this.snapshotFormat = data.snapshotFormat != null ? data.snapshotFormat : DEFAULT_SNAPSHOT_FORMAT;
+            this.snapshotPrettyPrint = data.snapshotPrettyPrint == null || data.snapshotPrettyPrint;
+            this.storageBackend = data.storageBackend != null ? data.storageBackend : DEFAULT_STORAGE_BACKEND;
+            this.jdbcUrl = data.jdbcUrl != null ? data.jdbcUrl : DEFAULT_JDBC_URL;
+            this.dataShardsPerType = Math.max(0, data.dataShardsPerType);
+            this.policyStore = data.policyStore != null ? data.policyStore : DEFAULT_POLICY_STORE;
+            this.asyncLoggingEnabled = data.asyncLoggingEnabled;
+            this.logBufferCapacity = data.logBufferCapacity > 0 ? data.logBufferCapacity : DEFAULT_LOG_BUFFER_CAPACITY;
+            this.logFlushIntervalMillis = data.logFlushIntervalMillis > 0
+                    ? data.logFlushIntervalMillis : DEFAULT_LOG_FLUSH_INTERVAL_MILLIS;
+            this.logBackpressure = data.logBackpressure != null ? data.logBackpressure : DEFAULT_LOG_BACKPRESSURE;
+            this.logMaxFileBytes = data.logMaxFileBytes > 0 ? data.logMaxFileBytes : DEFAULT_LOG_MAX_FILE_BYTES;
+            this.logRotateDaily = data.logRotateDaily == null || data.logRotateDaily;
+            this.logRetentionDays = Math.max(0, data.logRetentionDays);
+            this.logMaxSegments = Math.max(0, data.logMaxSegments);
+            this.idNodeId = Math.max(0, Math.min(IdGenerator.MAX_NODE, data.idNodeId));
+            this.idEncoding = data.idEncoding != null ? data.idEncoding : DEFAULT_ID_ENCODING;
+            this.dataWatchEnabled = data.dataWatchEnabled == null || data.dataWatchEnabled;
+            this.dataWatchPollMillis = data.dataWatchPollMillis > 0 ? data.dataWatchPollMillis : DEFAULT_DATA_WATCH_POLL_MILLIS;
         } catch (IOException e) {
             System.err.println("Could not load config file: " + e.getMessage());
             setDefaults();
@@ -60,6 +118,27 @@ public class ConfigService implements IConfigService {
         this.companyName = "Insurance App";
         this.appVersion = "Version 1.0";
         this.developerNames = "Unknown";
+        this.journalCompactionThresholdBytes = DEFAULT_JOURNAL_COMPACTION_THRESHOLD;
+        this.groupCommitEnabled = false;
+        this.groupCommitWindowMillis = DEFAULT_GROUP_COMMIT_WINDOW_MILLIS;
+        this.snapshotFormat = DEFAULT_SNAPSHOT_FORMAT;
+        this.snapshotPrettyPrint = true;
+        this.storageBackend = DEFAULT_STORAGE_BACKEND;
+        this.jdbcUrl = DEFAULT_JDBC_URL;
+        this.dataShardsPerType = 0;
+        this.policyStore = DEFAULT_POLICY_STORE;
+        this.asyncLoggingEnabled = false;
+        this.logBufferCapacity = DEFAULT_LOG_BUFFER_CAPACITY;
+        this.logFlushIntervalMillis = DEFAULT_LOG_FLUSH_INTERVAL_MILLIS;
+        this.logBackpressure = DEFAULT_LOG_BACKPRESSURE;
+        this.logMaxFileBytes = DEFAULT_LOG_MAX_FILE_BYTES;
+        this.logRotateDaily = true;
+        this.logRetentionDays = 0;
+        this.logMaxSegments = 0;
+        this.idNodeId = 0;
+        this.idEncoding = DEFAULT_ID_ENCODING;
+        this.dataWatchEnabled = true;
+        this.dataWatchPollMillis = DEFAULT_DATA_WATCH_POLL_MILLIS;
     }
 
     @Override
@@ -77,6 +156,111 @@ public class ConfigService implements IConfigService {
         return developerNames;
     }
 
+    @Override
+    public long getJournalCompactionThresholdBytes() {
+        return journalCompactionThresholdBytes;
+    }
+
+    @Override
+    public boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
+    @Override
+    public long getGroupCommitWindowMillis() {
+        return groupCommitWindowMillis;
+    }
+
+    @Override
+    public String getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    @Override
+    public boolean isSnapshotPrettyPrint() {
+        return snapshotPrettyPrint;
+    }
+
+    @Override
+    public String getStorageBackend() {
+        return storageBackend;
+    }
+
+    @Override
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    @Override
+    public int getDataShardsPerType() {
+        return dataShardsPerType;
+    }
+
+    @Override
+    public String getPolicyStore() {
+        return policyStore;
+    }
+
+    @Override
+    public boolean isAsyncLoggingEnabled() {
+        return asyncLoggingEnabled;
+    }
+
+    @Override
+    public int getLogBufferCapacity() {
+        return logBufferCapacity;
+    }
+
+    @Override
+    public long getLogFlushIntervalMillis() {
+        return logFlushIntervalMillis;
+    }
+
+    @Override
+    public String getLogBackpressure() {
+        return logBackpressure;
+    }
+
+    @Override
+    public long getLogMaxFileBytes() {
+        return logMaxFileBytes;
+    }
+
+    @Override
+    public boolean isLogRotateDaily() {
+        return logRotateDaily;
+    }
+
+    @Override
+    public int getLogRetentionDays() {
+        return logRetentionDays;
+    }
+
+    @Override
+    public int getLogMaxSegments() {
+        return logMaxSegments;
+    }
+
+    @Override
+    public int getIdNodeId() {
+        return idNodeId;
+    }
+
+    @Override
+    public String getIdEncoding() {
+        return idEncoding;
+    }
+
+    @Override
+    public boolean isDataWatchEnabled() {
+        return dataWatchEnabled;
+    }
+
+    @Override
+    public long getDataWatchPollMillis() {
+        return dataWatchPollMillis;
+    }
+
     /**
      * Inner class that maps directly to the input.json structure.
      */
@@ -84,5 +268,29 @@ public class ConfigService implements IConfigService {
         String companyName;
         String appVersion;
         String developerNames;
+        long journalCompactionThresholdBytes;
+        boolean groupCommitEnabled;
+        long groupCommitWindowMillis;
+        String snapshotFormat;
+        // Boxed so that a missing entry keeps the default of pretty-printing
+        Boolean snapshotPrettyPrint;
+        String storageBackend;
+        String jdbcUrl;
+        int dataShardsPerType;
+        String policyStore;
+        boolean asyncLoggingEnabled;
+        int logBufferCapacity;
+        long logFlushIntervalMillis;
+        String logBackpressure;
+        long logMaxFileBytes;
+        // Boxed so that a missing entry keeps the default of rotating daily
+        Boolean logRotateDaily;
+        int logRetentionDays;
+        int logMaxSegments;
+        int idNodeId;
+        String idEncoding;
+        // Boxed so that a missing entry keeps the default of watching the data files
+        Boolean dataWatchEnabled;
+        long dataWatchPollMillis;
     }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.insurance.data;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes files crash-safely.
+ * Content goes to a temporary file next to the target, is forced to disk and is then
+ * atomically moved over the target, so readers only ever see the old or the new file.
+ */
+public class AtomicFileWriter {
+
+    /** Suffix of the temporary file written before the atomic move. */
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Callback that writes the file content.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * Writes the content of the file.
+         *
+         * @param writer the writer to write to
+         * @throws IOException if the content could not be written
+         */
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Callback that writes raw file content to a channel.
+     */
+    @FunctionalInterface
+    public interface ChannelWriter {
+        /**
+         * Writes the content of the file.
+         *
+         * @param channel the channel to write to
+         * @throws IOException if the content could not be written
+         */
+        void write(FileChannel channel) throws IOException;
+    }
+
+    /** Private constructor to prevent instantiation. */
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Returns the temporary file used while writing the given target.
+     *
+     * @param target the file being written
+     * @return the temporary file path
+     */
+    public static Path tempFileFor(Path target) {
+        return target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+    }
+
+    /**
+     * Atomically replaces the target file with UTF-8 text content.
+     *
+     * @param target  the file to write
+     * @param content writes the new content
+     * @throws IOException if the file could not be written; the old file is left untouched
+     */
+    public static void write(Path target, ContentWriter content) throws IOException {
+        writeChannel(target, channel -> {
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 64 * 1024);
+            content.write(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * Atomically replaces the target file with content written directly to a file channel.
+     *
+     * @param target  the file to write
+     * @param content writes the new content
+     * @throws IOException if the file could not be written; the old file is left untouched
+     */
+    public static void writeChannel(Path target, ChannelWriter content) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = tempFileFor(target);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            content.write(channel);
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(parent);
+    }
+
+    /**
+     * Forces the directory entry of a renamed file to disk where the platform allows it.
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on every platform; the rename itself is still atomic
+        }
+    }
+}
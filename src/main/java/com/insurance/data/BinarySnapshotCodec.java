@@ -0,0 +1,193 @@
+package com.insurance.data;
+
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Compact, versioned binary snapshot codec.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header: magic "INSB" (int), version (short), reserved (short), policy count (int), claim count (int)
+ * policy: type (byte), id, firstName, lastName (strings), date (epoch-day int), remarks (string)
+ * claim:  id, policyId, description (strings), claimDate (epoch-day int)
+ * string: byte length (int, -1 for null) followed by UTF-8 bytes
+ * </pre>
+ * Files are read through a read-only memory-mapped buffer.
+ */
+public class BinarySnapshotCodec implements SnapshotCodec {
+
+    private static final int MAGIC = 0x494E5342; // "INSB"
+    private static final short VERSION = 1;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final InsuranceType[] TYPES = InsuranceType.values();
+
+    @Override
+    public boolean read(Path file, Predicate<Policy> policyVisitor, Predicate<Claim> claimVisitor)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Binary snapshot exceeds the 2 GB mapping limit: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < 16 || in.getInt() != MAGIC) {
+                throw new StreamCorruptedException("Not a binary snapshot: " + file);
+            }
+            short version = in.getShort();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported binary snapshot version " + version);
+            }
+            in.getShort();
+            int policyCount = in.getInt();
+            int claimCount = in.getInt();
+
+            for (int i = 0; i < policyCount; i++) {
+                Policy policy = readPolicy(in);
+                if (policyVisitor != null && !policyVisitor.test(policy)) {
+                    return false;
+                }
+            }
+            if (claimVisitor == null) {
+                return true;
+            }
+            for (int i = 0; i < claimCount; i++) {
+                Claim claim = new Claim(readString(in), readString(in), readString(in), readDate(in));
+                if (!claimVisitor.test(claim)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new StreamCorruptedException("Truncated or malformed binary snapshot: " + file);
+        }
+    }
+
+    @Override
+    public void write(Path file, Collection<Policy> policies, Collection<Claim> claims) throws IOException {
+        AtomicFileWriter.writeChannel(file, channel -> {
+            ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort((short) 0);
+            out.putInt(policies.size());
+            out.putInt(claims.size());
+
+            for (Policy policy : policies) {
+                ensure(channel, out, 1);
+                out.put((byte) policy.getType().ordinal());
+                writeString(channel, out, policy.getId());
+                writeString(channel, out, policy.getFirstName());
+                writeString(channel, out, policy.getLastName());
+                writeDate(channel, out, policy.getDate());
+                writeString(channel, out, policy.getRemarks());
+            }
+            for (Claim claim : claims) {
+                writeString(channel, out, claim.getId());
+                writeString(channel, out, claim.getPolicyId());
+                writeString(channel, out, claim.getDescription());
+                writeDate(channel, out, claim.getClaimDate());
+            }
+            drain(channel, out);
+        });
+    }
+
+    /** Reads one policy record and instantiates the matching subclass. */
+    private static Policy readPolicy(ByteBuffer in) throws StreamCorruptedException {
+        int typeCode = in.get();
+        if (typeCode < 0 || typeCode >= TYPES.length) {
+            throw new StreamCorruptedException("Unknown insurance type code: " + typeCode);
+        }
+        String id = readString(in);
+        String firstName = readString(in);
+        String lastName = readString(in);
+        LocalDate date = readDate(in);
+        String remarks = readString(in);
+
+        return InsuranceFactory.restorePolicy(id, firstName, lastName, date, remarks, TYPES[typeCode]);
+    }
+
+    /** Reads a length-prefixed UTF-8 string. */
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Reads an epoch-day date. */
+    private static LocalDate readDate(ByteBuffer in) {
+        int epochDay = in.getInt();
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /** Writes a length-prefixed UTF-8 string, spilling to the channel when the buffer fills. */
+    private static void writeString(FileChannel channel, ByteBuffer out, String value) throws IOException {
+        if (value == null) {
+            ensure(channel, out, 4);
+            out.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(channel, out, 4);
+        out.putInt(bytes.length);
+        if (bytes.length > out.capacity()) {
+            drain(channel, out);
+            ByteBuffer large = ByteBuffer.wrap(bytes);
+            while (large.hasRemaining()) {
+                channel.write(large);
+            }
+            return;
+        }
+        ensure(channel, out, bytes.length);
+        out.put(bytes);
+    }
+
+    /** Writes an epoch-day date. */
+    private static void writeDate(FileChannel channel, ByteBuffer out, LocalDate date) throws IOException {
+        ensure(channel, out, 4);
+        out.putInt(date == null ? NULL_DATE : (int) date.toEpochDay());
+    }
+
+    /** Makes room for the given number of bytes, writing the buffer out if necessary. */
+    private static void ensure(FileChannel channel, ByteBuffer out, int bytes) throws IOException {
+        if (out.remaining() < bytes) {
+            drain(channel, out);
+        }
+    }
+
+    /** Writes all buffered bytes to the channel and clears the buffer. */
+    private static void drain(FileChannel channel, ByteBuffer out) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+}
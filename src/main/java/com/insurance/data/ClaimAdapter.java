@@ -0,0 +1,78 @@
+package com.insurance.data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.insurance.model.Claim;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Gson adapter for serializing and deserializing claims without reflection.
+ * Writes the same fields, in the same order, as Gson's reflective binding of Claim.
+ */
+public class ClaimAdapter extends TypeAdapter<Claim> {
+
+    @Override
+    public void write(JsonWriter out, Claim claim) throws IOException {
+        if (claim == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("id").value(claim.getId());
+        out.name("policyId").value(claim.getPolicyId());
+        out.name("description").value(claim.getDescription());
+        if (claim.getClaimDate() != null) {
+            out.name("claimDate").value(IsoDate.format(claim.getClaimDate()));
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Claim read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        String id = null;
+        String policyId = null;
+        String description = null;
+        LocalDate claimDate = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String fieldName = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (fieldName) {
+                case "id":
+                    id = in.nextString();
+                    break;
+                case "policyId":
+                    policyId = in.nextString();
+                    break;
+                case "description":
+                    description = in.nextString();
+                    break;
+                case "claimDate":
+                    try {
+                        claimDate = IsoDate.parse(in.nextString());
+                    } catch (DateTimeException e) {
+                        throw new IOException("Invalid date of claim " + id + ": " + e.getMessage(), e);
+                    }
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return new Claim(id, policyId, description, claimDate);
+    }
+}
@@ -0,0 +1,172 @@
+package com.insurance.data;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.insurance.factory.IdGenerator;
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Command-line benchmark of the snapshot codecs: writes and reads a synthetic database in
+ * every snapshot format, and through Gson's reflective binding with {@link PolicyAdapter}
+ * and {@link LocalDateAdapter} as the baseline, and reports file size and median times.
+ *
+ * Usage: {@code CodecBenchmark <policies> [directory]}, for example 500000 policies.
+ * Half as many claims are generated, from a fixed seed, with escapes and non-ASCII names
+ * among the values. The files are written to the directory, by default the temp directory.
+ */
+public class CodecBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Dana", "Zo\u00eb", "Omer", "Matan", "Noa", "\"Quoted\"", "\u00c1gnes"};
+    private static final String[] LAST_NAMES = {"Levi", "O'Brien", "Cohen", "M\u00fcller", "Smith", "Back\\slash"};
+    private static final int WARM_UP_RUNS = 3;
+    private static final int RUNS = 5;
+
+    /** Private constructor to prevent instantiation. */
+    private CodecBenchmark() {
+    }
+
+    /**
+     * The top-level document bound reflectively by the baseline.
+     */
+    private static class Document {
+        List<Policy> policies;
+        List<Claim> claims;
+    }
+
+    /**
+     * Something the benchmark writes to and reads from a file.
+     */
+    private interface Subject {
+        void write(Path file) throws IOException;
+
+        void read(Path file) throws IOException;
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param args the number of policies, and optionally the directory of the files
+     * @throws IOException if a file could not be written or read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: CodecBenchmark <policies> [directory]");
+            System.exit(1);
+        }
+        int policyCount = Integer.parseInt(args[0]);
+        Path directory = args.length > 1 ? Paths.get(args[1]) : Paths.get(System.getProperty("java.io.tmpdir"));
+        Files.createDirectories(directory);
+
+        List<Policy> policies = new ArrayList<>(policyCount);
+        List<Claim> claims = new ArrayList<>(policyCount / 2);
+        generate(new Random(42), policyCount, policies, claims);
+
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Policy.class, new PolicyAdapter().nullSafe())
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .setPrettyPrinting()
+                .create();
+        measure("gson binding", directory.resolve("benchmark-gson.json"), new Subject() {
+            @Override
+            public void write(Path file) throws IOException {
+                Document document = new Document();
+                document.policies = policies;
+                document.claims = claims;
+                try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                    gson.toJson(document, writer);
+                }
+            }
+
+            @Override
+            public void read(Path file) throws IOException {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    gson.fromJson(reader, Document.class);
+                }
+            }
+        });
+
+        measureCodec("json", directory.resolve("benchmark.json"), new JsonSnapshotCodec(true), policies, claims);
+        measureCodec("json compact", directory.resolve("benchmark-compact.json"), new JsonSnapshotCodec(false),
+                policies, claims);
+        measureCodec("ndjson", directory.resolve("benchmark.ndjson"), new NdjsonSnapshotCodec(), policies, claims);
+        measureCodec("binary", directory.resolve("benchmark.bin"), new BinarySnapshotCodec(), policies, claims);
+    }
+
+    /** Generates policies with generated IDs, and claims against random policies. */
+    private static void generate(Random random, int policyCount, List<Policy> policies, List<Claim> claims) {
+        IdGenerator ids = IdGenerator.getInstance();
+        InsuranceType[] types = InsuranceType.values();
+        for (int i = 0; i < policyCount; i++) {
+            String remarks = i % 10 == 0 ? null : (i % 97 == 0 ? "multi\nline \t remark <tag> & more" : "remark " + i);
+            policies.add(InsuranceFactory.restorePolicy(ids.nextId(), FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)], randomDate(random, 2000, 30), remarks,
+                    types[random.nextInt(types.length)]));
+        }
+        for (int i = 0; i < policyCount / 2; i++) {
+            String policyId = policies.get(random.nextInt(policyCount)).getId();
+            claims.add(new Claim(ids.nextId(), policyId, i % 13 == 0 ? null : "claim " + i,
+                    i % 50 == 0 ? null : randomDate(random, 2020, 5)));
+        }
+    }
+
+    private static LocalDate randomDate(Random random, int firstYear, int years) {
+        return LocalDate.of(firstYear + random.nextInt(years), 1 + random.nextInt(12), 1 + random.nextInt(28));
+    }
+
+    /** Measures a snapshot codec, reading every record back. */
+    private static void measureCodec(String name, Path file, SnapshotCodec codec, List<Policy> policies,
+                                     List<Claim> claims) throws IOException {
+        measure(name, file, new Subject() {
+            @Override
+            public void write(Path target) throws IOException {
+                codec.write(target, policies, claims);
+            }
+
+            @Override
+            public void read(Path source) throws IOException {
+                codec.read(source, policy -> true, claim -> true);
+            }
+        });
+    }
+
+    /** Writes and reads a file several times after a warm-up, and prints the size and median times. */
+    private static void measure(String name, Path file, Subject subject) throws IOException {
+        long[] writes = new long[RUNS];
+        long[] reads = new long[RUNS];
+        for (int run = 0; run < WARM_UP_RUNS + RUNS; run++) {
+            long start = System.nanoTime();
+            subject.write(file);
+            long written = System.nanoTime();
+            subject.read(file);
+            long read = System.nanoTime();
+            if (run >= WARM_UP_RUNS) {
+                writes[run - WARM_UP_RUNS] = written - start;
+                reads[run - WARM_UP_RUNS] = read - written;
+            }
+        }
+        System.out.printf("%-13s %,14d bytes  write %,8.1f ms  read %,8.1f ms%n",
+                name, Files.size(file), median(writes), median(reads));
+    }
+
+    private static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2] / 1_000_000.0;
+    }
+}
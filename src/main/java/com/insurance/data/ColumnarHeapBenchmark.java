@@ -0,0 +1,103 @@
+package com.insurance.data;
+
+import com.insurance.factory.IdGenerator;
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Command-line benchmark of the {@link ColumnarPolicyStore}: fills it and a
+ * {@link LinkedHashMap} with the same synthetic policies and reports the heap each retains,
+ * as used heap after garbage collection, along with the cost of a random get and a full scan.
+ *
+ * Usage: {@code ColumnarHeapBenchmark <policies> [hex|generated]}, for example 1000000 policies.
+ * IDs are 8 lowercase hex digits, as written by earlier versions, or IDs from {@link IdGenerator}.
+ * Names come from 2,000 first and 5,000 last names, drawn from a fixed seed. The ID strings
+ * are held by the benchmark throughout, so they count towards neither store.
+ */
+public class ColumnarHeapBenchmark {
+
+    private static final int FIRST_NAMES = 2_000;
+    private static final int LAST_NAMES = 5_000;
+    private static final int LOOKUPS = 1_000_000;
+
+    // Consumes read results so that the timed loops are not optimized away
+    private static long sink;
+
+    /** Private constructor to prevent instantiation. */
+    private ColumnarHeapBenchmark() {
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param args the number of policies, and optionally the ID format
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].matches("hex|generated"))) {
+            System.err.println("Usage: ColumnarHeapBenchmark <policies> [hex|generated]");
+            System.exit(1);
+        }
+        int count = Integer.parseInt(args[0]);
+        boolean generated = args.length == 2 && args[1].equals("generated");
+
+        String[] ids = new String[count];
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            ids[i] = generated ? IdGenerator.getInstance().nextId() : String.format("%08x", random.nextInt());
+        }
+
+        measure("LinkedHashMap", new LinkedHashMap<>(), ids);
+        measure("ColumnarPolicyStore", new ColumnarPolicyStore(), ids);
+    }
+
+    /** Fills a store, prints the heap it retains and times random gets and a full scan. */
+    private static void measure(String name, Map<String, Policy> store, String[] ids) {
+        long before = usedHeap();
+        Random random = new Random(7);
+        InsuranceType[] types = InsuranceType.values();
+        for (String id : ids) {
+            store.put(id, InsuranceFactory.restorePolicy(id, "first" + random.nextInt(FIRST_NAMES),
+                    "last" + random.nextInt(LAST_NAMES),
+                    LocalDate.of(2000 + random.nextInt(25), 1 + random.nextInt(12), 1 + random.nextInt(28)),
+                    random.nextInt(4) == 0 ? "remark" : "", types[random.nextInt(types.length)]));
+        }
+        long retained = usedHeap() - before;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            sink += store.get(ids[random.nextInt(ids.length)]).getType().ordinal();
+        }
+        long getNanos = (System.nanoTime() - start) / LOOKUPS;
+
+        start = System.nanoTime();
+        for (Policy policy : store.values()) {
+            sink += policy.getDate().toEpochDay();
+        }
+        long scanMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%-20s %,d policies: %,.1f MB (%d B/policy), get %d ns, scan %d ms%n",
+                name, store.size(), retained / 1048576.0, retained / Math.max(1, store.size()), getNanos, scanMillis);
+        store.clear();
+    }
+
+    /** Returns the used heap after collecting garbage until it stops shrinking. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
@@ -0,0 +1,471 @@
+package com.insurance.data;
+
+import com.insurance.factory.IdGenerator;
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+
+import java.time.LocalDate;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Memory-compact map of policies by ID that stores policy fields in primitive columns
+ * instead of one object graph per policy.
+ *
+ * First and last names are dictionary encoded into int codes, dates are held as epoch
+ * days, the insurance type as a byte, and IDs are packed into a long: IDs generated by
+ * {@link IdGenerator} as their decoded value, and the older IDs of up to 14 lowercase hex
+ * digits by digit. Other IDs are kept as strings on the side. Lookups by ID go through an
+ * open-addressing hash table of row numbers.
+ *
+ * Policies are materialized as short-lived {@link Policy} views when read, so reads
+ * return a new instance each time. Iteration follows insertion order, like a
+ * {@link java.util.LinkedHashMap}. Not thread-safe; callers synchronize access.
+ */
+public class ColumnarPolicyStore extends AbstractMap<String, Policy> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_NAME = -1;
+    private static final byte REMOVED = -1;
+    // Tags in the top bits of a packed ID; generated base32 IDs leave the top bit clear
+    private static final long HEX_TAG = Long.MIN_VALUE;
+    private static final long DECIMAL_TAG = 0xC000000000000000L;
+    private static final long DECIMAL_LIMIT = 1L << 62;
+    // A hex ID of no digits, which pack never returns
+    private static final long UNPACKED = HEX_TAG;
+    private static final int MAX_PACKED_LENGTH = 14;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final InsuranceType[] TYPES = InsuranceType.values();
+
+    private final NameDictionary names = new NameDictionary();
+    private final Map<Integer, String> unpackedIds = new HashMap<>();
+    private final Map<String, Integer> unpackedRows = new HashMap<>();
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] firstNames = new int[INITIAL_CAPACITY];
+    private int[] lastNames = new int[INITIAL_CAPACITY];
+    private int[] dates = new int[INITIAL_CAPACITY];
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private String[] remarks = new String[INITIAL_CAPACITY];
+
+    /** Row number + 1 of each packed ID, 0 for a free bucket. */
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    private int rows;
+    private int size;
+    private int modCount;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && findRow((String) key) >= 0;
+    }
+
+    @Override
+    public Policy get(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int row = findRow((String) key);
+        return row >= 0 ? view(row) : null;
+    }
+
+    @Override
+    public Policy put(String id, Policy policy) {
+        int row = findRow(id);
+        Policy previous = null;
+        if (row >= 0) {
+            previous = view(row);
+        } else {
+            row = appendRow(id);
+        }
+        firstNames[row] = names.encode(policy.getFirstName());
+        lastNames[row] = names.encode(policy.getLastName());
+        dates[row] = policy.getDate() != null ? (int) policy.getDate().toEpochDay() : NO_DATE;
+        types[row] = (byte) policy.getType().ordinal();
+        remarks[row] = policy.getRemarks();
+        return previous;
+    }
+
+    @Override
+    public Policy remove(Object key) {
+        if (!(key instanceof String)) {
+            return null;
+        }
+        int row = findRow((String) key);
+        if (row < 0) {
+            return null;
+        }
+        Policy removed = view(row);
+        removeRow(row);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(table, 0);
+        Arrays.fill(remarks, 0, rows, null);
+        unpackedIds.clear();
+        unpackedRows.clear();
+        rows = 0;
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public Set<Map.Entry<String, Policy>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Policy>> iterator() {
+                return new RowIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /** Materializes the policy stored in a row. */
+    private Policy view(int row) {
+        return InsuranceFactory.restorePolicy(
+                idOf(row),
+                names.decode(firstNames[row]),
+                names.decode(lastNames[row]),
+                dates[row] != NO_DATE ? LocalDate.ofEpochDay(dates[row]) : null,
+                remarks[row],
+                TYPES[types[row]]);
+    }
+
+    /** Returns the row of a live policy, or -1. */
+    private int findRow(String id) {
+        long packed = pack(id);
+        if (packed == UNPACKED) {
+            Integer row = unpackedRows.get(id);
+            return row != null ? row : -1;
+        }
+        int mask = table.length - 1;
+        for (int bucket = hash(packed) & mask; table[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int row = table[bucket] - 1;
+            if (ids[row] == packed) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /** Adds an empty row for a new ID and indexes it. */
+    private int appendRow(String id) {
+        if (rows == ids.length) {
+            // Reclaim removed rows before growing the columns
+            if (size <= rows / 2) {
+                compactRows();
+            } else {
+                resize(ids.length * 2);
+            }
+        }
+        int row = rows++;
+        size++;
+        modCount++;
+        long packed = pack(id);
+        ids[row] = packed;
+        if (packed == UNPACKED) {
+            unpackedIds.put(row, id);
+            unpackedRows.put(id, row);
+        } else {
+            insertIntoTable(row);
+        }
+        return row;
+    }
+
+    /** Marks a row as removed and drops it from the ID index. */
+    private void removeRow(int row) {
+        if (ids[row] == UNPACKED) {
+            unpackedRows.remove(unpackedIds.remove(row));
+        } else {
+            deleteFromTable(row);
+        }
+        types[row] = REMOVED;
+        remarks[row] = null;
+        size--;
+        modCount++;
+    }
+
+    private void insertIntoTable(int row) {
+        int mask = table.length - 1;
+        int bucket = hash(ids[row]) & mask;
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = row + 1;
+    }
+
+    /** Removes a row from the linear-probing table by shifting later entries back into the gap. */
+    private void deleteFromTable(int row) {
+        int mask = table.length - 1;
+        int gap = hash(ids[row]) & mask;
+        while (table[gap] != row + 1) {
+            gap = (gap + 1) & mask;
+        }
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = hash(ids[table[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    /** Moves live rows to the front of the columns, preserving order, and rebuilds the indexes. */
+    private void compactRows() {
+        int live = 0;
+        Map<Integer, String> oldUnpackedIds = new HashMap<>(unpackedIds);
+        unpackedIds.clear();
+        unpackedRows.clear();
+        for (int row = 0; row < rows; row++) {
+            if (types[row] == REMOVED) {
+                continue;
+            }
+            if (ids[row] == UNPACKED) {
+                String id = oldUnpackedIds.get(row);
+                unpackedIds.put(live, id);
+                unpackedRows.put(id, live);
+            }
+            if (row != live) {
+                ids[live] = ids[row];
+                firstNames[live] = firstNames[row];
+                lastNames[live] = lastNames[row];
+                dates[live] = dates[row];
+                types[live] = types[row];
+                remarks[live] = remarks[row];
+            }
+            live++;
+        }
+        Arrays.fill(remarks, live, rows, null);
+        rows = live;
+        rebuildIndex(table.length);
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        firstNames = Arrays.copyOf(firstNames, capacity);
+        lastNames = Arrays.copyOf(lastNames, capacity);
+        dates = Arrays.copyOf(dates, capacity);
+        types = Arrays.copyOf(types, capacity);
+        remarks = Arrays.copyOf(remarks, capacity);
+        rebuildIndex(capacity * 2);
+    }
+
+    private void rebuildIndex(int tableSize) {
+        table = new int[tableSize];
+        for (int row = 0; row < rows; row++) {
+            if (types[row] != REMOVED && ids[row] != UNPACKED) {
+                insertIntoTable(row);
+            }
+        }
+    }
+
+    private String idOf(int row) {
+        return ids[row] == UNPACKED ? unpackedIds.get(row) : unpack(ids[row]);
+    }
+
+    /**
+     * Packs an ID into a long. IDs generated by {@link IdGenerator} are stored as their value,
+     * in base32 with the top bit clear, or in decimal under {@link #DECIMAL_TAG}; only the
+     * canonical text is packed, so unpacking re-encodes exactly the original ID. IDs of 1 to 14
+     * lowercase hex digits are stored under {@link #HEX_TAG} with the digit count in bits 56
+     * to 59 and the value below it, so leading zeros survive the round trip.
+     * Returns {@link #UNPACKED} for any other ID.
+     */
+    private static long pack(String id) {
+        long generated = IdGenerator.decode(id);
+        if (generated >= 0) {
+            if (id.equals(IdGenerator.encodeBase32(generated))) {
+                return generated;
+            }
+            if (generated < DECIMAL_LIMIT && id.equals(IdGenerator.encodeDecimal(generated))) {
+                return DECIMAL_TAG | generated;
+            }
+        }
+        int length = id.length();
+        if (length == 0 || length > MAX_PACKED_LENGTH) {
+            return UNPACKED;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            int digit;
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else {
+                return UNPACKED;
+            }
+            value = (value << 4) | digit;
+        }
+        return HEX_TAG | ((long) length << 56) | value;
+    }
+
+    private static String unpack(long packed) {
+        if (packed >= 0) {
+            return IdGenerator.encodeBase32(packed);
+        }
+        if ((packed & DECIMAL_TAG) == DECIMAL_TAG) {
+            return IdGenerator.encodeDecimal(packed & (DECIMAL_LIMIT - 1));
+        }
+        int length = (int) (packed >>> 56) & 0xF;
+        char[] digits = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            digits[i] = HEX_DIGITS[(int) (packed & 0xF)];
+            packed >>>= 4;
+        }
+        return new String(digits);
+    }
+
+    private static int hash(long packed) {
+        long h = packed * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Iterates live rows in insertion order. Entries materialize their policy only when
+     * the value is requested, so iterating keys does not build policy objects.
+     */
+    private class RowIterator implements Iterator<Map.Entry<String, Policy>> {
+
+        private int next = skipRemoved(0);
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next < rows;
+        }
+
+        @Override
+        public Map.Entry<String, Policy> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= rows) {
+                throw new NoSuchElementException();
+            }
+            current = next;
+            next = skipRemoved(next + 1);
+            return new RowEntry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeRow(current);
+            current = -1;
+            expectedModCount = modCount;
+        }
+
+        private int skipRemoved(int row) {
+            while (row < rows && types[row] == REMOVED) {
+                row++;
+            }
+            return row;
+        }
+    }
+
+    /**
+     * Read-only entry for a row.
+     */
+    private class RowEntry implements Map.Entry<String, Policy> {
+
+        private final int row;
+        private final String id;
+
+        RowEntry(int row) {
+            this.row = row;
+            this.id = idOf(row);
+        }
+
+        @Override
+        public String getKey() {
+            return id;
+        }
+
+        @Override
+        public Policy getValue() {
+            return view(row);
+        }
+
+        @Override
+        public Policy setValue(Policy value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Map.Entry
+                    && id.equals(((Map.Entry<?, ?>) other).getKey())
+                    && Objects.equals(getValue(), ((Map.Entry<?, ?>) other).getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return id.hashCode() ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return id + "=" + getValue();
+        }
+    }
+
+    /**
+     * Dictionary of distinct names. Codes are never reused, so a name stays in the
+     * dictionary after the last policy using it is removed; the number of distinct
+     * customer names is small compared to the number of policies.
+     */
+    private static class NameDictionary {
+
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int encode(String name) {
+            if (name == null) {
+                return NO_NAME;
+            }
+            Integer code = codes.get(name);
+            if (code == null) {
+                code = values.size();
+                values.add(name);
+                codes.put(name, code);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return code == NO_NAME ? null : values.get(code);
+        }
+    }
+}
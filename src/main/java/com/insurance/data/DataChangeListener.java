@@ -0,0 +1,46 @@
+package com.insurance.data;
+
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.util.List;
+
+/**
+ * Listener notified by an {@link InsuranceRepository} after each mutation is applied.
+ * Callbacks run synchronously on the mutating thread, in mutation order, so they must be quick.
+ * Mutations made by other instances sharing the data files are reported the same way, on the
+ * thread that applies them, followed by one {@link #onExternalChanges} call per batch.
+ */
+public interface DataChangeListener {
+
+    /**
+     * Called after a policy was saved.
+     *
+     * @param policy the saved policy
+     */
+    void onPolicySaved(Policy policy);
+
+    /**
+     * Called after a policy was deleted.
+     *
+     * @param policyId the ID of the deleted policy
+     */
+    void onPolicyDeleted(String policyId);
+
+    /**
+     * Called after a claim was saved.
+     *
+     * @param claim the saved claim
+     */
+    void onClaimSaved(Claim claim);
+
+    /**
+     * Called after a batch of mutations made by another instance was applied, once the
+     * per-mutation callbacks have run. Does nothing by default.
+     *
+     * @param savedPolicies    the policies added or changed by the other instance
+     * @param deletedPolicyIds the IDs of the policies it deleted
+     */
+    default void onExternalChanges(List<Policy> savedPolicies, List<String> deletedPolicyIds) {
+    }
+}
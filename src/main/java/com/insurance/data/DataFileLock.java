@@ -0,0 +1,92 @@
+package com.insurance.data;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Advisory lock on the files of a shard, shared by every process using the same data directory.
+ *
+ * The lock is an exclusive {@link FileLock} on a separate lock file, so that the data files
+ * themselves can still be renamed and replaced while it is held. A FileLock is held by the
+ * whole JVM and cannot be taken twice, so threads of this process first take a reentrant lock;
+ * only the outermost holder takes and releases the file lock.
+ */
+class DataFileLock {
+
+    private final Path file;
+    private final ReentrantLock local = new ReentrantLock();
+    private FileChannel channel;
+    private FileLock held;
+
+    /**
+     * Creates a lock backed by the given lock file, created on first use.
+     *
+     * @param file the lock file
+     */
+    DataFileLock(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Takes the lock, waiting for other threads and processes to release it.
+     *
+     * @throws IOException if the lock file could not be locked; the lock is then not held
+     */
+    void lock() throws IOException {
+        local.lock();
+        if (local.getHoldCount() > 1) {
+            return;
+        }
+        try {
+            if (channel == null) {
+                Path parent = file.getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            }
+            held = channel.lock();
+        } catch (IOException | RuntimeException e) {
+            local.unlock();
+            throw e;
+        }
+    }
+
+    /**
+     * Releases the lock taken by the last call to {@link #lock()} of this thread.
+     */
+    void unlock() {
+        try {
+            if (local.getHoldCount() == 1 && held != null) {
+                held.release();
+                held = null;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to release data file lock " + file + ": " + e.getMessage());
+        } finally {
+            local.unlock();
+        }
+    }
+
+    /**
+     * Closes the lock file. The lock must not be held.
+     */
+    void close() {
+        local.lock();
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close data file lock " + file + ": " + e.getMessage());
+        } finally {
+            local.unlock();
+        }
+    }
+}
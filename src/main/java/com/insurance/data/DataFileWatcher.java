@@ -0,0 +1,166 @@
+package com.insurance.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches the shard directories for changes made by other processes and passes each
+ * shard whose files changed to a callback, on a single background thread.
+ *
+ * Events are collected for a short debounce window, so that a burst of appends is handled
+ * at once. File system events are not delivered on every file system, notably network
+ * shares, so every shard is also checked once per poll interval without an event; the
+ * callback is expected to return quickly when nothing changed.
+ */
+class DataFileWatcher implements Closeable {
+
+    private static final long DEBOUNCE_MILLIS = 50;
+
+    private final List<DataShard> shards;
+    private final long pollMillis;
+    private final Consumer<DataShard> onChange;
+    private final Thread thread;
+    private final Object wakeUp = new Object();
+    private WatchService watchService;
+    private volatile boolean running = true;
+
+    /**
+     * Creates a watcher; {@link #start()} begins watching.
+     *
+     * @param shards     the shards to watch
+     * @param pollMillis how often every shard is checked without a file system event
+     * @param onChange   receives each shard whose files may have changed
+     */
+    DataFileWatcher(List<DataShard> shards, long pollMillis, Consumer<DataShard> onChange) {
+        this.shards = shards;
+        this.pollMillis = pollMillis;
+        this.onChange = onChange;
+        this.thread = new Thread(this::run, "data-file-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Registers the shard directories and starts the watcher thread.
+     * If the directories cannot be watched, the shards are only polled.
+     */
+    void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Set<Path> directories = new LinkedHashSet<>();
+            shards.forEach(shard -> directories.add(shard.getDirectory()));
+            for (Path directory : directories) {
+                Files.createDirectories(directory);
+                directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("Cannot watch data files, polling every " + pollMillis + " ms instead: " + e.getMessage());
+            closeWatchService();
+            watchService = null;
+        }
+        thread.start();
+    }
+
+    /** Watcher loop: waits for events or the poll interval and hands the changed shards over. */
+    private void run() {
+        while (running) {
+            try {
+                Set<DataShard> changed = new LinkedHashSet<>();
+                WatchKey key = watchService != null ? watchService.poll(pollMillis, TimeUnit.MILLISECONDS) : null;
+                if (key == null) {
+                    if (watchService == null) {
+                        pause(pollMillis);
+                    }
+                    changed.addAll(shards);
+                } else {
+                    pause(DEBOUNCE_MILLIS);
+                    for (; key != null; key = watchService.poll()) {
+                        collect(key, changed);
+                    }
+                }
+                for (DataShard shard : changed) {
+                    if (!running) {
+                        break;
+                    }
+                    try {
+                        onChange.accept(shard);
+                    } catch (RuntimeException e) {
+                        System.err.println("Failed to apply changes to " + shard.getSnapshotFile() + ": " + e.getMessage());
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Waits unless the watcher is closed. The thread is never interrupted, as that would
+     * close a lock file channel it may be waiting on.
+     */
+    private void pause(long millis) throws InterruptedException {
+        synchronized (wakeUp) {
+            if (running) {
+                wakeUp.wait(millis);
+            }
+        }
+    }
+
+    /** Adds the shards whose files are named by the events of a key, or every shard if events were lost. */
+    private void collect(WatchKey key, Set<DataShard> changed) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed.addAll(shards);
+                continue;
+            }
+            Path fileName = (Path) event.context();
+            for (DataShard shard : shards) {
+                if (shard.getDirectory().equals(directory) && shard.owns(fileName)) {
+                    changed.add(shard);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * Stops the watcher thread and waits for a callback in progress to finish.
+     */
+    @Override
+    public void close() {
+        synchronized (wakeUp) {
+            running = false;
+            wakeUp.notifyAll();
+        }
+        closeWatchService();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close data file watcher: " + e.getMessage());
+            }
+        }
+    }
+}
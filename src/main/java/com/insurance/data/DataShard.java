@@ -0,0 +1,531 @@
+package com.insurance.data;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.MalformedJsonException;
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * One independently persisted partition of the data.
+ * A shard owns a snapshot file, the append-only journal of mutations since that snapshot,
+ * and the journal being folded into a new snapshot while a compaction runs.
+ *
+ * Several processes may share the shard files. Loading, appending, rotating and writing
+ * snapshots hold the shard's {@link DataFileLock}, and {@link #pollExternal} picks up what
+ * other processes wrote: the journal entries they appended, or, when that is not enough,
+ * such as after another process replaced the snapshot, the reloaded shard contents.
+ */
+public class DataShard {
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACTING_SUFFIX = ".journal.compacting";
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private final String name;
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final SnapshotCodec codec;
+    private final Gson journalGson;
+    private final DataFileLock fileLock;
+    private final MutationJournal journal;
+    private final GroupCommitWriter groupCommitWriter;
+    private volatile boolean compacting;
+    private volatile CompletableFuture<Void> lastAppend = CompletableFuture.completedFuture(null);
+    // The snapshot file as last read or written by this process
+    private volatile List<Object> snapshotStamp;
+    // Set once another process rotated the journal, whose compaction will replace the snapshot
+    private volatile boolean expectSnapshot;
+    // Set when entries of other processes may have been missed
+    private volatile boolean needsReload;
+
+    /**
+     * Creates a shard.
+     *
+     * @param directory         the directory holding the shard files
+     * @param name              the shard name, used as the base name of its files
+     * @param format            the snapshot format
+     * @param prettyPrint       whether JSON snapshots are indented
+     * @param journalGson       a Gson instance able to write journal entries on a single line
+     * @param groupCommitMillis the group-commit window, or a negative value to append synchronously
+     */
+    public DataShard(Path directory, String name, SnapshotFormat format, boolean prettyPrint, Gson journalGson,
+                     long groupCommitMillis) {
+        this.name = name;
+        this.snapshotFile = directory.resolve(name + format.getExtension());
+        this.journalFile = directory.resolve(name + JOURNAL_SUFFIX);
+        this.compactingFile = directory.resolve(name + COMPACTING_SUFFIX);
+        this.codec = format.createCodec(prettyPrint);
+        this.journalGson = journalGson;
+        this.fileLock = new DataFileLock(directory.resolve(name + LOCK_SUFFIX));
+        this.journal = new MutationJournal(journalFile, journalGson, fileLock);
+        this.groupCommitWriter = groupCommitMillis >= 0 ? new GroupCommitWriter(journal, groupCommitMillis) : null;
+    }
+
+    /** @return the shard name */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the snapshot file of this shard */
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Returns whether a file of this shard has the given name, so that changes to it
+     * may have to be picked up by {@link #pollExternal}.
+     *
+     * @param fileName a file name in the shard directory
+     * @return true if the file is the snapshot or a journal of this shard
+     */
+    boolean owns(Path fileName) {
+        return fileName.equals(snapshotFile.getFileName()) || fileName.equals(journalFile.getFileName())
+                || fileName.equals(compactingFile.getFileName());
+    }
+
+    /** @return the directory holding the shard files */
+    Path getDirectory() {
+        return snapshotFile.toAbsolutePath().getParent();
+    }
+
+    /**
+     * Returns whether any file of this shard exists on disk.
+     *
+     * @return true if the shard has a snapshot or journal
+     */
+    public boolean exists() {
+        return Files.exists(snapshotFile) || Files.exists(journalFile) || Files.exists(compactingFile)
+                || Files.exists(AtomicFileWriter.tempFileFor(snapshotFile));
+    }
+
+    /**
+     * Loads the snapshot and replays the journals written since it.
+     * A compaction interrupted by the previous shutdown is finished before returning.
+     *
+     * @return the shard contents
+     */
+    ResidentStore load() {
+        try {
+            fileLock.lock();
+        } catch (IOException e) {
+            // Still load, as a read-only share may not allow creating the lock file
+            System.err.println("Failed to lock data file " + snapshotFile + ": " + e.getMessage());
+            return loadLocked();
+        }
+        try {
+            return loadLocked();
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /** Loads the shard as {@link #load()} does, with the lock held if it could be taken. */
+    private ResidentStore loadLocked() {
+        ResidentStore loaded = loadSnapshot();
+        snapshotStamp = stamp(snapshotFile);
+        replayJournals(loaded);
+
+        if (Files.exists(compactingFile)
+                && writeSnapshot(List.copyOf(loaded.policiesById.values()), List.copyOf(loaded.claimsById.values()))) {
+            try {
+                Files.deleteIfExists(compactingFile);
+            } catch (IOException e) {
+                System.err.println("Failed to remove compacted journal: " + e.getMessage());
+            }
+        }
+        return loaded;
+    }
+
+    /** Replays the journals on top of a snapshot and marks them as read. */
+    private void replayJournals(ResidentStore loaded) {
+        for (Path file : new Path[] {compactingFile, journalFile}) {
+            try {
+                MutationJournal.replay(file, journalGson, loaded::applyReplayed);
+            } catch (IOException e) {
+                System.err.println("Failed to replay journal " + file + ": " + e.getMessage());
+            }
+        }
+        try {
+            journal.markRead();
+        } catch (IOException e) {
+            System.err.println("Failed to inspect journal " + journalFile + ": " + e.getMessage());
+        }
+        expectSnapshot = false;
+        needsReload = false;
+    }
+
+    /**
+     * Appends a mutation to the journal, directly or through the group-commit writer.
+     *
+     * @param entry the mutation to append
+     * @return a future completed once the entry is on disk
+     */
+    CompletableFuture<Void> append(JournalEntry entry) {
+        return appendAll(List.of(entry));
+    }
+
+    /**
+     * Appends several mutations to the journal. Without group commit they are written
+     * with a single write and one flush to disk.
+     *
+     * @param entries the mutations to append, in order
+     * @return a future completed once all entries are on disk
+     */
+    CompletableFuture<Void> appendAll(List<JournalEntry> entries) {
+        if (groupCommitWriter != null) {
+            CompletableFuture<Void> durable = entries.size() == 1 ? groupCommitWriter.submit(entries.get(0))
+                    : CompletableFuture.allOf(entries.stream()
+                            .map(groupCommitWriter::submit)
+                            .toArray(CompletableFuture[]::new));
+            lastAppend = durable;
+            return durable;
+        }
+        try {
+            journal.appendAll(entries);
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            System.err.println("Failed to append to journal: " + e.getMessage());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns whether the journal has grown past the threshold and no compaction is running.
+     *
+     * @param thresholdBytes the compaction threshold
+     * @return true if the shard should be compacted
+     */
+    boolean needsCompaction(long thresholdBytes) {
+        return !compacting && journal.size() >= thresholdBytes;
+    }
+
+    /**
+     * Moves the current journal aside so that a snapshot of the current contents can be written.
+     * Must be called while mutations are blocked, together with taking the snapshot copy.
+     *
+     * The entries other processes appended since the last poll are read first and passed
+     * to the given visitor, so that the snapshot includes them. If the shard has to be
+     * reloaded instead, compaction is left to a later mutation.
+     *
+     * @param external receives the entries of other processes, to be applied before the snapshot is taken
+     * @return true if compaction started and {@link #compact} must follow
+     */
+    boolean beginCompaction(Consumer<JournalEntry> external) {
+        if (compacting || Files.exists(compactingFile)) {
+            // A previous compaction is running or was interrupted; its journal is still needed for replay
+            return false;
+        }
+        try {
+            fileLock.lock();
+        } catch (IOException e) {
+            System.err.println("Failed to lock data file " + snapshotFile + ": " + e.getMessage());
+            return false;
+        }
+        try {
+            if (Files.exists(compactingFile) || needsReload || !snapshotUnchanged()) {
+                // Another process is compacting, or the contents in memory are outdated
+                return false;
+            }
+            if (journal.readExternal(compactingFile, external) == MutationJournal.ReadResult.GAP) {
+                needsReload = true;
+                return false;
+            }
+            if (!journal.rotateTo(compactingFile)) {
+                return false;
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to rotate journal: " + e.getMessage());
+            return false;
+        } finally {
+            fileLock.unlock();
+        }
+        compacting = true;
+        return true;
+    }
+
+    /**
+     * Writes a new snapshot in the background and then deletes the journal it replaces.
+     * The journal is only deleted after the snapshot is written, so a crash at any point
+     * still leaves a snapshot plus journals that replay to the current state.
+     *
+     * @param policies the shard's policies at the time compaction began
+     * @param claims   the shard's claims at the time compaction began
+     * @param executor runs the compaction
+     */
+    void compact(List<Policy> policies, List<Claim> claims, Executor executor) {
+        executor.execute(() -> {
+            try {
+                if (writeSnapshot(policies, claims)) {
+                    Files.deleteIfExists(compactingFile);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to remove compacted journal: " + e.getMessage());
+            } finally {
+                compacting = false;
+            }
+        });
+    }
+
+    /**
+     * Writes a snapshot of the given contents crash-safely.
+     *
+     * @return true if the snapshot was written successfully
+     */
+    boolean writeSnapshot(List<Policy> policies, List<Claim> claims) {
+        try {
+            fileLock.lock();
+            try {
+                codec.write(snapshotFile, policies, claims);
+                snapshotStamp = stamp(snapshotFile);
+                expectSnapshot = false;
+            } finally {
+                fileLock.unlock();
+            }
+            return true;
+        } catch (IOException e) {
+            System.err.println("Failed to save data file " + snapshotFile + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether other processes may have changed the shard files since this process
+     * last read or wrote them, without taking the lock.
+     *
+     * @return true if {@link #pollExternal} may find changes
+     */
+    boolean mayHaveExternalChanges() {
+        return needsReload || journal.hasUnread() || !stamp(snapshotFile).equals(snapshotStamp);
+    }
+
+    /**
+     * Picks up the changes other processes made to the shard files since the last poll.
+     * Usually these are the journal entries they appended, which are passed to the visitor.
+     * If entries may have been missed, or another process replaced the snapshot outside of a
+     * compaction, the whole shard is reloaded instead and returned.
+     * Must be called while mutations are blocked, so that pending appends of this process
+     * are on disk before a reload.
+     *
+     * @param external receives the entries of other processes, in journal order
+     * @return the reloaded shard contents, or null if the changes were passed to the visitor
+     */
+    ResidentStore pollExternal(Consumer<JournalEntry> external) {
+        lastAppend.exceptionally(e -> null).join();
+        try {
+            fileLock.lock();
+        } catch (IOException e) {
+            System.err.println("Failed to lock data file " + snapshotFile + ": " + e.getMessage());
+            return null;
+        }
+        try {
+            List<JournalEntry> entries = new ArrayList<>();
+            MutationJournal.ReadResult result = needsReload ? null : journal.readExternal(compactingFile, entries::add);
+            if (result == MutationJournal.ReadResult.ROTATED) {
+                expectSnapshot = true;
+            } else if (result == MutationJournal.ReadResult.GAP) {
+                needsReload = true;
+            }
+            if (needsReload || !snapshotUnchanged()) {
+                ResidentStore loaded = readSnapshot(snapshotFile, codec);
+                snapshotStamp = stamp(snapshotFile);
+                loaded = loaded != null ? loaded : new ResidentStore();
+                replayJournals(loaded);
+                return loaded;
+            }
+            entries.forEach(external);
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to read journal " + journalFile + ": " + e.getMessage());
+            needsReload = true;
+            return null;
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the snapshot is the one this process last read or wrote, or was replaced
+     * by the compaction of another process whose journal was already read.
+     * Must be called while holding the lock.
+     */
+    private boolean snapshotUnchanged() {
+        List<Object> current = stamp(snapshotFile);
+        if (current.equals(snapshotStamp)) {
+            return true;
+        }
+        if (expectSnapshot) {
+            snapshotStamp = current;
+            expectSnapshot = false;
+            return true;
+        }
+        needsReload = true;
+        return false;
+    }
+
+    /**
+     * Returns what identifies a version of a file: its key, size and modification time.
+     * Snapshots are replaced by renaming a new file over them, which changes the key.
+     */
+    private static List<Object> stamp(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Arrays.asList(attributes.fileKey(), attributes.size(), attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Renames the snapshot to *.migrated and deletes the journals, after the shard's
+     * contents have been written elsewhere.
+     */
+    void retire() {
+        try {
+            if (Files.exists(snapshotFile)) {
+                Files.move(snapshotFile, snapshotFile.resolveSibling(snapshotFile.getFileName() + ".migrated"),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(journalFile);
+            Files.deleteIfExists(compactingFile);
+        } catch (IOException e) {
+            System.err.println("Failed to retire migrated data file " + snapshotFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes pending group commits and closes the journal and the lock file.
+     */
+    void close() {
+        if (groupCommitWriter != null) {
+            groupCommitWriter.close();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close journal: " + e.getMessage());
+        }
+        fileLock.close();
+    }
+
+    /**
+     * Loads the snapshot file.
+     * Recovers from a snapshot write that was interrupted by a crash: a leftover temporary
+     * file is promoted if the snapshot is missing or unreadable, and discarded otherwise.
+     * If neither exists, a snapshot of this shard in another format is migrated.
+     * Returns an empty store if no readable snapshot exists.
+     */
+    private ResidentStore loadSnapshot() {
+        Path temp = AtomicFileWriter.tempFileFor(snapshotFile);
+        if (!Files.exists(snapshotFile) && !Files.exists(temp)) {
+            ResidentStore migrated = migrateSnapshot();
+            if (migrated != null) {
+                return migrated;
+            }
+        }
+        ResidentStore data = readSnapshot(snapshotFile, codec);
+
+        if (Files.exists(temp)) {
+            try {
+                ResidentStore recovered = data == null ? readSnapshot(temp, codec) : null;
+                if (recovered != null) {
+                    Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+                    System.err.println("Recovered data file from " + temp);
+                    data = recovered;
+                } else {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to recover data file: " + e.getMessage());
+            }
+        }
+        return data != null ? data : new ResidentStore();
+    }
+
+    /**
+     * Loads a snapshot of this shard written in another format, such as a purchases.json left
+     * by a version that did not write NDJSON, and rewrites it in the configured format. The
+     * journals apply to it unchanged. The old snapshot is renamed to *.migrated once the new
+     * one is written; until then it is migrated again on every load.
+     *
+     * @return the snapshot, or null if there is no readable snapshot in another format
+     */
+    private ResidentStore migrateSnapshot() {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            Path legacy = snapshotFile.resolveSibling(name + format.getExtension());
+            if (legacy.equals(snapshotFile) || !Files.exists(legacy)) {
+                continue;
+            }
+            ResidentStore data = readSnapshot(legacy, format.createCodec());
+            if (data == null) {
+                continue;
+            }
+            if (writeSnapshot(List.copyOf(data.policiesById.values()), List.copyOf(data.claimsById.values()))) {
+                try {
+                    Files.move(legacy, legacy.resolveSibling(legacy.getFileName() + ".migrated"),
+                            StandardCopyOption.REPLACE_EXISTING);
+                    System.err.println("Migrated data file " + legacy + " to " + snapshotFile);
+                } catch (IOException e) {
+                    System.err.println("Failed to retire migrated data file " + legacy + ": " + e.getMessage());
+                }
+            }
+            return data;
+        }
+        return null;
+    }
+
+    /**
+     * Streams a snapshot file record by record straight into a new resident store,
+     * without materializing the file as an intermediate object graph.
+     * A file that cannot be parsed is moved aside so that it is neither loaded as an
+     * empty store nor overwritten by the next compaction.
+     *
+     * @param file  the snapshot file
+     * @param codec the codec of its format
+     * @return the snapshot, or null if the file is missing or corrupt
+     */
+    private ResidentStore readSnapshot(Path file, SnapshotCodec codec) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ResidentStore data = new ResidentStore();
+        try {
+            codec.read(file, policy -> {
+                data.addPolicy(policy);
+                return true;
+            }, claim -> {
+                data.addClaim(claim);
+                return true;
+            });
+            return data;
+        } catch (MalformedJsonException | EOFException | StreamCorruptedException e) {
+            // Truncated or malformed content, as the codecs report it; any other failure is a bug
+            // and propagates rather than setting the user's data aside
+            Path quarantined = file.resolveSibling(file.getFileName() + ".corrupt-" + System.currentTimeMillis());
+            System.err.println("Data file " + file + " is corrupt (" + e.getMessage() + "), moving it to " + quarantined);
+            try {
+                Files.move(file, quarantined);
+            } catch (IOException moveError) {
+                System.err.println("Failed to move corrupt data file: " + moveError.getMessage());
+            }
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to load data file: " + e.getMessage());
+            return null;
+        }
+    }
+}
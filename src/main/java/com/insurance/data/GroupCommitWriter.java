@@ -0,0 +1,133 @@
+package com.insurance.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces concurrent journal appends into group commits.
+ * Mutations are queued, and a single writer thread writes everything queued within
+ * a short window to the journal with one write and one flush to disk.
+ */
+public class GroupCommitWriter implements Closeable {
+
+    private final MutationJournal journal;
+    private final long windowNanos;
+    private final BlockingQueue<PendingEntry> queue = new LinkedBlockingQueue<>();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts a group-commit writer for the given journal.
+     *
+     * @param journal      the journal to append to
+     * @param windowMillis how long to keep collecting entries after the first one arrives
+     */
+    public GroupCommitWriter(MutationJournal journal, long windowMillis) {
+        this.journal = journal;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.writerThread = new Thread(this::run, "group-commit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues an entry for the next group commit.
+     *
+     * @param entry the entry to append
+     * @return a future completed once the entry is on disk
+     */
+    public CompletableFuture<Void> submit(JournalEntry entry) {
+        PendingEntry pending = new PendingEntry(entry);
+        if (!running) {
+            pending.future.completeExceptionally(new IOException("Group-commit writer is closed"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    /**
+     * Stops accepting entries, writes everything still queued and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Writer loop: waits for the first entry, collects a batch for one window and commits it. */
+    private void run() {
+        List<PendingEntry> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEntry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                long remaining;
+                while (running && (remaining = deadline - System.nanoTime()) > 0) {
+                    PendingEntry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                queue.drainTo(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(batch);
+                commit(batch);
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Appends a batch with a single write and completes its futures. */
+    private void commit(List<PendingEntry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<JournalEntry> entries = new ArrayList<>(batch.size());
+        for (PendingEntry pending : batch) {
+            entries.add(pending.entry);
+        }
+        try {
+            journal.appendAll(entries);
+            for (PendingEntry pending : batch) {
+                pending.future.complete(null);
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to append to journal: " + e.getMessage());
+            for (PendingEntry pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * A queued entry and the future its caller waits on.
+     */
+    private static class PendingEntry {
+        final JournalEntry entry;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingEntry(JournalEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
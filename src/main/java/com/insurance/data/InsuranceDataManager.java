@@ -3,44 +3,223 @@ package com.insurance.data;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
 import com.insurance.model.Policy;
+import com.insurance.model.PolicyCriteria;
+import com.insurance.service.IConfigService;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
- * Manages reading and writing insurance data to a JSON file.
+ * Manages reading and writing insurance data to data files.
  * Handles persistence for both policies and claims.
+ *
+ * The data files are loaded once into a resident in-memory store by {@link #load()}.
+ * Reads are served from memory through a primary index of policies by ID and a
+ * secondary index of claims by policy ID, both kept up to date on every mutation.
+ * A sorted index of policy IDs serves paged reads in a stable order, and a
+ * {@link PolicyQueryIndex} answers criteria queries.
+ * Every mutation updates memory and is appended as a single record to a journal next
+ * to the data file; once the journal grows past the configured size, a background
+ * compactor folds it into a new data file snapshot.
+ *
+ * In group-commit mode, journal records are handed to a {@link GroupCommitWriter} that
+ * batches concurrent mutations into a single flush; the asynchronous variants of the
+ * mutation methods return a future that completes once the change is on disk.
+ *
+ * The data can be split into {@link DataShard}s partitioned by insurance type and by
+ * a hash of the policy ID. Each shard has its own snapshot and journal, so a write only
+ * rewrites the shard it touches, and shards are loaded in parallel at startup.
+ * A claim is stored in the shard of its policy.
+ *
+ * With the "columnar" policy store, resident policies are held in a
+ * {@link ColumnarPolicyStore} instead of one object per policy, trading a little
+ * read time for a much smaller heap.
+ *
+ * Several instances of the application may share the data directory. Each shard is written
+ * under an advisory file lock, and a {@link DataFileWatcher} applies the changes made by
+ * other instances to memory as they happen, notifying the listeners.
  */
-public class InsuranceDataManager {
+public class InsuranceDataManager implements InsuranceRepository {
 
-    private static final String DATA_FILE = "database/purchases.json";
-    private final Gson gson;
+    private static final String DATA_DIR = "database";
+    private static final String SHARD_DIR = "database/shards";
+    private static final String UNSHARDED_NAME = "purchases";
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    private final Gson journalGson;
+    private final SnapshotFormat snapshotFormat;
+    private final boolean prettyPrint;
+    private final long groupCommitMillis;
+    private final int shardsPerType;
+    private final boolean columnarPolicies;
+    private final boolean watchEnabled;
+    private final long watchPollMillis;
+    private DataFileWatcher watcher;
+    private final List<DataShard> shards;
+    private final long compactionThresholdBytes;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ResidentStore store = new ResidentStore();
+    private SortedIdIndex policyOrder = new SortedIdIndex(List.of());
+    private PolicyQueryIndex queryIndex = new PolicyQueryIndex(List.of());
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    /** Shards holding the claims of policies that no longer exist. */
+    private final Map<String, DataShard> orphanClaimShards = new HashMap<>();
 
     /**
-     * Creates a new data manager with Gson configured for Policy and LocalDate handling.
+     * Creates a new data manager with Gson configured for journal entries, Policy, Claim and LocalDate handling.
+     *
+     * @param config the configuration service providing the snapshot, sharding, policy store, journal and group-commit settings
      */
-    public InsuranceDataManager() {
-        this.gson = new GsonBuilder()
-                .registerTypeAdapter(Policy.class, new PolicyAdapter())
-                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
-                .setPrettyPrinting()
-                .create();
+    public InsuranceDataManager(IConfigService config) {
+        this.journalGson = createJournalGson();
+        this.snapshotFormat = SnapshotFormat.fromName(config.getSnapshotFormat());
+        this.prettyPrint = config.isSnapshotPrettyPrint();
+        this.groupCommitMillis = config.isGroupCommitEnabled() ? config.getGroupCommitWindowMillis() : -1;
+        this.shardsPerType = Math.max(0, config.getDataShardsPerType());
+        this.columnarPolicies = "columnar".equalsIgnoreCase(config.getPolicyStore());
+        this.compactionThresholdBytes = config.getJournalCompactionThresholdBytes();
+        this.watchEnabled = config.isDataWatchEnabled();
+        this.watchPollMillis = config.getDataWatchPollMillis();
+        this.shards = createLayout();
+    }
+
+    /**
+     * Loads the data files into the in-memory store, replacing its current contents.
+     * Shards are loaded in parallel; any journal left over from the previous run is
+     * replayed on top of its snapshot.
+     *
+     * If none of the configured files exist yet but data files in another format or
+     * shard layout do, they are migrated: loaded, written in the configured layout,
+     * and renamed to *.migrated.
+     * Once loaded, the data files are watched for changes made by other instances, if enabled.
+     * Must be called once before the data manager is used.
+     */
+    @Override
+    public void load() {
+        List<DataShard> sources = shards;
+        if (shards.stream().noneMatch(DataShard::exists)) {
+            List<DataShard> foreign = findForeignShards();
+            if (!foreign.isEmpty()) {
+                sources = foreign;
+            }
+        }
+
+        List<ResidentStore> parts = sources.parallelStream()
+                .map(DataShard::load)
+                .collect(Collectors.toList());
+
+        ResidentStore loaded = columnarPolicies ? new ResidentStore(new ColumnarPolicyStore()) : new ResidentStore();
+        Map<String, DataShard> orphans = new HashMap<>();
+        for (int i = 0; i < parts.size(); i++) {
+            loaded.addAll(parts.get(i));
+            if (sources == shards) {
+                recordOrphanClaims(parts.get(i), shards.get(i), orphans);
+            }
+        }
+
+        SortedIdIndex order = new SortedIdIndex(loaded.policiesById.keySet());
+        PolicyQueryIndex query = new PolicyQueryIndex(loaded.policiesById.values());
+
+        lock.writeLock().lock();
+        try {
+            store = loaded;
+            policyOrder = order;
+            queryIndex = query;
+            orphanClaimShards.clear();
+            orphanClaimShards.putAll(orphans);
+            if (sources != shards) {
+                migrate(sources);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (watchEnabled && watcher == null) {
+            watcher = new DataFileWatcher(shards, watchPollMillis, this::applyExternalChanges);
+            watcher.start();
+        }
     }
 
     /**
      * Returns all saved policies.
+     * When the data is sharded, the policies of all shards are merged in shard order.
      *
      * @return list of all policies
      */
+    @Override
     public List<Policy> getAllPolicies() {
-        return loadData().policies;
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(store.policiesById.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getPolicyCount() {
+        lock.readLock().lock();
+        try {
+            return store.policiesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Policy> getPolicies(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return resolve(policyOrder.range(Math.max(0, offset), Math.max(0, limit)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Policy> getPoliciesAfter(String afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            return resolve(policyOrder.after(afterId, Math.max(0, limit)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Policy> findPolicies(PolicyCriteria criteria) {
+        lock.readLock().lock();
+        try {
+            return queryIndex.query(criteria, store.policiesById::get);
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     /**
@@ -49,49 +228,115 @@ public class InsuranceDataManager {
      * @param id the policy ID to search for
      * @return the matching policy, or null if not found
      */
+    @Override
     public Policy getPolicyById(String id) {
-        for (Policy policy : loadData().policies) {
-            if (policy.getId().equals(id)) {
-                return policy;
-            }
+        lock.readLock().lock();
+        try {
+            return store.policiesById.get(id);
+        } finally {
+            lock.readLock().unlock();
         }
-        return null;
     }
 
     /**
      * Saves a new policy to the data file.
+     * A policy whose ID already exists is rejected, as a replayed journal would ignore it.
      *
      * @param policy the policy to save
+     * @throws IllegalArgumentException if a policy with the same ID already exists
+     * @throws IllegalStateException    if the journal could not be written
      */
+    @Override
     public void savePolicy(Policy policy) {
-        DataStore data = loadData();
-        data.policies.add(policy);
-        saveData(data);
+        awaitDurable(savePolicyAsync(policy));
     }
 
     /**
-     * Deletes a policy by its ID.
+     * Saves a new policy, returning as soon as it is visible to readers.
      *
-     * @param id the policy ID to delete
-     * @return true if a policy was found and removed, false otherwise
+     * @param policy the policy to save
+     * @return a future completed once the policy is on disk, or failed if its ID already exists
      */
-    public boolean deletePolicy(String id) {
-        DataStore data = loadData();
-        boolean removed = false;
-        for (int i = 0; i < data.policies.size(); i++) {
-            if (data.policies.get(i).getId().equals(id)) {
-                data.policies.remove(i);
-                removed = true;
-                break;
+    @Override
+    public CompletableFuture<Void> savePolicyAsync(Policy policy) {
+        lock.writeLock().lock();
+        try {
+            if (store.policiesById.containsKey(policy.getId())) {
+                return CompletableFuture.failedFuture(rejectExisting(policy));
             }
+            putPolicy(policy);
+            return persist(shardFor(policy), JournalEntry.savePolicy(policy));
+        } finally {
+            lock.writeLock().unlock();
         }
-        if (removed) {
-            saveData(data);
+    }
+
+    /**
+     * Saves many policies as one batch. Memory and indexes are updated under a single
+     * lock, and each shard's journal receives all of its policies with one write.
+     * Policies whose ID already exists, or occurs earlier in the batch, are rejected.
+     *
+     * @param policies the policies to save
+     * @return the policies that were saved, in batch order
+     * @throws IllegalStateException if a journal could not be written
+     */
+    @Override
+    public List<Policy> savePolicies(List<Policy> policies) {
+        List<Policy> saved = new ArrayList<>(policies.size());
+        List<CompletableFuture<Void>> durable = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            Map<DataShard, List<JournalEntry>> entriesByShard = new LinkedHashMap<>();
+            for (Policy policy : policies) {
+                if (store.policiesById.containsKey(policy.getId())) {
+                    rejectExisting(policy);
+                    continue;
+                }
+                putPolicy(policy);
+                saved.add(policy);
+                entriesByShard.computeIfAbsent(shardFor(policy), shard -> new ArrayList<>())
+                        .add(JournalEntry.savePolicy(policy));
+            }
+            entriesByShard.forEach((shard, entries) -> durable.add(persist(shard, entries)));
+        } finally {
+            lock.writeLock().unlock();
         }
-        return removed;
+        awaitDurable(CompletableFuture.allOf(durable.toArray(new CompletableFuture<?>[0])));
+        return saved;
     }
 
+    /**
+     * Deletes a policy by its ID. If the journal cannot be written, the policy is gone
+     * from memory but the deletion is not durable, which the exception reports.
+     *
+     * @param id the policy ID to delete
+     * @return true if a policy was found and removed, false otherwise
+     * @throws IllegalStateException if the journal could not be written
+     */
+    @Override
+    public boolean deletePolicy(String id) {
+        return awaitDurable(deletePolicyAsync(id));
+    }
 
+    /**
+     * Deletes a policy by its ID, returning as soon as the deletion is visible to readers.
+     *
+     * @param id the policy ID to delete
+     * @return a future completed with whether a policy was removed, once the deletion is on disk
+     */
+    @Override
+    public CompletableFuture<Boolean> deletePolicyAsync(String id) {
+        lock.writeLock().lock();
+        try {
+            Policy removed = removePolicy(id);
+            if (removed == null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            return persist(shardFor(removed), JournalEntry.deletePolicy(id)).thenApply(ignored -> true);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
 
     /**
      * Returns all claims associated with a specific policy.
@@ -99,63 +344,489 @@ public class InsuranceDataManager {
      * @param policyId the policy ID to filter by
      * @return list of claims for that policy
      */
+    @Override
     public List<Claim> getClaimsByPolicyId(String policyId) {
-        return loadData().claims.stream()
-                .filter(c -> c.getPolicyId().equals(policyId))
-                .collect(Collectors.toList());
+        lock.readLock().lock();
+        try {
+            List<Claim> claims = store.claimsByPolicyId.get(policyId);
+            return claims != null ? new ArrayList<>(claims) : new ArrayList<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all claims, in the order they were saved.
+     *
+     * @return list of all claims
+     */
+    @Override
+    public List<Claim> getAllClaims() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(store.claimsById.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the claims of several policies under a single read lock.
+     *
+     * @param policyIds the policy IDs
+     * @return the claims by policy ID; policies without claims are absent
+     */
+    @Override
+    public Map<String, List<Claim>> getClaimsByPolicyIds(Collection<String> policyIds) {
+        Map<String, List<Claim>> claimsById = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String policyId : policyIds) {
+                List<Claim> claims = store.claimsByPolicyId.get(policyId);
+                if (claims != null) {
+                    claimsById.put(policyId, new ArrayList<>(claims));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return claimsById;
     }
 
     /**
      * Saves a new claim to the data file.
      *
      * @param claim the claim to save
+     * @throws IllegalStateException if the journal could not be written
      */
+    @Override
     public void saveClaim(Claim claim) {
-        DataStore data = loadData();
-        data.claims.add(claim);
-        saveData(data);
+        awaitDurable(saveClaimAsync(claim));
+    }
+
+    /**
+     * Saves a new claim, returning as soon as it is visible to readers.
+     *
+     * @param claim the claim to save
+     * @return a future completed once the claim is on disk
+     */
+    @Override
+    public CompletableFuture<Void> saveClaimAsync(Claim claim) {
+        lock.writeLock().lock();
+        try {
+            putClaim(claim);
+            return persist(shardForClaims(claim.getPolicyId()), JournalEntry.saveClaim(claim));
+        } finally {
+            lock.writeLock().unlock();
+        }
     }
 
     /**
-     * Loads data from the JSON file.
-     * Returns an empty DataStore if the file does not exist or is invalid.
+     * Registers a listener notified after every mutation.
+     * Listeners run while the mutation holds the write lock, so they see mutations in order.
+     *
+     * @param listener the listener to add
      */
-    private DataStore loadData() {
-        File file = new File(DATA_FILE);
-        if (!file.exists()) {
-            return new DataStore();
+    @Override
+    public void addChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Stops watching the data files and the background compactor, flushes pending group
+     * commits and closes the journals.
+     * Should be called once when the application shuts down.
+     */
+    @Override
+    public void close() {
+        if (watcher != null) {
+            watcher.close();
         }
-        try (FileReader reader = new FileReader(file)) {
-            DataStore data = gson.fromJson(reader, DataStore.class);
-            return data != null ? data : new DataStore();
-        } catch (IOException e) {
-            System.err.println("Failed to load data file: " + e.getMessage());
-            return new DataStore();
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Journal compaction did not finish before shutdown.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        shards.forEach(DataShard::close);
+    }
+
+    /**
+     * Appends a mutation to a shard's journal and schedules compaction of that shard
+     * when its journal is too large.
+     * Must be called while holding the write lock, so that journal order matches mutation order.
+     *
+     * @return a future completed once the entry is on disk
+     */
+    private CompletableFuture<Void> persist(DataShard shard, JournalEntry entry) {
+        return persist(shard, List.of(entry));
     }
 
     /**
-     * Saves data to the JSON file. Creates the data directory if needed.
+     * Appends mutations to a shard's journal in one write, then checks for compaction
+     * as {@link #persist(DataShard, JournalEntry)} does.
+     *
+     * @return a future completed once the entries are on disk
      */
-    private void saveData(DataStore data) {
-        File file = new File(DATA_FILE);
-        File parentDir = file.getParentFile();
-        if (parentDir != null && !parentDir.exists() && !parentDir.mkdirs()) {
-            System.err.println("Failed to create data directory: " + parentDir.getPath());
+    private CompletableFuture<Void> persist(DataShard shard, List<JournalEntry> entries) {
+        CompletableFuture<Void> durable = shard.appendAll(entries);
+        if (!shard.needsCompaction(compactionThresholdBytes)) {
+            return durable;
+        }
+        List<Policy> saved = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        boolean started = shard.beginCompaction(entry -> applyExternal(entry, saved, deleted));
+        notifyExternalChanges(saved, deleted);
+        if (started) {
+            List<Policy> policies = new ArrayList<>();
+            for (Policy policy : store.policiesById.values()) {
+                if (shardFor(policy) == shard) {
+                    policies.add(policy);
+                }
+            }
+            List<Claim> claims = new ArrayList<>();
+            for (Claim claim : store.claimsById.values()) {
+                if (shardForClaims(claim.getPolicyId()) == shard) {
+                    claims.add(claim);
+                }
+            }
+            shard.compact(policies, claims, compactor);
+        }
+        return durable;
+    }
+
+    /**
+     * Applies the changes other instances made to a shard's files. Called by the watcher.
+     *
+     * @param shard the shard whose files may have changed
+     */
+    private void applyExternalChanges(DataShard shard) {
+        if (!shard.mayHaveExternalChanges()) {
             return;
         }
-        try (FileWriter writer = new FileWriter(file)) {
-            gson.toJson(data, writer);
-        } catch (IOException e) {
-            System.err.println("Failed to save data file: " + e.getMessage());
+        List<Policy> saved = new ArrayList<>();
+        List<String> deleted = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            ResidentStore reloaded = shard.pollExternal(entry -> applyExternal(entry, saved, deleted));
+            if (reloaded != null) {
+                applyReloaded(shard, reloaded, saved, deleted);
+            }
+            notifyExternalChanges(saved, deleted);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a journal entry written by another instance, collecting the changed policies.
+     * Must be called while holding the write lock.
+     */
+    private void applyExternal(JournalEntry entry, List<Policy> saved, List<String> deleted) {
+        switch (entry.getOp()) {
+            case SAVE_POLICY:
+                // Ignored for an existing ID, as on a local save and on replay
+                if (!store.policiesById.containsKey(entry.getPolicy().getId())) {
+                    putPolicy(entry.getPolicy());
+                    saved.add(entry.getPolicy());
+                }
+                break;
+            case DELETE_POLICY:
+                if (removePolicy(entry.getPolicyId()) != null) {
+                    deleted.add(entry.getPolicyId());
+                }
+                break;
+            case SAVE_CLAIM:
+                if (!store.claimsById.containsKey(entry.getClaim().getId())) {
+                    putClaim(entry.getClaim());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Brings memory in line with the reloaded contents of a shard, applying only the
+     * policies that differ. Must be called while holding the write lock.
+     */
+    private void applyReloaded(DataShard shard, ResidentStore reloaded, List<Policy> saved, List<String> deleted) {
+        List<String> removed = new ArrayList<>();
+        for (Policy policy : store.policiesById.values()) {
+            if (shardFor(policy) == shard && !reloaded.policiesById.containsKey(policy.getId())) {
+                removed.add(policy.getId());
+            }
+        }
+        for (String id : removed) {
+            removePolicy(id);
+            deleted.add(id);
+        }
+        for (Policy policy : reloaded.policiesById.values()) {
+            if (!samePolicy(store.policiesById.get(policy.getId()), policy)) {
+                putPolicy(policy);
+                saved.add(policy);
+            }
+        }
+        for (Claim claim : reloaded.claimsById.values()) {
+            if (!store.claimsById.containsKey(claim.getId())) {
+                putClaim(claim);
+            }
+        }
+        recordOrphanClaims(reloaded, shard, orphanClaimShards);
+    }
+
+    /** Returns whether a resident policy holds the same data as a reloaded one. */
+    private static boolean samePolicy(Policy current, Policy reloaded) {
+        return current != null && current.getType() == reloaded.getType()
+                && Objects.equals(current.getFirstName(), reloaded.getFirstName())
+                && Objects.equals(current.getLastName(), reloaded.getLastName())
+                && Objects.equals(current.getDate(), reloaded.getDate())
+                && Objects.equals(current.getRemarks(), reloaded.getRemarks());
+    }
+
+    /** Tells the listeners which policies changed through other instances, if any did. */
+    private void notifyExternalChanges(List<Policy> saved, List<String> deleted) {
+        if (!saved.isEmpty() || !deleted.isEmpty()) {
+            listeners.forEach(listener -> listener.onExternalChanges(saved, deleted));
+        }
+    }
+
+    /**
+     * Reports a save that was rejected because a policy with the same ID exists.
+     *
+     * @return the exception describing the rejection
+     */
+    private static IllegalArgumentException rejectExisting(Policy policy) {
+        System.err.println("Not saving policy " + policy.getId() + ": a policy with this ID already exists.");
+        return new IllegalArgumentException("Policy " + policy.getId() + " already exists");
+    }
+
+    /**
+     * Adds a policy to memory and to the indexes and notifies the listeners. Saves only
+     * add new policies; an existing one is replaced only when a reload of its shard changed it.
+     * Must be called while holding the write lock.
+     */
+    private void putPolicy(Policy policy) {
+        if (!store.policiesById.containsKey(policy.getId())) {
+            policyOrder.add(policy.getId());
+        }
+        store.addPolicy(policy);
+        queryIndex.add(policy);
+        listeners.forEach(listener -> listener.onPolicySaved(policy));
+    }
+
+    /**
+     * Removes a policy from memory and from the indexes and notifies the listeners.
+     * Its claims stay, remembered as orphans of its shard.
+     * Must be called while holding the write lock.
+     *
+     * @return the removed policy, or null if there was none
+     */
+    private Policy removePolicy(String id) {
+        Policy removed = store.policiesById.remove(id);
+        if (removed == null) {
+            return null;
+        }
+        policyOrder.remove(id);
+        queryIndex.remove(id);
+        if (queryIndex.isFragmented()) {
+            queryIndex = new PolicyQueryIndex(store.policiesById.values());
+        }
+        listeners.forEach(listener -> listener.onPolicyDeleted(id));
+        if (store.claimsByPolicyId.containsKey(id)) {
+            orphanClaimShards.put(id, shardFor(removed));
+        }
+        return removed;
+    }
+
+    /** Adds a claim to memory and notifies the listeners. Must be called while holding the write lock. */
+    private void putClaim(Claim claim) {
+        store.addClaim(claim);
+        listeners.forEach(listener -> listener.onClaimSaved(claim));
+    }
+
+    /** Looks up the policies for a page of IDs. Must be called while holding the lock. */
+    private List<Policy> resolve(List<String> ids) {
+        List<Policy> policies = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            policies.add(store.policiesById.get(id));
+        }
+        return policies;
+    }
+
+    /**
+     * Waits until a mutation is on disk and returns its result. A rejected mutation or a
+     * failed journal write is rethrown to the synchronous caller.
+     *
+     * @throws IllegalArgumentException if the mutation was rejected
+     * @throws IllegalStateException    if the mutation could not be written
+     */
+    private static <T> T awaitDurable(CompletableFuture<T> durable) {
+        try {
+            return durable.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Failed to write the data files: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Returns the shard a policy belongs to: partitioned by insurance type, then by
+     * a hash of the policy ID.
+     */
+    private DataShard shardFor(Policy policy) {
+        if (shardsPerType == 0) {
+            return shards.get(0);
+        }
+        return shards.get(policy.getType().ordinal() * shardsPerType
+                + Math.floorMod(policy.getId().hashCode(), shardsPerType));
+    }
+
+    /**
+     * Returns the shard holding the claims of a policy: the policy's own shard, or,
+     * for a policy that no longer exists, the shard its claims were stored in.
+     */
+    private DataShard shardForClaims(String policyId) {
+        Policy policy = store.policiesById.get(policyId);
+        if (policy != null) {
+            return shardFor(policy);
+        }
+        DataShard shard = orphanClaimShards.get(policyId);
+        return shard != null ? shard : shards.get(Math.floorMod(policyId.hashCode(), shards.size()));
+    }
+
+    /** Remembers which shard holds claims whose policy is not part of that shard's data. */
+    private static void recordOrphanClaims(ResidentStore part, DataShard shard, Map<String, DataShard> orphans) {
+        for (String policyId : part.claimsByPolicyId.keySet()) {
+            if (!part.policiesById.containsKey(policyId)) {
+                orphans.put(policyId, shard);
+            }
+        }
+    }
+
+    /**
+     * Creates the configured shard layout: a single "purchases" shard in the data directory,
+     * or one shard per insurance type and hash bucket in the shards directory.
+     */
+    private List<DataShard> createLayout() {
+        List<DataShard> layout = new ArrayList<>();
+        if (shardsPerType == 0) {
+            layout.add(new DataShard(Paths.get(DATA_DIR), UNSHARDED_NAME, snapshotFormat, prettyPrint, journalGson, groupCommitMillis));
+            return layout;
+        }
+        for (InsuranceType type : InsuranceType.values()) {
+            for (int bucket = 0; bucket < shardsPerType; bucket++) {
+                String name = type.name().toLowerCase() + "-" + bucket;
+                layout.add(new DataShard(Paths.get(SHARD_DIR), name, snapshotFormat, prettyPrint, journalGson, groupCommitMillis));
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Creates the Gson instance that reads and writes journal entries on a single line.
+     *
+     * @return the journal Gson
+     */
+    static Gson createJournalGson() {
+        return new GsonBuilder()
+                .registerTypeAdapter(Policy.class, new PolicyAdapter().nullSafe())
+                .registerTypeAdapter(Claim.class, new ClaimAdapter())
+                .registerTypeAdapter(JournalEntry.class, new JournalEntryAdapter().nullSafe())
+                .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+                .create();
+    }
+
+    /**
+     * Finds data files left by a different format or shard layout.
+     * Journals are format independent; a shard's format is taken from its snapshot file.
+     */
+    private List<DataShard> findForeignShards() {
+        return findShards(snapshotFormat, prettyPrint, journalGson);
+    }
+
+    /**
+     * Finds every shard with files in the data directories, in any format and shard layout,
+     * such as to load the file-based data into another backend.
+     * A shard's format is taken from its snapshot file; a shard that only has a journal
+     * gets the given format. The shards append synchronously.
+     *
+     * @param journalOnlyFormat the format of shards without a snapshot
+     * @param prettyPrint       whether JSON snapshots are indented
+     * @param journalGson       the Gson instance of the journals
+     * @return the shards found, which must be closed after use
+     */
+    static List<DataShard> findShards(SnapshotFormat journalOnlyFormat, boolean prettyPrint, Gson journalGson) {
+        Map<Path, DataShard> found = new LinkedHashMap<>();
+        for (Path directory : new Path[] {Paths.get(DATA_DIR), Paths.get(SHARD_DIR)}) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    for (SnapshotFormat format : SnapshotFormat.values()) {
+                        if (fileName.endsWith(format.getExtension())) {
+                            String name = fileName.substring(0, fileName.length() - format.getExtension().length());
+                            found.put(directory.resolve(name), new DataShard(directory, name, format, prettyPrint, journalGson, -1));
+                        }
+                    }
+                    if (fileName.endsWith(JOURNAL_SUFFIX)) {
+                        String name = fileName.substring(0, fileName.length() - JOURNAL_SUFFIX.length());
+                        found.putIfAbsent(directory.resolve(name),
+                                new DataShard(directory, name, journalOnlyFormat, prettyPrint, journalGson, -1));
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Failed to scan data directory " + directory + ": " + e.getMessage());
+            }
         }
+        return new ArrayList<>(found.values());
     }
 
     /**
-     * Internal class representing the structure of the JSON data file.
+     * Writes the freshly loaded store in the configured layout and retires the files it came from.
+     * The old files are only retired once every configured shard was written.
+     * Must be called while holding the write lock.
      */
-    private static class DataStore {
-        List<Policy> policies = new ArrayList<>();
-        List<Claim> claims = new ArrayList<>();
+    private void migrate(List<DataShard> sources) {
+        Map<DataShard, List<Policy>> policies = new HashMap<>();
+        Map<DataShard, List<Claim>> claims = new HashMap<>();
+        shards.forEach(shard -> {
+            policies.put(shard, new ArrayList<>());
+            claims.put(shard, new ArrayList<>());
+        });
+        for (Policy policy : store.policiesById.values()) {
+            policies.get(shardFor(policy)).add(policy);
+        }
+        for (Claim claim : store.claimsById.values()) {
+            DataShard shard = shardForClaims(claim.getPolicyId());
+            claims.get(shard).add(claim);
+            if (!store.policiesById.containsKey(claim.getPolicyId())) {
+                orphanClaimShards.put(claim.getPolicyId(), shard);
+            }
+        }
+
+        boolean written = IntStream.range(0, shards.size()).parallel()
+                .mapToObj(shards::get)
+                .map(shard -> shard.writeSnapshot(policies.get(shard), claims.get(shard)))
+                .reduce(true, Boolean::logicalAnd);
+        for (DataShard source : sources) {
+            if (written) {
+                source.retire();
+                System.err.println("Migrated data file " + source.getSnapshotFile());
+            }
+            source.close();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,213 @@
+package com.insurance.data;
+
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+import com.insurance.model.PolicyCriteria;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persistence interface for policies and claims.
+ * Implementations decide how and where the data is stored.
+ */
+public interface InsuranceRepository {
+
+    /**
+     * Opens the underlying storage and loads whatever is needed before first use.
+     * Must be called once before the repository is used.
+     *
+     * @throws IllegalStateException if the storage could not be opened
+     */
+    void load();
+
+    /**
+     * Returns all saved policies.
+     *
+     * @return list of all policies
+     */
+    List<Policy> getAllPolicies();
+
+    /**
+     * Returns the number of saved policies.
+     *
+     * @return the policy count
+     */
+    int getPolicyCount();
+
+    /**
+     * Returns one page of policies, ordered by policy ID.
+     *
+     * @param offset zero-based position of the first policy to return
+     * @param limit  maximum number of policies to return
+     * @return the policies of the page, possibly empty
+     */
+    List<Policy> getPolicies(int offset, int limit);
+
+    /**
+     * Returns the policies that follow a cursor, ordered by policy ID.
+     * Pass the ID of the last policy of a page to get the next page; unlike offset
+     * paging, pages stay consistent while policies are added or deleted.
+     *
+     * @param afterId the ID of the last policy already seen, or null to start from the beginning
+     * @param limit   maximum number of policies to return
+     * @return the policies of the page, possibly empty
+     */
+    List<Policy> getPoliciesAfter(String afterId, int limit);
+
+    /**
+     * Returns the policies matching the given criteria, sorted and limited as the criteria specify.
+     *
+     * @param criteria the filters, sort keys and limit to apply
+     * @return the matching policies
+     */
+    List<Policy> findPolicies(PolicyCriteria criteria);
+
+    /**
+     * Returns a specific policy by its ID.
+     *
+     * @param id the policy ID to search for
+     * @return the matching policy, or null if not found
+     */
+    Policy getPolicyById(String id);
+
+    /**
+     * Saves a new policy. A policy whose ID already exists is rejected and not saved,
+     * so an existing policy is never overwritten.
+     *
+     * @param policy the policy to save
+     * @throws IllegalArgumentException if a policy with the same ID already exists
+     * @throws IllegalStateException    if the policy could not be stored
+     */
+    void savePolicy(Policy policy);
+
+    /**
+     * Saves many policies as one batch, for bulk imports. Policies whose ID already exists,
+     * or occurs earlier in the batch, are skipped. By default the policies are saved one at a time.
+     *
+     * @param policies the policies to save
+     * @return the policies that were saved, in batch order
+     * @throws IllegalStateException if the batch could not be stored
+     */
+    default List<Policy> savePolicies(List<Policy> policies) {
+        List<Policy> saved = new ArrayList<>(policies.size());
+        for (Policy policy : policies) {
+            try {
+                savePolicy(policy);
+                saved.add(policy);
+            } catch (IllegalArgumentException e) {
+                // The ID is taken; savePolicy has reported it
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Deletes a policy by its ID.
+     *
+     * @param id the policy ID to delete
+     * @return true if a policy was found and removed, false otherwise
+     * @throws IllegalStateException if the deletion could not be stored
+     */
+    boolean deletePolicy(String id);
+
+    /**
+     * Returns all claims associated with a specific policy.
+     *
+     * @param policyId the policy ID to filter by
+     * @return list of claims for that policy
+     */
+    List<Claim> getClaimsByPolicyId(String policyId);
+
+    /**
+     * Returns all saved claims.
+     *
+     * @return list of all claims
+     */
+    List<Claim> getAllClaims();
+
+    /**
+     * Returns the claims of several policies at once.
+     * By default the policies are looked up one at a time.
+     *
+     * @param policyIds the policy IDs
+     * @return the claims by policy ID; policies without claims are absent
+     */
+    default Map<String, List<Claim>> getClaimsByPolicyIds(Collection<String> policyIds) {
+        Map<String, List<Claim>> claims = new HashMap<>();
+        for (String policyId : policyIds) {
+            List<Claim> policyClaims = getClaimsByPolicyId(policyId);
+            if (!policyClaims.isEmpty()) {
+                claims.put(policyId, policyClaims);
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Saves a new claim.
+     *
+     * @param claim the claim to save
+     * @throws IllegalStateException if the claim could not be stored
+     */
+    void saveClaim(Claim claim);
+
+    /**
+     * Registers a listener notified after every policy or claim mutation.
+     *
+     * @param listener the listener to add
+     */
+    void addChangeListener(DataChangeListener listener);
+
+    /**
+     * Unregisters a change listener.
+     *
+     * @param listener the listener to remove
+     */
+    void removeChangeListener(DataChangeListener listener);
+
+    /**
+     * Saves a new policy, returning as soon as it is visible to readers.
+     * By default the policy is saved synchronously.
+     *
+     * @param policy the policy to save
+     * @return a future completed once the policy is durable
+     */
+    default CompletableFuture<Void> savePolicyAsync(Policy policy) {
+        savePolicy(policy);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Deletes a policy, returning as soon as the deletion is visible to readers.
+     * By default the policy is deleted synchronously.
+     *
+     * @param id the policy ID to delete
+     * @return a future completed with whether a policy was removed, once the deletion is durable
+     */
+    default CompletableFuture<Boolean> deletePolicyAsync(String id) {
+        return CompletableFuture.completedFuture(deletePolicy(id));
+    }
+
+    /**
+     * Saves a new claim, returning as soon as it is visible to readers.
+     * By default the claim is saved synchronously.
+     *
+     * @param claim the claim to save
+     * @return a future completed once the claim is durable
+     */
+    default CompletableFuture<Void> saveClaimAsync(Claim claim) {
+        saveClaim(claim);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Flushes pending writes and releases the underlying storage.
+     * Should be called once when the application shuts down.
+     */
+    void close();
+}
@@ -0,0 +1,110 @@
+package com.insurance.data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Reads and writes dates in the fixed-width ISO format of the data files (yyyy-MM-dd)
+ * without going through DateTimeFormatter. Other ISO dates, such as years beyond 9999,
+ * fall back to {@link LocalDate#parse} and {@link LocalDate#toString}.
+ */
+public class IsoDate {
+
+    private static final int LENGTH = 10;
+
+    /** Private constructor to prevent instantiation. */
+    private IsoDate() {
+    }
+
+    /**
+     * Parses an ISO date.
+     *
+     * @param text the date
+     * @return the parsed date
+     * @throws java.time.DateTimeException if the text is not a valid ISO date
+     */
+    public static LocalDate parse(CharSequence text) {
+        if (text.length() == LENGTH && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(text);
+    }
+
+    /**
+     * Parses an ISO date from UTF-8 bytes.
+     *
+     * @param bytes  the buffer
+     * @param offset the index of the first byte of the date
+     * @param length the number of bytes
+     * @return the parsed date
+     * @throws java.time.DateTimeException if the bytes are not a valid ISO date
+     */
+    public static LocalDate parse(byte[] bytes, int offset, int length) {
+        if (length == LENGTH && bytes[offset + 4] == '-' && bytes[offset + 7] == '-') {
+            int year = digits(bytes, offset, offset + 4);
+            int month = digits(bytes, offset + 5, offset + 7);
+            int day = digits(bytes, offset + 8, offset + 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(new String(bytes, offset, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Formats a date as yyyy-MM-dd.
+     *
+     * @param date the date
+     * @return the formatted date
+     */
+    public static String format(LocalDate date) {
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            return date.toString();
+        }
+        char[] text = new char[LENGTH];
+        put(text, 0, year, 4);
+        text[4] = '-';
+        put(text, 5, date.getMonthValue(), 2);
+        text[7] = '-';
+        put(text, 8, date.getDayOfMonth(), 2);
+        return new String(text);
+    }
+
+    private static void put(char[] text, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /** Returns the decimal value of a run of digits, or -1 if a character is not a digit. */
+    private static int digits(CharSequence text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int digits(byte[] bytes, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
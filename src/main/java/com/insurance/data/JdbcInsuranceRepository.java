@@ -0,0 +1,572 @@
+package com.insurance.data;
+
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+import com.insurance.model.PolicyCriteria;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Repository backed by an embedded, in-process SQL database accessed through JDBC
+ * (H2 by default). Policies and claims are stored as rows, with indexes on policy ID,
+ * claim policy ID, policy type and dates, so reads are indexed queries and writes
+ * touch a single row.
+ */
+public class JdbcInsuranceRepository implements InsuranceRepository {
+
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS policies ("
+                + "seq BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                + "id VARCHAR(64) PRIMARY KEY, "
+                + "type VARCHAR(16) NOT NULL, "
+                + "first_name VARCHAR(255), "
+                + "last_name VARCHAR(255), "
+                + "policy_date DATE, "
+                + "remarks VARCHAR)",
+        "CREATE TABLE IF NOT EXISTS claims ("
+                + "seq BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                + "id VARCHAR(64) PRIMARY KEY, "
+                + "policy_id VARCHAR(64) NOT NULL, "
+                + "description VARCHAR, "
+                + "claim_date DATE)",
+        "CREATE INDEX IF NOT EXISTS idx_policies_seq ON policies(seq)",
+        "CREATE INDEX IF NOT EXISTS idx_policies_type ON policies(type)",
+        "CREATE INDEX IF NOT EXISTS idx_policies_date ON policies(policy_date)",
+        "CREATE INDEX IF NOT EXISTS idx_claims_policy ON claims(policy_id, seq)",
+        "CREATE INDEX IF NOT EXISTS idx_claims_date ON claims(claim_date)"
+    };
+
+    private static final String POLICY_COLUMNS = "id, type, first_name, last_name, policy_date, remarks";
+    private static final String CLAIM_COLUMNS = "id, policy_id, description, claim_date";
+
+    private final String jdbcUrl;
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private Connection connection;
+
+    /**
+     * Creates a repository for the given JDBC URL.
+     *
+     * @param jdbcUrl the JDBC URL of the embedded database
+     */
+    public JdbcInsuranceRepository(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    /**
+     * Opens the database and creates the schema if needed.
+     * An empty database is seeded from the file-based data snapshot, if one exists.
+     *
+     * @throws IllegalStateException if the database could not be opened or its schema created
+     */
+    @Override
+    public synchronized void load() {
+        try {
+            connection = DriverManager.getConnection(jdbcUrl);
+            try (Statement statement = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+            }
+            importLegacyDataIfEmpty();
+        } catch (SQLException e) {
+            System.err.println("Failed to open database " + jdbcUrl + ": " + e.getMessage());
+            // Later calls would fail far from the cause on a missing or half-set-up connection
+            close();
+            throw new IllegalStateException("Failed to open database " + jdbcUrl + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized List<Policy> getAllPolicies() {
+        List<Policy> policies = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT " + POLICY_COLUMNS + " FROM policies ORDER BY seq");
+             ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                policies.add(readPolicy(rows));
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to read policies: " + e.getMessage());
+        }
+        return policies;
+    }
+
+    @Override
+    public synchronized int getPolicyCount() {
+        try (PreparedStatement query = connection.prepareStatement("SELECT COUNT(*) FROM policies");
+             ResultSet rows = query.executeQuery()) {
+            return rows.next() ? rows.getInt(1) : 0;
+        } catch (SQLException e) {
+            System.err.println("Failed to count policies: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    @Override
+    public synchronized List<Policy> getPolicies(int offset, int limit) {
+        List<Policy> policies = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT " + POLICY_COLUMNS + " FROM policies ORDER BY id LIMIT ? OFFSET ?")) {
+            query.setInt(1, Math.max(0, limit));
+            query.setInt(2, Math.max(0, offset));
+            readPolicies(query, policies);
+        } catch (SQLException e) {
+            System.err.println("Failed to read policies: " + e.getMessage());
+        }
+        return policies;
+    }
+
+    @Override
+    public synchronized List<Policy> getPoliciesAfter(String afterId, int limit) {
+        List<Policy> policies = new ArrayList<>();
+        String where = afterId != null ? " WHERE id > ?" : "";
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT " + POLICY_COLUMNS + " FROM policies" + where + " ORDER BY id LIMIT ?")) {
+            int parameter = 1;
+            if (afterId != null) {
+                query.setString(parameter++, afterId);
+            }
+            query.setInt(parameter, Math.max(0, limit));
+            readPolicies(query, policies);
+        } catch (SQLException e) {
+            System.err.println("Failed to read policies: " + e.getMessage());
+        }
+        return policies;
+    }
+
+    /**
+     * Translates the criteria into a single SQL query; the database picks the index.
+     */
+    @Override
+    public synchronized List<Policy> findPolicies(PolicyCriteria criteria) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+        if (!criteria.getTypes().isEmpty()) {
+            List<String> placeholders = new ArrayList<>();
+            for (InsuranceType type : criteria.getTypes()) {
+                placeholders.add("?");
+                parameters.add(type.name());
+            }
+            conditions.add("type IN (" + String.join(", ", placeholders) + ")");
+        }
+        if (criteria.getFromDate() != null) {
+            conditions.add("policy_date >= ?");
+            parameters.add(toSqlDate(criteria.getFromDate()));
+        }
+        if (criteria.getToDate() != null) {
+            conditions.add("policy_date <= ?");
+            parameters.add(toSqlDate(criteria.getToDate()));
+        }
+        if (criteria.getNamePrefix() != null) {
+            String pattern = criteria.getNamePrefix().replace("\\", "\\\\")
+                    .replace("%", "\\%").replace("_", "\\_") + "%";
+            conditions.add("(LOWER(first_name) LIKE ? ESCAPE '\\' OR LOWER(last_name) LIKE ? ESCAPE '\\')");
+            parameters.add(pattern);
+            parameters.add(pattern);
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT " + POLICY_COLUMNS + " FROM policies");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        List<String> order = new ArrayList<>();
+        for (PolicyCriteria.SortKey key : criteria.getSortKeys()) {
+            order.add(sortColumn(key.getField()) + (key.isAscending() ? " ASC NULLS FIRST" : " DESC NULLS LAST"));
+        }
+        // Ties are broken by ID, as PolicyCriteria.comparator() does; without sort keys, in insertion order
+        order.add(order.isEmpty() ? "seq" : "id");
+        sql.append(" ORDER BY ").append(String.join(", ", order));
+        if (criteria.getLimit() < Integer.MAX_VALUE) {
+            sql.append(" LIMIT ").append(criteria.getLimit());
+        }
+
+        List<Policy> policies = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < parameters.size(); i++) {
+                query.setObject(i + 1, parameters.get(i));
+            }
+            readPolicies(query, policies);
+        } catch (SQLException e) {
+            System.err.println("Failed to query policies: " + e.getMessage());
+        }
+        return policies;
+    }
+
+    @Override
+    public synchronized Policy getPolicyById(String id) {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT " + POLICY_COLUMNS + " FROM policies WHERE id = ?")) {
+            query.setString(1, id);
+            try (ResultSet rows = query.executeQuery()) {
+                return rows.next() ? readPolicy(rows) : null;
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to read policy " + id + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void savePolicy(Policy policy) {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO policies (" + POLICY_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)")) {
+            bindPolicy(insert, policy);
+            insert.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException e) {
+            System.err.println("Not saving policy " + policy.getId() + ": a policy with this ID already exists.");
+            throw new IllegalArgumentException("Policy " + policy.getId() + " already exists", e);
+        } catch (SQLException e) {
+            System.err.println("Failed to save policy: " + e.getMessage());
+            throw new IllegalStateException("Failed to save policy " + policy.getId() + ": " + e.getMessage(), e);
+        }
+        listeners.forEach(listener -> listener.onPolicySaved(policy));
+    }
+
+    /**
+     * Saves many policies in a single transaction with batched inserts. Policies whose ID
+     * already exists, or occurs earlier in the batch, are skipped. If any insert fails,
+     * none of the policies are saved.
+     *
+     * @param policies the policies to save
+     * @return the policies that were saved, in batch order
+     * @throws IllegalStateException if the batch could not be stored
+     */
+    @Override
+    public synchronized List<Policy> savePolicies(List<Policy> policies) {
+        List<Policy> saved = new ArrayList<>(policies.size());
+        try {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO policies (" + POLICY_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)")) {
+                Set<String> taken = existingPolicyIds(policies);
+                int[] pending = new int[1];
+                for (Policy policy : policies) {
+                    if (!taken.add(policy.getId())) {
+                        System.err.println("Not saving policy " + policy.getId() + ": a policy with this ID already exists.");
+                        continue;
+                    }
+                    addBatch(insert, pending, statement -> bindPolicy(statement, policy));
+                    saved.add(policy);
+                }
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Failed to save " + policies.size() + " policies: " + e.getMessage());
+            throw new IllegalStateException("Failed to save " + policies.size() + " policies: " + e.getMessage(), e);
+        }
+        for (Policy policy : saved) {
+            listeners.forEach(listener -> listener.onPolicySaved(policy));
+        }
+        return saved;
+    }
+
+    /** Returns the IDs of the given policies that are already in the database, querying in batches. */
+    private Set<String> existingPolicyIds(List<Policy> policies) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < policies.size(); from += IMPORT_BATCH_SIZE) {
+            List<Policy> slice = policies.subList(from, Math.min(policies.size(), from + IMPORT_BATCH_SIZE));
+            String placeholders = String.join(", ", Collections.nCopies(slice.size(), "?"));
+            try (PreparedStatement query = connection.prepareStatement(
+                    "SELECT id FROM policies WHERE id IN (" + placeholders + ")")) {
+                for (int i = 0; i < slice.size(); i++) {
+                    query.setString(i + 1, slice.get(i).getId());
+                }
+                try (ResultSet rows = query.executeQuery()) {
+                    while (rows.next()) {
+                        existing.add(rows.getString(1));
+                    }
+                }
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public synchronized boolean deletePolicy(String id) {
+        try (PreparedStatement delete = connection.prepareStatement("DELETE FROM policies WHERE id = ?")) {
+            delete.setString(1, id);
+            if (delete.executeUpdate() == 0) {
+                return false;
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to delete policy " + id + ": " + e.getMessage());
+            throw new IllegalStateException("Failed to delete policy " + id + ": " + e.getMessage(), e);
+        }
+        listeners.forEach(listener -> listener.onPolicyDeleted(id));
+        return true;
+    }
+
+    @Override
+    public synchronized List<Claim> getClaimsByPolicyId(String policyId) {
+        List<Claim> claims = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT " + CLAIM_COLUMNS + " FROM claims WHERE policy_id = ? ORDER BY seq")) {
+            query.setString(1, policyId);
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    claims.add(readClaim(rows));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to read claims: " + e.getMessage());
+        }
+        return claims;
+    }
+
+    @Override
+    public synchronized List<Claim> getAllClaims() {
+        List<Claim> claims = new ArrayList<>();
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT " + CLAIM_COLUMNS + " FROM claims ORDER BY seq");
+             ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                claims.add(readClaim(rows));
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to read claims: " + e.getMessage());
+        }
+        return claims;
+    }
+
+    @Override
+    public synchronized Map<String, List<Claim>> getClaimsByPolicyIds(Collection<String> policyIds) {
+        Map<String, List<Claim>> claims = new HashMap<>();
+        if (policyIds.isEmpty()) {
+            return claims;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(policyIds.size(), "?"));
+        try (PreparedStatement query = connection.prepareStatement("SELECT " + CLAIM_COLUMNS
+                + " FROM claims WHERE policy_id IN (" + placeholders + ") ORDER BY policy_id, seq")) {
+            int index = 1;
+            for (String policyId : policyIds) {
+                query.setString(index++, policyId);
+            }
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    Claim claim = readClaim(rows);
+                    claims.computeIfAbsent(claim.getPolicyId(), id -> new ArrayList<>()).add(claim);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Failed to read claims: " + e.getMessage());
+        }
+        return claims;
+    }
+
+    @Override
+    public synchronized void saveClaim(Claim claim) {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO claims (" + CLAIM_COLUMNS + ") VALUES (?, ?, ?, ?)")) {
+            bindClaim(insert, claim);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Failed to save claim: " + e.getMessage());
+            throw new IllegalStateException("Failed to save claim " + claim.getId() + ": " + e.getMessage(), e);
+        }
+        listeners.forEach(listener -> listener.onClaimSaved(claim));
+    }
+
+    @Override
+    public void addChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            System.err.println("Failed to close database: " + e.getMessage());
+        }
+        connection = null;
+    }
+
+    /**
+     * Copies the file-based data into the database the first time it is opened, so switching
+     * backends does not lose existing policies and claims. Every shard, in any format and
+     * shard layout, is loaded as the file backend loads it: its snapshot plus its journals.
+     */
+    private void importLegacyDataIfEmpty() throws SQLException {
+        List<DataShard> shards = InsuranceDataManager.findShards(SnapshotFormat.NDJSON, true,
+                InsuranceDataManager.createJournalGson());
+        if (shards.isEmpty()) {
+            return;
+        }
+        try {
+            try (Statement statement = connection.createStatement();
+                 ResultSet count = statement.executeQuery("SELECT (SELECT COUNT(*) FROM policies) + (SELECT COUNT(*) FROM claims)")) {
+                if (count.next() && count.getLong(1) > 0) {
+                    return;
+                }
+            }
+            importShards(shards);
+        } finally {
+            shards.forEach(DataShard::close);
+        }
+    }
+
+    /** Inserts the contents of the given shards in a single transaction. */
+    private void importShards(List<DataShard> shards) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insertPolicy = connection.prepareStatement(
+                "INSERT INTO policies (" + POLICY_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement insertClaim = connection.prepareStatement(
+                "INSERT INTO claims (" + CLAIM_COLUMNS + ") VALUES (?, ?, ?, ?)")) {
+            int[] pending = new int[1];
+            for (DataShard shard : shards) {
+                ResidentStore data = shard.load();
+                for (Policy policy : data.policiesById.values()) {
+                    addBatch(insertPolicy, pending, statement -> bindPolicy(statement, policy));
+                }
+                for (Claim claim : data.claimsById.values()) {
+                    addBatch(insertClaim, pending, statement -> bindClaim(statement, claim));
+                }
+            }
+            insertPolicy.executeBatch();
+            insertClaim.executeBatch();
+            connection.commit();
+            System.err.println("Imported " + shards.size() + " data shard(s) into " + jdbcUrl);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            System.err.println("Failed to import data files: " + e.getMessage());
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Callback that binds parameters of a prepared statement.
+     */
+    @FunctionalInterface
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    /** Adds a row to a batch and flushes the batch when it is full. */
+    private static void addBatch(PreparedStatement statement, int[] pending, Binder binder) {
+        try {
+            binder.bind(statement);
+            statement.addBatch();
+            if (++pending[0] % IMPORT_BATCH_SIZE == 0) {
+                statement.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    /** Binds a policy to the parameters of an insert statement. */
+    private static void bindPolicy(PreparedStatement statement, Policy policy) throws SQLException {
+        statement.setString(1, policy.getId());
+        statement.setString(2, policy.getType().name());
+        statement.setString(3, policy.getFirstName());
+        statement.setString(4, policy.getLastName());
+        statement.setDate(5, toSqlDate(policy.getDate()));
+        statement.setString(6, policy.getRemarks());
+    }
+
+    /** Binds a claim to the parameters of an insert statement. */
+    private static void bindClaim(PreparedStatement statement, Claim claim) throws SQLException {
+        statement.setString(1, claim.getId());
+        statement.setString(2, claim.getPolicyId());
+        statement.setString(3, claim.getDescription());
+        statement.setDate(4, toSqlDate(claim.getClaimDate()));
+    }
+
+    /** Executes a policy query and adds every returned row to the list. */
+    private static void readPolicies(PreparedStatement query, List<Policy> policies) throws SQLException {
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                policies.add(readPolicy(rows));
+            }
+        }
+    }
+
+    /** Returns the column a sort field maps to. */
+    private static String sortColumn(PolicyCriteria.SortField field) {
+        switch (field) {
+            case ID:
+                return "id";
+            case FIRST_NAME:
+                return "LOWER(first_name)";
+            case LAST_NAME:
+                return "LOWER(last_name)";
+            case TYPE:
+                // Sort in declaration order, like InsuranceType's natural order
+                StringBuilder ordinal = new StringBuilder("CASE type");
+                for (InsuranceType type : InsuranceType.values()) {
+                    ordinal.append(" WHEN '").append(type.name()).append("' THEN ").append(type.ordinal());
+                }
+                return ordinal.append(" END").toString();
+            case DATE:
+                return "policy_date";
+            default:
+                throw new IllegalArgumentException("Unknown sort field: " + field);
+        }
+    }
+
+    /** Reads a policy from the current row. */
+    private static Policy readPolicy(ResultSet rows) throws SQLException {
+        return InsuranceFactory.restorePolicy(
+                rows.getString("id"),
+                rows.getString("first_name"),
+                rows.getString("last_name"),
+                toLocalDate(rows.getDate("policy_date")),
+                rows.getString("remarks"),
+                InsuranceType.valueOf(rows.getString("type")));
+    }
+
+    /** Reads a claim from the current row. */
+    private static Claim readClaim(ResultSet rows) throws SQLException {
+        return new Claim(
+                rows.getString("id"),
+                rows.getString("policy_id"),
+                rows.getString("description"),
+                toLocalDate(rows.getDate("claim_date")));
+    }
+
+    private static Date toSqlDate(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        return date != null ? date.toLocalDate() : null;
+    }
+}
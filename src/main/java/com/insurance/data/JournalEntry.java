@@ -0,0 +1,99 @@
+package com.insurance.data;
+
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+/**
+ * A single mutation recorded in the append-only journal.
+ * Exactly one of policy, claim or policyId is set, depending on the operation.
+ */
+public class JournalEntry {
+
+    /**
+     * The kinds of mutation the journal can record.
+     */
+    public enum Operation {
+        SAVE_POLICY,
+        DELETE_POLICY,
+        SAVE_CLAIM
+    }
+
+    private final Operation op;
+    private final Policy policy;
+    private final Claim claim;
+    private final String policyId;
+    private final String origin;
+
+    private JournalEntry(Operation op, Policy policy, Claim claim, String policyId, String origin) {
+        this.op = op;
+        this.policy = policy;
+        this.claim = claim;
+        this.policyId = policyId;
+        this.origin = origin;
+    }
+
+    /**
+     * Creates an entry recording a newly saved policy.
+     *
+     * @param policy the saved policy
+     * @return the journal entry
+     */
+    public static JournalEntry savePolicy(Policy policy) {
+        return new JournalEntry(Operation.SAVE_POLICY, policy, null, null, null);
+    }
+
+    /**
+     * Creates an entry recording a policy deletion.
+     *
+     * @param policyId the ID of the deleted policy
+     * @return the journal entry
+     */
+    public static JournalEntry deletePolicy(String policyId) {
+        return new JournalEntry(Operation.DELETE_POLICY, null, null, policyId, null);
+    }
+
+    /**
+     * Creates an entry recording a newly saved claim.
+     *
+     * @param claim the saved claim
+     * @return the journal entry
+     */
+    public static JournalEntry saveClaim(Claim claim) {
+        return new JournalEntry(Operation.SAVE_CLAIM, null, claim, null, null);
+    }
+
+    /**
+     * Returns a copy of this entry tagged with the process that wrote it.
+     *
+     * @param origin the ID of the writing process
+     * @return the tagged entry
+     */
+    public JournalEntry withOrigin(String origin) {
+        return new JournalEntry(op, policy, claim, policyId, origin);
+    }
+
+    /** @return the recorded operation */
+    public Operation getOp() {
+        return op;
+    }
+
+    /** @return the saved policy, or null if this is not a SAVE_POLICY entry */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /** @return the saved claim, or null if this is not a SAVE_CLAIM entry */
+    public Claim getClaim() {
+        return claim;
+    }
+
+    /** @return the deleted policy ID, or null if this is not a DELETE_POLICY entry */
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    /** @return the ID of the process that wrote this entry, or null if it is not known */
+    public String getOrigin() {
+        return origin;
+    }
+}
@@ -0,0 +1,115 @@
+package com.insurance.data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+
+/**
+ * Gson adapter for journal lines, written without reflection as
+ * {"op":...,"policy":...}, {"op":...,"claim":...} or {"op":...,"policyId":...},
+ * followed by the "origin" of the entry if it is known.
+ */
+public class JournalEntryAdapter extends TypeAdapter<JournalEntry> {
+
+    private final PolicyAdapter policyAdapter = new PolicyAdapter();
+    private final ClaimAdapter claimAdapter = new ClaimAdapter();
+
+    @Override
+    public void write(JsonWriter out, JournalEntry entry) throws IOException {
+        out.beginObject();
+        out.name("op").value(entry.getOp().name());
+        if (entry.getPolicy() != null) {
+            out.name("policy");
+            policyAdapter.write(out, entry.getPolicy());
+        }
+        if (entry.getClaim() != null) {
+            out.name("claim");
+            claimAdapter.write(out, entry.getClaim());
+        }
+        if (entry.getPolicyId() != null) {
+            out.name("policyId").value(entry.getPolicyId());
+        }
+        if (entry.getOrigin() != null) {
+            out.name("origin").value(entry.getOrigin());
+        }
+        out.endObject();
+    }
+
+    /**
+     * Reads a journal line.
+     *
+     * @return the entry, or null if the line has no operation or one this version does not know
+     */
+    @Override
+    public JournalEntry read(JsonReader in) throws IOException {
+        String op = null;
+        Policy policy = null;
+        Claim claim = null;
+        String policyId = null;
+        String origin = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String fieldName = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (fieldName) {
+                case "op":
+                    op = in.nextString();
+                    break;
+                case "policy":
+                    policy = policyAdapter.read(in);
+                    break;
+                case "claim":
+                    claim = claimAdapter.read(in);
+                    break;
+                case "policyId":
+                    policyId = in.nextString();
+                    break;
+                case "origin":
+                    origin = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        JournalEntry.Operation operation = operation(op);
+        if (operation == null) {
+            return null;
+        }
+        JournalEntry entry;
+        switch (operation) {
+            case SAVE_POLICY:
+                entry = JournalEntry.savePolicy(policy);
+                break;
+            case DELETE_POLICY:
+                entry = JournalEntry.deletePolicy(policyId);
+                break;
+            case SAVE_CLAIM:
+            default:
+                entry = JournalEntry.saveClaim(claim);
+                break;
+        }
+        return origin != null ? entry.withOrigin(origin) : entry;
+    }
+
+    private static JournalEntry.Operation operation(String name) {
+        if (name != null) {
+            for (JournalEntry.Operation operation : JournalEntry.Operation.values()) {
+                if (operation.name().equals(name)) {
+                    return operation;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.insurance.data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Snapshot codec for the JSON data file.
+ * Reads through {@link StreamingDataReader} and writes record by record with a JsonWriter
+ * and the hand-written {@link PolicyAdapter} and {@link ClaimAdapter}, either pretty-printed
+ * or on a single line.
+ */
+public class JsonSnapshotCodec implements SnapshotCodec {
+
+    private final TypeAdapter<Policy> policyAdapter = new PolicyAdapter();
+    private final TypeAdapter<Claim> claimAdapter = new ClaimAdapter();
+    private final boolean prettyPrint;
+
+    /**
+     * Creates a codec that pretty-prints the data file.
+     */
+    public JsonSnapshotCodec() {
+        this(true);
+    }
+
+    /**
+     * Creates a codec.
+     *
+     * @param prettyPrint true to indent the data file, false to write it on a single line
+     */
+    public JsonSnapshotCodec(boolean prettyPrint) {
+        this.prettyPrint = prettyPrint;
+    }
+
+    @Override
+    public boolean read(Path file, Predicate<Policy> policyVisitor, Predicate<Claim> claimVisitor)
+            throws IOException {
+        return new StreamingDataReader(file).read(policyVisitor, claimVisitor);
+    }
+
+    @Override
+    public void write(Path file, Collection<Policy> policies, Collection<Claim> claims) throws IOException {
+        AtomicFileWriter.write(file, writer -> {
+            JsonWriter out = new JsonWriter(writer);
+            out.setIndent(prettyPrint ? "  " : "");
+            out.setSerializeNulls(false);
+            out.beginObject();
+            out.name("policies").beginArray();
+            for (Policy policy : policies) {
+                policyAdapter.write(out, policy);
+            }
+            out.endArray();
+            out.name("claims").beginArray();
+            for (Claim claim : claims) {
+                claimAdapter.write(out, claim);
+            }
+            out.endArray();
+            out.endObject();
+            out.flush();
+        });
+    }
+}
@@ -0,0 +1,541 @@
+package com.insurance.data;
+
+import com.google.gson.stream.MalformedJsonException;
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Hand-written parser for the JSON data files: the single document of {@link JsonSnapshotCodec}
+ * and the record per line of {@link NdjsonSnapshotCodec}.
+ *
+ * Works directly on the UTF-8 bytes: field names and insurance types are matched as bytes
+ * without building strings, dates are parsed in place by {@link IsoDate}, and strings without
+ * escapes or non-ASCII characters are copied straight into Latin-1 strings. Unknown fields
+ * are skipped, so files written by newer versions still load. Malformed or truncated content,
+ * including invalid dates, is reported as a {@link MalformedJsonException}.
+ */
+class JsonSnapshotParser implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[][] SECTIONS = names("policies", "claims");
+    private static final int POLICIES = 0;
+    private static final int CLAIMS = 1;
+
+    // The fields of policies and claims; "id" is shared
+    private static final byte[][] FIELDS = names("type", "id", "firstName", "lastName", "date", "remarks",
+            "policyId", "description", "claimDate");
+    private static final int TYPE = 0;
+    private static final int ID = 1;
+    private static final int FIRST_NAME = 2;
+    private static final int LAST_NAME = 3;
+    private static final int DATE = 4;
+    private static final int REMARKS = 5;
+    private static final int POLICY_ID = 6;
+    private static final int DESCRIPTION = 7;
+    private static final int CLAIM_DATE = 8;
+
+    private static final InsuranceType[] TYPES = InsuranceType.values();
+    private static final byte[][] TYPE_NAMES = names(Arrays.stream(TYPES).map(Enum::name).toArray(String[]::new));
+
+    private final InputStream in;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    // Bytes of the stream before the start of the buffer, for error messages
+    private long consumed;
+
+    // The raw bytes of the last string read, without its quotes
+    private int stringStart;
+    private int stringEnd;
+    private boolean stringEscaped;
+    private boolean stringAscii;
+
+    /**
+     * Creates a parser over a data file stream.
+     *
+     * @param in the stream, closed with the parser
+     */
+    JsonSnapshotParser(InputStream in) {
+        this(in, 0);
+    }
+
+    /**
+     * Creates a parser over part of a data file.
+     *
+     * @param in     the stream, closed with the parser
+     * @param offset the position of the stream in the file, for error messages
+     */
+    JsonSnapshotParser(InputStream in, long offset) {
+        this.in = in;
+        this.consumed = offset;
+    }
+
+    /**
+     * Parses the data file, passing each policy and claim to its visitor in file order.
+     * Parsing stops as soon as a visitor returns false. A null visitor skips that section.
+     *
+     * @param policyVisitor receives each policy; returns false to stop reading
+     * @param claimVisitor  receives each claim; returns false to stop reading
+     * @return true if the whole file was visited, false if a visitor stopped early
+     * @throws IOException if the stream could not be read or is malformed
+     */
+    boolean read(Predicate<Policy> policyVisitor, Predicate<Claim> claimVisitor) throws IOException {
+        if (peek() < 0) {
+            return true;
+        }
+        expect('{');
+        boolean first = true;
+        while (nextMember(first, '}')) {
+            first = false;
+            int section = readName(SECTIONS);
+            if (section == POLICIES && policyVisitor != null && peek() == '[') {
+                position++;
+                boolean firstPolicy = true;
+                while (nextMember(firstPolicy, ']')) {
+                    firstPolicy = false;
+                    if (!skipNull() && !policyVisitor.test(readPolicy())) {
+                        return false;
+                    }
+                }
+            } else if (section == CLAIMS && claimVisitor != null && peek() == '[') {
+                position++;
+                boolean firstClaim = true;
+                while (nextMember(firstClaim, ']')) {
+                    firstClaim = false;
+                    if (!skipNull() && !claimVisitor.test(readClaim())) {
+                        return false;
+                    }
+                }
+            } else {
+                skipValue();
+            }
+        }
+        if (peek() >= 0) {
+            throw error("Unexpected content after the end of the data");
+        }
+        return true;
+    }
+
+    /**
+     * Parses a sequence of records, one policy or claim object after another, as written one
+     * per line by {@link NdjsonSnapshotCodec}. A record with a "type" is a policy; any other
+     * record is a claim. Parsing stops as soon as a visitor returns false.
+     *
+     * @param policyVisitor receives each policy; returns false to stop reading
+     * @param claimVisitor  receives each claim; returns false to stop reading
+     * @return true if the whole stream was visited, false if a visitor stopped early
+     * @throws IOException if the stream could not be read or is malformed
+     */
+    boolean readRecords(Predicate<Policy> policyVisitor, Predicate<Claim> claimVisitor) throws IOException {
+        while (peek() >= 0) {
+            Object record = readRecord();
+            if (record instanceof Policy) {
+                if (!policyVisitor.test((Policy) record)) {
+                    return false;
+                }
+            } else if (!claimVisitor.test((Claim) record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Policy readPolicy() throws IOException {
+        Object record = readRecord();
+        if (!(record instanceof Policy)) {
+            throw error("Policy " + ((Claim) record).getId() + " has no type");
+        }
+        return (Policy) record;
+    }
+
+    private Claim readClaim() throws IOException {
+        Object record = readRecord();
+        if (!(record instanceof Claim)) {
+            throw error("Claim " + ((Policy) record).getId() + " has a policy type");
+        }
+        return (Claim) record;
+    }
+
+    /** Reads a policy or claim object. */
+    private Object readRecord() throws IOException {
+        InsuranceType type = null;
+        String id = null;
+        String firstName = null;
+        String lastName = null;
+        LocalDate date = null;
+        String remarks = null;
+        String policyId = null;
+        String description = null;
+        LocalDate claimDate = null;
+
+        expect('{');
+        boolean first = true;
+        while (nextMember(first, '}')) {
+            first = false;
+            int field = readName(FIELDS);
+            if (skipNull()) {
+                continue;
+            }
+            switch (field) {
+                case TYPE:
+                    type = readType();
+                    break;
+                case ID:
+                    id = readString();
+                    break;
+                case FIRST_NAME:
+                    firstName = readString();
+                    break;
+                case LAST_NAME:
+                    lastName = readString();
+                    break;
+                case DATE:
+                    date = readDate(id);
+                    break;
+                case REMARKS:
+                    remarks = readString();
+                    break;
+                case POLICY_ID:
+                    policyId = readString();
+                    break;
+                case DESCRIPTION:
+                    description = readString();
+                    break;
+                case CLAIM_DATE:
+                    claimDate = readDate(id);
+                    break;
+                default:
+                    skipValue();
+                    break;
+            }
+        }
+        if (type == null) {
+            return new Claim(id, policyId, description, claimDate);
+        }
+        if (date == null) {
+            throw error("Policy " + id + " has no date");
+        }
+        return InsuranceFactory.restorePolicy(id, firstName, lastName, date, remarks, type);
+    }
+
+    /**
+     * Moves to the next member of an object or array.
+     *
+     * @param first true before the first member
+     * @param close the closing bracket
+     * @return true if a member follows, false if the closing bracket was consumed
+     */
+    private boolean nextMember(boolean first, char close) throws IOException {
+        int c = peek();
+        if (c == close) {
+            position++;
+            return false;
+        }
+        if (!first) {
+            expect(',');
+        }
+        return true;
+    }
+
+    /** Reads a field name and its colon, returning its index in the names, or -1 if it is not one of them. */
+    private int readName(byte[][] names) throws IOException {
+        scanString();
+        int match = -1;
+        if (!stringEscaped) {
+            match = match(names);
+        } else {
+            byte[] name = decode().getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < names.length && match < 0; i++) {
+                if (Arrays.equals(names[i], name)) {
+                    match = i;
+                }
+            }
+        }
+        expect(':');
+        return match;
+    }
+
+    private int match(byte[][] names) {
+        int length = stringEnd - stringStart;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].length == length
+                    && Arrays.equals(names[i], 0, length, buffer, stringStart, stringEnd)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private InsuranceType readType() throws IOException {
+        scanString();
+        int type = stringEscaped ? -1 : match(TYPE_NAMES);
+        if (type < 0) {
+            throw error("Unknown insurance type " + decode());
+        }
+        return TYPES[type];
+    }
+
+    private LocalDate readDate(String id) throws IOException {
+        scanString();
+        try {
+            if (stringEscaped) {
+                return IsoDate.parse(decode());
+            }
+            return IsoDate.parse(buffer, stringStart, stringEnd - stringStart);
+        } catch (DateTimeException e) {
+            throw error("Invalid date of " + id + ": " + e.getMessage());
+        }
+    }
+
+    private String readString() throws IOException {
+        scanString();
+        return decode();
+    }
+
+    /**
+     * Locates the next string value, reading ahead until the whole string is in the buffer.
+     * Sets the string bounds and whether it has escapes or non-ASCII bytes.
+     */
+    private void scanString() throws IOException {
+        expect('"');
+        int offset = 0;
+        boolean escaped = false;
+        boolean ascii = true;
+        while (true) {
+            int i = position + offset;
+            if (i >= limit) {
+                int start = position;
+                if (!fill(i - start + 1)) {
+                    throw error("Unterminated string");
+                }
+                continue;
+            }
+            byte b = buffer[i];
+            if (b == '"') {
+                stringStart = position;
+                stringEnd = i;
+                stringEscaped = escaped;
+                stringAscii = ascii;
+                position = i + 1;
+                return;
+            }
+            if (b == '\\') {
+                escaped = true;
+                // Skip the escaped character, which may be a quote
+                offset++;
+            } else if (b < 0) {
+                ascii = false;
+            }
+            offset++;
+        }
+    }
+
+    /** Decodes the last string scanned. */
+    private String decode() throws IOException {
+        if (!stringEscaped) {
+            return new String(buffer, stringStart, stringEnd - stringStart,
+                    stringAscii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+        StringBuilder text = new StringBuilder(stringEnd - stringStart);
+        int run = stringStart;
+        int i = stringStart;
+        while (i < stringEnd) {
+            if (buffer[i] != '\\') {
+                i++;
+                continue;
+            }
+            text.append(new String(buffer, run, i - run, StandardCharsets.UTF_8));
+            char c = (char) buffer[i + 1];
+            i += 2;
+            switch (c) {
+                case 'b':
+                    text.append('\b');
+                    break;
+                case 'f':
+                    text.append('\f');
+                    break;
+                case 'n':
+                    text.append('\n');
+                    break;
+                case 'r':
+                    text.append('\r');
+                    break;
+                case 't':
+                    text.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 > stringEnd) {
+                        throw error("Invalid unicode escape");
+                    }
+                    int value = 0;
+                    for (int end = i + 4; i < end; i++) {
+                        int digit = Character.digit(buffer[i], 16);
+                        if (digit < 0) {
+                            throw error("Invalid unicode escape");
+                        }
+                        value = value << 4 | digit;
+                    }
+                    text.append((char) value);
+                    break;
+                case '"':
+                case '\\':
+                case '/':
+                    text.append(c);
+                    break;
+                default:
+                    throw error("Invalid escape \\" + c);
+            }
+            run = i;
+        }
+        text.append(new String(buffer, run, stringEnd - run, StandardCharsets.UTF_8));
+        return text.toString();
+    }
+
+    /** Consumes a null value if one follows. */
+    private boolean skipNull() throws IOException {
+        if (peek() != 'n') {
+            return false;
+        }
+        literal("null");
+        return true;
+    }
+
+    /** Skips a value of any type, including nested objects and arrays. */
+    private void skipValue() throws IOException {
+        int c = peek();
+        switch (c) {
+            case '"':
+                scanString();
+                break;
+            case '{':
+            case '[': {
+                position++;
+                char close = c == '{' ? '}' : ']';
+                boolean first = true;
+                while (nextMember(first, close)) {
+                    first = false;
+                    if (c == '{') {
+                        readName(SECTIONS);
+                    }
+                    skipValue();
+                }
+                break;
+            }
+            case 't':
+                literal("true");
+                break;
+            case 'f':
+                literal("false");
+                break;
+            case 'n':
+                literal("null");
+                break;
+            default:
+                if (c != '-' && (c < '0' || c > '9')) {
+                    throw error("Unexpected " + describe(c));
+                }
+                while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+                    position++;
+                    if (position >= limit && !fill(1)) {
+                        break;
+                    }
+                    c = buffer[position];
+                }
+                break;
+        }
+    }
+
+    private void literal(String word) throws IOException {
+        for (int i = 0; i < word.length(); i++) {
+            if (position >= limit && !fill(1)) {
+                throw error("Unexpected end of file");
+            }
+            if (buffer[position] != word.charAt(i)) {
+                throw error("Unexpected " + describe(buffer[position] & 0xFF));
+            }
+            position++;
+        }
+    }
+
+    private void expect(char c) throws IOException {
+        int next = peek();
+        if (next != c) {
+            throw error("Expected '" + c + "' but found " + describe(next));
+        }
+        position++;
+    }
+
+    /** Skips whitespace and returns the next byte without consuming it, or -1 at the end of the stream. */
+    private int peek() throws IOException {
+        while (true) {
+            if (position >= limit && !fill(1)) {
+                return -1;
+            }
+            byte b = buffer[position];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return b & 0xFF;
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Reads more of the stream, keeping the unread bytes from the current position and
+     * growing the buffer if they fill it.
+     *
+     * @param needed the number of bytes wanted from the current position
+     * @return false if the stream ended first
+     */
+    private boolean fill(int needed) throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            consumed += position;
+            limit -= position;
+            position = 0;
+        }
+        if (needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(needed, buffer.length * 2));
+        }
+        while (limit < needed) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                return false;
+            }
+            limit += read;
+        }
+        return true;
+    }
+
+    private MalformedJsonException error(String message) {
+        return new MalformedJsonException("Malformed data file at byte " + (consumed + position) + ": " + message);
+    }
+
+    private static String describe(int c) {
+        return c < 0 ? "end of file" : "'" + (char) c + "'";
+    }
+
+    private static byte[][] names(String... names) {
+        byte[][] bytes = new byte[names.length][];
+        for (int i = 0; i < names.length; i++) {
+            bytes[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -6,28 +6,24 @@ import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Gson adapter for serializing and deserializing LocalDate objects.
- * Uses ISO date format (yyyy-MM-dd) for JSON storage.
+ * Uses ISO date format (yyyy-MM-dd) for JSON storage, see {@link IsoDate}.
  */
 public class LocalDateAdapter extends TypeAdapter<LocalDate> {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE;
-
     @Override
     public void write(JsonWriter out, LocalDate value) throws IOException {
         if (value == null) {
             out.nullValue();
         } else {
-            out.value(value.format(FORMATTER));
+            out.value(IsoDate.format(value));
         }
     }
 
     @Override
     public LocalDate read(JsonReader in) throws IOException {
-        String dateStr = in.nextString();
-        return LocalDate.parse(dateStr, FORMATTER);
+        return IsoDate.parse(in.nextString());
     }
 }
\ No newline at end of file
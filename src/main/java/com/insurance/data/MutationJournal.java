@@ -0,0 +1,339 @@
+package com.insurance.data;
+
+import com.google.gson.Gson;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of policy and claim mutations.
+ * Each mutation is stored as one compact JSON line next to the data file snapshot,
+ * so the cost of a write is proportional to the change rather than to the database.
+ *
+ * Several processes may append to the same journal. Appends and rotation hold the shard's
+ * {@link DataFileLock}, and every entry is tagged with the {@link #ORIGIN} of the process
+ * that wrote it, so that {@link #readExternal} can pick out the entries of other processes.
+ */
+public class MutationJournal implements Closeable {
+
+    /** Identifies the entries written by this process. */
+    public static final String ORIGIN = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+
+    /**
+     * The outcome of reading the entries of other processes.
+     */
+    public enum ReadResult {
+        /** The journal was read on from where the previous read stopped. */
+        CONTINUED,
+        /** Another process rotated the journal; the rest of the rotated file was read first. */
+        ROTATED,
+        /** Another process rotated the journal and the rotated file is gone, so entries may be missing. */
+        GAP
+    }
+
+    private final Path path;
+    private final Gson gson;
+    private final DataFileLock lock;
+    private FileChannel channel;
+    // The file the channel appends to; another process may have moved it away since
+    private Object channelKey;
+    // The file and offset up to which the entries of other processes have been read
+    private Object readKey;
+    private long readOffset;
+
+    /**
+     * Creates a journal backed by the given file.
+     *
+     * @param path the journal file
+     * @param gson a Gson instance able to serialize policies and claims on a single line
+     * @param lock the lock shared with other processes writing the shard
+     */
+    public MutationJournal(Path path, Gson gson, DataFileLock lock) {
+        this.path = path;
+        this.gson = gson;
+        this.lock = lock;
+    }
+
+    /**
+     * Appends an entry to the journal and forces it to disk.
+     *
+     * @param entry the entry to append
+     * @throws IOException if the entry could not be written
+     */
+    public void append(JournalEntry entry) throws IOException {
+        appendAll(List.of(entry));
+    }
+
+    /**
+     * Appends several entries with a single write and forces them to disk together.
+     *
+     * @param entries the entries to append, in order
+     * @throws IOException if the entries could not be written
+     */
+    public void appendAll(List<JournalEntry> entries) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (JournalEntry entry : entries) {
+            lines.append(gson.toJson(entry.withOrigin(ORIGIN))).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        lock.lock();
+        try {
+            synchronized (this) {
+                FileChannel out = channel();
+                long start = out.size();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(false);
+                // Nothing to read back if no other process appended since the last read
+                if (readOffset == start && (channelKey.equals(readKey) || (readKey == null && start == 0))) {
+                    readKey = channelKey;
+                    readOffset = start + buffer.limit();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current size of the journal file in bytes.
+     *
+     * @return the journal size, or 0 if the journal does not exist yet
+     */
+    public synchronized long size() {
+        try {
+            return channel != null ? channel.size() : (Files.exists(path) ? Files.size(path) : 0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Moves the current journal aside so that new entries start a fresh file.
+     * Entries of other processes must have been read first, as they are not read
+     * from the moved file.
+     *
+     * @param target where to move the current journal
+     * @return true if a journal file existed and was moved
+     * @throws IOException if the journal could not be moved
+     */
+    public boolean rotateTo(Path target) throws IOException {
+        lock.lock();
+        try {
+            synchronized (this) {
+                closeChannel();
+                readKey = null;
+                readOffset = 0;
+                if (!Files.exists(path)) {
+                    return false;
+                }
+                Files.move(path, target, StandardCopyOption.REPLACE_EXISTING);
+                return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the whole journal as read, after it was replayed.
+     * Must be called while holding the lock, together with the replay.
+     *
+     * @throws IOException if the journal could not be inspected
+     */
+    synchronized void markRead() throws IOException {
+        readKey = fileKey(path);
+        readOffset = readKey != null ? Files.size(path) : 0;
+    }
+
+    /**
+     * Returns whether the journal may hold entries that have not been read yet, without taking the lock.
+     *
+     * @return true if the journal file was replaced or has grown since it was last read
+     */
+    synchronized boolean hasUnread() {
+        try {
+            Object key = fileKey(path);
+            return !Objects.equals(key, readKey) || (key != null && Files.size(path) != readOffset);
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Reads the entries appended by other processes since the last read, skipping the entries
+     * of this process. If another process rotated the journal in the meantime, the rest of the
+     * rotated file is read first.
+     *
+     * @param rotated where other processes move the journal when they compact it
+     * @param visitor receives each entry of another process, in journal order
+     * @return how the read continued from the previous one
+     * @throws IOException if the journal could not be read
+     */
+    ReadResult readExternal(Path rotated, Consumer<JournalEntry> visitor) throws IOException {
+        lock.lock();
+        try {
+            synchronized (this) {
+                ReadResult result = ReadResult.CONTINUED;
+                Object key = fileKey(path);
+                if (readKey != null && !readKey.equals(key)) {
+                    if (readKey.equals(fileKey(rotated))) {
+                        readFrom(rotated, readOffset, visitor);
+                        result = ReadResult.ROTATED;
+                    } else {
+                        result = ReadResult.GAP;
+                    }
+                    readOffset = 0;
+                }
+                readKey = key;
+                if (key != null) {
+                    readOffset = readFrom(path, readOffset, visitor);
+                }
+                return result;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the complete lines of a journal from an offset, passing on the entries of other processes.
+     *
+     * @return the offset after the last complete line
+     */
+    private long readFrom(Path file, long offset, Consumer<JournalEntry> visitor) throws IOException {
+        byte[] bytes;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size <= offset) {
+                return offset;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size - offset, Integer.MAX_VALUE - 8));
+            while (buffer.hasRemaining() && in.read(buffer, offset + buffer.position()) > 0) {
+                // Read up to the size seen above
+            }
+            bytes = buffer.array();
+        }
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] != '\n') {
+                continue;
+            }
+            String line = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+            lineStart = i + 1;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JournalEntry entry = gson.fromJson(line, JournalEntry.class);
+                if (entry != null && entry.getOp() != null && !ORIGIN.equals(entry.getOrigin())) {
+                    visitor.accept(entry);
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Ignoring malformed journal record in " + file + ": " + e.getMessage());
+            }
+        }
+        // A trailing line without a newline is still being written, or was cut short by a crash
+        return offset + lineStart;
+    }
+
+    /**
+     * Replays every entry of a journal file in order.
+     * A malformed trailing line, left behind by an interrupted append, ends the replay.
+     *
+     * @param file    the journal file to read
+     * @param gson    the Gson instance used to parse entries
+     * @param visitor receives each entry
+     * @return the number of entries replayed
+     * @throws IOException if the file could not be read
+     */
+    public static int replay(Path file, Gson gson, Consumer<JournalEntry> visitor) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JournalEntry entry;
+                try {
+                    entry = gson.fromJson(line, JournalEntry.class);
+                } catch (RuntimeException e) {
+                    System.err.println("Ignoring incomplete journal record in " + file + ": " + e.getMessage());
+                    break;
+                }
+                if (entry != null && entry.getOp() != null) {
+                    visitor.accept(entry);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    /**
+     * Opens the journal for appending on first use, or again after another process
+     * moved the open file away. Must be called while holding the lock.
+     */
+    private FileChannel channel() throws IOException {
+        if (channel != null && !channelKey.equals(fileKey(path))) {
+            closeChannel();
+        }
+        if (channel == null) {
+            Path parent = path.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            channelKey = fileKey(path);
+        }
+        return channel;
+    }
+
+    /**
+     * Returns what identifies a file across renames, such as its inode number.
+     *
+     * @return the file key, or null if the file does not exist
+     */
+    private static Object fileKey(Path file) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            // File systems without file keys fall back to the creation time
+            return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /** Closes the underlying channel if it is open. */
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.insurance.data;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Snapshot codec for the newline-delimited JSON data file: one policy or claim object per
+ * line, policies first, with the field names of the JSON data file.
+ *
+ * Because every line is a complete record, the file can be split at line boundaries and
+ * the segments decoded independently. Reading splits the file into segments of at least
+ * {@value #MIN_SEGMENT_BYTES} bytes, decodes them on the common fork-join pool into
+ * per-segment lists, and then passes the records to the visitors in file order.
+ *
+ * A file holding a single JSON document, as written by {@link JsonSnapshotCodec}, is
+ * detected and read as such, so a data file renamed from .json still loads.
+ */
+public class NdjsonSnapshotCodec implements SnapshotCodec {
+
+    private static final int MIN_SEGMENT_BYTES = 4 * 1024 * 1024;
+    private static final int SEGMENTS_PER_THREAD = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int HEAD_BYTES = 256;
+
+    private final TypeAdapter<Policy> policyAdapter = new PolicyAdapter();
+    private final TypeAdapter<Claim> claimAdapter = new ClaimAdapter();
+
+    @Override
+    public boolean read(Path file, Predicate<Policy> policyVisitor, Predicate<Claim> claimVisitor)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return true;
+        }
+        if (isDocument(file)) {
+            return new StreamingDataReader(file).read(policyVisitor, claimVisitor);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = segmentBounds(channel);
+            List<Segment> segments = IntStream.range(0, bounds.length - 1).parallel()
+                    .mapToObj(i -> decode(channel, bounds[i], bounds[i + 1], policyVisitor != null, claimVisitor != null))
+                    .collect(Collectors.toList());
+            for (Segment segment : segments) {
+                if (segment.error != null) {
+                    throw segment.error;
+                }
+            }
+            for (Segment segment : segments) {
+                if (policyVisitor != null) {
+                    for (Policy policy : segment.policies) {
+                        if (!policyVisitor.test(policy)) {
+                            return false;
+                        }
+                    }
+                }
+                if (claimVisitor != null) {
+                    for (Claim claim : segment.claims) {
+                        if (!claimVisitor.test(claim)) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void write(Path file, Collection<Policy> policies, Collection<Claim> claims) throws IOException {
+        AtomicFileWriter.write(file, writer -> {
+            JsonWriter out = new JsonWriter(writer);
+            // Lenient so that the writer accepts one top-level value per line
+            out.setLenient(true);
+            out.setSerializeNulls(false);
+            for (Policy policy : policies) {
+                policyAdapter.write(out, policy);
+                writer.write('\n');
+            }
+            for (Claim claim : claims) {
+                claimAdapter.write(out, claim);
+                writer.write('\n');
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Returns whether a file holds a single JSON document rather than one record per line:
+     * its first object starts with the "policies" or "claims" section, or is empty.
+     *
+     * @param file the data file
+     * @return true if the file is a single document
+     * @throws IOException if the file could not be read
+     */
+    static boolean isDocument(Path file) throws IOException {
+        byte[] head = new byte[HEAD_BYTES];
+        int length;
+        try (InputStream in = Files.newInputStream(file)) {
+            length = in.readNBytes(head, 0, head.length);
+        }
+        String start = new String(head, 0, length, StandardCharsets.ISO_8859_1).replaceAll("\\s", "");
+        return start.startsWith("{\"policies\"") || start.startsWith("{\"claims\"") || start.startsWith("{}");
+    }
+
+    /**
+     * Splits the file into segments that start at the beginning of a line.
+     *
+     * @return the segment start offsets followed by the file size
+     */
+    private static long[] segmentBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int threads = ForkJoinPool.getCommonPoolParallelism();
+        int count = (int) Math.max(1, Math.min(size / MIN_SEGMENT_BYTES, (long) threads * SEGMENTS_PER_THREAD));
+        long[] bounds = new long[count + 1];
+        bounds[count] = size;
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        for (int i = 1; i < count; i++) {
+            long position = Math.max(size * i / count, bounds[i - 1]);
+            bounds[i] = size;
+            while (position < size) {
+                buffer.clear();
+                int read = channel.read(buffer, position);
+                int newline = -1;
+                for (int j = 0; j < read && newline < 0; j++) {
+                    if (buffer.get(j) == '\n') {
+                        newline = j;
+                    }
+                }
+                if (newline >= 0) {
+                    bounds[i] = position + newline + 1;
+                    break;
+                }
+                position += Math.max(read, 0);
+            }
+        }
+        return bounds;
+    }
+
+    /** Decodes the records of one segment, keeping only the kinds that will be visited. */
+    private static Segment decode(FileChannel channel, long start, long end, boolean keepPolicies,
+                                  boolean keepClaims) {
+        Segment segment = new Segment();
+        try (JsonSnapshotParser parser = new JsonSnapshotParser(new SegmentInputStream(channel, start, end), start)) {
+            parser.readRecords(policy -> !keepPolicies || segment.policies.add(policy),
+                    claim -> !keepClaims || segment.claims.add(claim));
+        } catch (IOException e) {
+            segment.error = e;
+        }
+        return segment;
+    }
+
+    /** The decoded records of one segment. */
+    private static class Segment {
+        final List<Policy> policies = new ArrayList<>();
+        final List<Claim> claims = new ArrayList<>();
+        IOException error;
+    }
+
+    /**
+     * Reads a byte range of a file with positional reads, so that several segments can
+     * be read from the same channel at once.
+     */
+    private static class SegmentInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+
+        SegmentInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, (int) Math.min(length, end - position)), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+            // The channel is closed by its owner
+        }
+    }
+}
@@ -4,11 +4,11 @@ import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
+import com.insurance.factory.InsuranceFactory;
 import com.insurance.model.*;
 
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.DateTimeException;
 
 /**
  * Gson adapter for serializing and deserializing the abstract Policy class.
@@ -16,8 +16,6 @@ import java.time.format.DateTimeFormatter;
  */
 public class PolicyAdapter extends TypeAdapter<Policy> {
 
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
-
     @Override
     public void write(JsonWriter out, Policy policy) throws IOException {
         out.beginObject();
@@ -25,7 +23,7 @@ public class PolicyAdapter extends TypeAdapter<Policy> {
         out.name("id").value(policy.getId());
         out.name("firstName").value(policy.getFirstName());
         out.name("lastName").value(policy.getLastName());
-        out.name("date").value(policy.getDate().format(DATE_FORMAT));
+        out.name("date").value(IsoDate.format(policy.getDate()));
         out.name("remarks").value(policy.getRemarks());
         out.endObject();
     }
@@ -74,22 +72,14 @@ public class PolicyAdapter extends TypeAdapter<Policy> {
         }
         in.endObject();
 
-        // Convert string data to objects
-        LocalDate date = LocalDate.parse(dateStr, DATE_FORMAT);
-        InsuranceType insuranceType = InsuranceType.valueOf(type);
-
-
-        switch (insuranceType) {
-            case CAR:
-                return new CarInsurance(id, firstName, lastName, date, remarks);
-            case APARTMENT:
-                return new ApartmentInsurance(id, firstName, lastName, date, remarks);
-            case LIFE:
-                return new LifeInsurance(id, firstName, lastName, date, remarks);
-            case HEALTH:
-                return new HealthInsurance(id, firstName, lastName, date, remarks);
-            default:
-                throw new IOException("Unknown insurance type: " + type);
+        if (type == null || dateStr == null) {
+            throw new IOException("Policy " + id + " has no type or date");
+        }
+        try {
+            return InsuranceFactory.restorePolicy(id, firstName, lastName, IsoDate.parse(dateStr), remarks,
+                    InsuranceType.valueOf(type));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IOException("Invalid policy " + id + ": " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+}
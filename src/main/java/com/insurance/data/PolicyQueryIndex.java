@@ -0,0 +1,384 @@
+package com.insurance.data;
+
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+import com.insurance.model.PolicyCriteria;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes over the resident policies used to answer {@link PolicyCriteria} queries.
+ *
+ * Each policy gets a row number in save order. The indexes are a bitmap of rows per
+ * insurance type, a sorted map from policy date to rows, and a trie over lower-cased
+ * first and last names whose nodes hold the rows of every name ending there. Rows also
+ * keep their type, date and name codes in primitive columns.
+ *
+ * A query is planned in two steps. The candidate rows come from whichever index yields
+ * the fewest of them; every filter is then checked on the row's columns, so only
+ * matching policies are looked up. When results are sorted by date and limited, rows
+ * are instead walked in date order and the walk stops once the limit is reached.
+ *
+ * Deleting a policy only clears its live bit, so postings are append-only; once half of
+ * the rows are dead the owner rebuilds the index. Not thread-safe; callers synchronize access.
+ */
+class PolicyQueryIndex {
+
+    /** Date key of policies without a date; sorts before every real date, like nulls in queries. */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final InsuranceType[] TYPES = InsuranceType.values();
+    private static final int MIN_ROWS_TO_REBUILD = 4096;
+    /** How many candidates per wanted row make a date-ordered walk cheaper than filtering first. */
+    private static final int WALK_FACTOR = 16;
+
+    private final Map<String, Integer> rowOf = new HashMap<>();
+    private String[] ids = new String[1024];
+    private byte[] types = new byte[1024];
+    private int[] dates = new int[1024];
+    private int[] firstNames = new int[1024];
+    private int[] lastNames = new int[1024];
+    private int rows;
+    private int deadRows;
+    private final BitSet live = new BitSet();
+    private final BitSet[] rowsByType = new BitSet[TYPES.length];
+    private final int[] liveByType = new int[TYPES.length];
+    private final NavigableMap<Integer, IntList> rowsByDate = new TreeMap<>();
+    private final TrieNode names = new TrieNode();
+    private int nameCodes;
+
+    /**
+     * Creates an index over the given policies.
+     *
+     * @param policies the policies to index, in save order
+     */
+    PolicyQueryIndex(Collection<Policy> policies) {
+        for (int i = 0; i < rowsByType.length; i++) {
+            rowsByType[i] = new BitSet();
+        }
+        policies.forEach(this::add);
+    }
+
+    /** Indexes a saved policy, replacing an earlier version with the same ID. */
+    void add(Policy policy) {
+        remove(policy.getId());
+        if (rows == ids.length) {
+            int capacity = rows * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            types = Arrays.copyOf(types, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            firstNames = Arrays.copyOf(firstNames, capacity);
+            lastNames = Arrays.copyOf(lastNames, capacity);
+        }
+        int row = rows++;
+        int type = policy.getType().ordinal();
+        int date = policy.getDate() != null ? (int) policy.getDate().toEpochDay() : NO_DATE;
+        ids[row] = policy.getId();
+        types[row] = (byte) type;
+        dates[row] = date;
+        rowOf.put(policy.getId(), row);
+        live.set(row);
+        rowsByType[type].set(row);
+        liveByType[type]++;
+        rowsByDate.computeIfAbsent(date, k -> new IntList()).add(row);
+        firstNames[row] = insertName(PolicyCriteria.normalizeName(policy.getFirstName()), row);
+        lastNames[row] = insertName(PolicyCriteria.normalizeName(policy.getLastName()), row);
+    }
+
+    /** Drops a deleted policy from the index. */
+    void remove(String id) {
+        Integer row = rowOf.remove(id);
+        if (row == null) {
+            return;
+        }
+        live.clear(row);
+        rowsByType[types[row]].clear(row);
+        liveByType[types[row]]--;
+        ids[row] = null;
+        deadRows++;
+    }
+
+    /** @return true if so many rows are dead that the index should be rebuilt */
+    boolean isFragmented() {
+        return rows >= MIN_ROWS_TO_REBUILD && deadRows > rows / 2;
+    }
+
+    /**
+     * Runs a query.
+     *
+     * @param criteria the query criteria
+     * @param lookup   resolves a policy ID to the stored policy
+     * @return the matching policies, sorted and limited as the criteria specify
+     */
+    List<Policy> query(PolicyCriteria criteria, Function<String, Policy> lookup) {
+        RowFilter filter = new RowFilter(criteria);
+        if (filter.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Comparator<Policy> comparator = criteria.comparator();
+        int limit = criteria.getLimit();
+
+        BitSet candidates = null;
+        long estimate = rows - deadRows;
+        if (!criteria.getTypes().isEmpty()) {
+            long byType = 0;
+            for (InsuranceType type : criteria.getTypes()) {
+                byType += liveByType[type.ordinal()];
+            }
+            estimate = byType;
+        }
+        NavigableMap<Integer, IntList> dateRange = criteria.hasDateRange() ? dateRange(filter) : null;
+        long byDate = dateRange != null ? postings(dateRange) : Long.MAX_VALUE;
+        long byName = filter.nameNode != null ? filter.nameNode.subtreeSize : Long.MAX_VALUE;
+
+        PolicyCriteria.SortKey firstKey = criteria.getSortKeys().isEmpty() ? null : criteria.getSortKeys().get(0);
+        long best = Math.min(estimate, Math.min(byDate, byName));
+        if (firstKey != null && firstKey.getField() == PolicyCriteria.SortField.DATE
+                && limit < Integer.MAX_VALUE && best > (long) limit * WALK_FACTOR) {
+            NavigableMap<Integer, IntList> walk = dateRange != null ? dateRange : rowsByDate;
+            return walkInDateOrder(firstKey.isAscending() ? walk : walk.descendingMap(), filter, comparator, limit, lookup);
+        }
+
+        if (byName <= byDate && byName <= estimate) {
+            candidates = new BitSet(rows);
+            filter.nameNode.collect(candidates);
+        } else if (byDate <= estimate) {
+            candidates = new BitSet(rows);
+            for (IntList list : dateRange.values()) {
+                list.setAll(candidates);
+            }
+        } else if (!criteria.getTypes().isEmpty()) {
+            candidates = new BitSet(rows);
+            for (InsuranceType type : criteria.getTypes()) {
+                candidates.or(rowsByType[type.ordinal()]);
+            }
+        } else {
+            candidates = live;
+        }
+
+        // Without sort keys results come in save order, so the scan can stop at the limit
+        if (comparator == null) {
+            List<Policy> results = new ArrayList<>();
+            for (int row = candidates.nextSetBit(0); row >= 0 && results.size() < limit; row = candidates.nextSetBit(row + 1)) {
+                if (filter.test(row)) {
+                    results.add(lookup.apply(ids[row]));
+                }
+            }
+            return results;
+        }
+        TopK top = new TopK(comparator, limit);
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+            if (filter.test(row)) {
+                top.add(lookup.apply(ids[row]));
+            }
+        }
+        return top.toList();
+    }
+
+    /**
+     * Walks date buckets in sort order, stopping at the end of the bucket in which the
+     * limit was reached; later sort keys are applied within the collected rows.
+     */
+    private List<Policy> walkInDateOrder(NavigableMap<Integer, IntList> buckets, RowFilter filter,
+                                         Comparator<Policy> comparator, int limit, Function<String, Policy> lookup) {
+        TopK top = new TopK(comparator, limit);
+        int matched = 0;
+        for (IntList bucket : buckets.values()) {
+            if (matched >= limit) {
+                break;
+            }
+            for (int i = 0; i < bucket.size; i++) {
+                int row = bucket.values[i];
+                if (filter.test(row)) {
+                    top.add(lookup.apply(ids[row]));
+                    matched++;
+                }
+            }
+        }
+        return top.toList();
+    }
+
+    private NavigableMap<Integer, IntList> dateRange(RowFilter filter) {
+        if (filter.fromDate > filter.toDate) {
+            return new TreeMap<>();
+        }
+        return rowsByDate.subMap(filter.fromDate, true, filter.toDate, true);
+    }
+
+    private static long postings(NavigableMap<Integer, IntList> buckets) {
+        long count = 0;
+        for (IntList list : buckets.values()) {
+            count += list.size;
+        }
+        return count;
+    }
+
+    /** Adds a row under a name in the trie and returns the name's code. */
+    private int insertName(String name, int row) {
+        TrieNode node = names;
+        node.subtreeSize++;
+        for (int i = 0; i < name.length(); i++) {
+            node = node.children.computeIfAbsent(name.charAt(i), k -> new TrieNode());
+            node.subtreeSize++;
+        }
+        if (node.rows == null) {
+            node.rows = new IntList();
+            node.code = nameCodes++;
+        }
+        node.rows.add(row);
+        return node.code;
+    }
+
+    /**
+     * Per-row check of all filters of a query against the row columns.
+     */
+    private class RowFilter {
+
+        private final boolean[] allowedTypes = new boolean[TYPES.length];
+        private final boolean hasDateRange;
+        private final int fromDate;
+        private final int toDate;
+        private final TrieNode nameNode;
+        private final BitSet nameCodesWithPrefix;
+        private final boolean noMatchingName;
+
+        RowFilter(PolicyCriteria criteria) {
+            for (InsuranceType type : TYPES) {
+                allowedTypes[type.ordinal()] = criteria.getTypes().isEmpty() || criteria.getTypes().contains(type);
+            }
+            hasDateRange = criteria.hasDateRange();
+            fromDate = criteria.getFromDate() != null ? (int) criteria.getFromDate().toEpochDay() : NO_DATE + 1;
+            toDate = criteria.getToDate() != null ? (int) criteria.getToDate().toEpochDay() : Integer.MAX_VALUE;
+            if (criteria.getNamePrefix() != null) {
+                nameNode = names.find(criteria.getNamePrefix());
+                nameCodesWithPrefix = new BitSet(nameCodes);
+                if (nameNode != null) {
+                    nameNode.collectCodes(nameCodesWithPrefix);
+                }
+                noMatchingName = nameNode == null;
+            } else {
+                nameNode = null;
+                nameCodesWithPrefix = null;
+                noMatchingName = false;
+            }
+        }
+
+        /** @return true if the filters cannot match any row */
+        boolean isEmpty() {
+            return noMatchingName;
+        }
+
+        boolean test(int row) {
+            return live.get(row)
+                    && allowedTypes[types[row]]
+                    && (!hasDateRange || (dates[row] >= fromDate && dates[row] <= toDate))
+                    && (nameCodesWithPrefix == null
+                        || nameCodesWithPrefix.get(firstNames[row]) || nameCodesWithPrefix.get(lastNames[row]));
+        }
+    }
+
+    /**
+     * Keeps the first {@code limit} policies in comparator order.
+     */
+    private static class TopK {
+
+        private final Comparator<Policy> comparator;
+        private final int limit;
+        private final PriorityQueue<Policy> heap;
+        private final List<Policy> all;
+
+        TopK(Comparator<Policy> comparator, int limit) {
+            this.comparator = comparator;
+            this.limit = limit;
+            this.heap = limit < Integer.MAX_VALUE ? new PriorityQueue<>(comparator.reversed()) : null;
+            this.all = heap == null ? new ArrayList<>() : null;
+        }
+
+        void add(Policy policy) {
+            if (heap == null) {
+                all.add(policy);
+            } else if (limit > 0) {
+                heap.add(policy);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<Policy> toList() {
+            List<Policy> results = heap != null ? new ArrayList<>(heap) : all;
+            results.sort(comparator);
+            return results;
+        }
+    }
+
+    /**
+     * Node of the name trie. Each node counts the postings below it, so the planner
+     * can estimate a prefix's selectivity without walking the subtree.
+     */
+    private static class TrieNode {
+
+        private final Map<Character, TrieNode> children = new HashMap<>(4);
+        private IntList rows;
+        private int code;
+        private long subtreeSize;
+
+        TrieNode find(String prefix) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            return node;
+        }
+
+        void collect(BitSet target) {
+            if (rows != null) {
+                rows.setAll(target);
+            }
+            for (TrieNode child : children.values()) {
+                child.collect(target);
+            }
+        }
+
+        void collectCodes(BitSet target) {
+            if (rows != null) {
+                target.set(code);
+            }
+            for (TrieNode child : children.values()) {
+                child.collectCodes(target);
+            }
+        }
+    }
+
+    /**
+     * Growable list of primitive ints.
+     */
+    private static class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void setAll(BitSet target) {
+            for (int i = 0; i < size; i++) {
+                target.set(values[i]);
+            }
+        }
+    }
+}
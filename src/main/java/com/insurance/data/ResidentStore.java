@@ -0,0 +1,77 @@
+package com.insurance.data;
+
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The resident in-memory store of the file-based data manager.
+ * Policies are held in a primary hash index by ID that preserves insertion order;
+ * claims are held in insertion order plus a secondary index by policy ID.
+ * Not thread-safe; callers synchronize access.
+ */
+class ResidentStore {
+
+    final Map<String, Policy> policiesById;
+    final Map<String, Claim> claimsById = new LinkedHashMap<>();
+    final Map<String, List<Claim>> claimsByPolicyId = new HashMap<>();
+
+    /** Creates a store that keeps policies in a {@link LinkedHashMap}. */
+    ResidentStore() {
+        this(new LinkedHashMap<>());
+    }
+
+    /**
+     * Creates a store that keeps policies in the given empty, insertion-ordered map,
+     * such as a {@link ColumnarPolicyStore}.
+     */
+    ResidentStore(Map<String, Policy> policiesById) {
+        this.policiesById = policiesById;
+    }
+
+    /** Adds a policy to the primary index. */
+    void addPolicy(Policy policy) {
+        policiesById.put(policy.getId(), policy);
+    }
+
+    /** Adds a claim and indexes it under its policy ID. */
+    void addClaim(Claim claim) {
+        claimsById.put(claim.getId(), claim);
+        claimsByPolicyId.computeIfAbsent(claim.getPolicyId(), k -> new ArrayList<>(2)).add(claim);
+    }
+
+    /**
+     * Applies a replayed journal entry.
+     * Entries already reflected in the snapshot are skipped, so replay is idempotent.
+     * A saved policy never replaces one with the same ID, just as a live save is
+     * rejected for an existing ID.
+     */
+    void applyReplayed(JournalEntry entry) {
+        switch (entry.getOp()) {
+            case SAVE_POLICY:
+                policiesById.putIfAbsent(entry.getPolicy().getId(), entry.getPolicy());
+                break;
+            case DELETE_POLICY:
+                policiesById.remove(entry.getPolicyId());
+                break;
+            case SAVE_CLAIM:
+                if (!claimsById.containsKey(entry.getClaim().getId())) {
+                    addClaim(entry.getClaim());
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** Adds every policy and claim of another store, which must not overlap this one. */
+    void addAll(ResidentStore other) {
+        policiesById.putAll(other.policiesById);
+        other.claimsById.values().forEach(this::addClaim);
+    }
+}
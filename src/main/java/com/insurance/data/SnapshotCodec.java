@@ -0,0 +1,37 @@
+package com.insurance.data;
+
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/**
+ * Reads and writes data file snapshots in a particular on-disk format.
+ */
+public interface SnapshotCodec {
+
+    /**
+     * Streams a snapshot file, passing each policy and claim to its visitor.
+     * Reading stops as soon as a visitor returns false. A null visitor skips that section.
+     *
+     * @param file          the snapshot file
+     * @param policyVisitor receives each policy; returns false to stop reading
+     * @param claimVisitor  receives each claim; returns false to stop reading
+     * @return true if the whole file was visited, false if a visitor stopped early
+     * @throws IOException if the file could not be read or is malformed
+     */
+    boolean read(Path file, Predicate<Policy> policyVisitor, Predicate<Claim> claimVisitor) throws IOException;
+
+    /**
+     * Atomically replaces a snapshot file with the given policies and claims.
+     *
+     * @param file     the snapshot file
+     * @param policies the policies to write
+     * @param claims   the claims to write
+     * @throws IOException if the file could not be written; the old file is left untouched
+     */
+    void write(Path file, Collection<Policy> policies, Collection<Claim> claims) throws IOException;
+}
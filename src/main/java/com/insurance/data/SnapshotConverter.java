@@ -0,0 +1,75 @@
+package com.insurance.data;
+
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command-line tool that converts a snapshot between the JSON, NDJSON and binary formats
+ * and reports file size and load time for both.
+ *
+ * Usage: {@code SnapshotConverter <source> <target>}, where the format of each file
+ * is taken from its extension (.json, .ndjson or .bin).
+ */
+public class SnapshotConverter {
+
+    /** Private constructor to prevent instantiation. */
+    private SnapshotConverter() {
+    }
+
+    /**
+     * Converts the source snapshot into the target snapshot.
+     *
+     * @param source the snapshot to read
+     * @param target the snapshot to write
+     * @throws IOException if either file could not be read or written
+     */
+    public static void convert(Path source, Path target) throws IOException {
+        List<Policy> policies = new ArrayList<>();
+        List<Claim> claims = new ArrayList<>();
+        SnapshotFormat.forFile(source).createCodec().read(source, policies::add, claims::add);
+        SnapshotFormat.forFile(target).createCodec().write(target, policies, claims);
+    }
+
+    /**
+     * Entry point of the converter.
+     *
+     * @param args the source and target snapshot paths
+     * @throws IOException if either file could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: SnapshotConverter <source.json|.ndjson|.bin> <target.json|.ndjson|.bin>");
+            System.exit(1);
+        }
+        Path source = Paths.get(args[0]);
+        Path target = Paths.get(args[1]);
+
+        convert(source, target);
+        System.out.println("Converted " + source + " -> " + target);
+        report(source);
+        report(target);
+    }
+
+    /** Prints the size of a snapshot and the best of several load times. */
+    private static void report(Path file) throws IOException {
+        SnapshotCodec codec = SnapshotFormat.forFile(file).createCodec();
+        long best = Long.MAX_VALUE;
+        int[] counts = new int[2];
+        for (int run = 0; run < 5; run++) {
+            counts[0] = 0;
+            counts[1] = 0;
+            long start = System.nanoTime();
+            codec.read(file, p -> ++counts[0] > 0, c -> ++counts[1] > 0);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-40s %,14d bytes  %,10.1f ms  (%d policies, %d claims)%n",
+                file, Files.size(file), best / 1_000_000.0, counts[0], counts[1]);
+    }
+}
@@ -0,0 +1,100 @@
+package com.insurance.data;
+
+import java.nio.file.Path;
+
+/**
+ * The on-disk formats available for data file snapshots.
+ */
+public enum SnapshotFormat {
+
+    JSON("purchases.json", ".json"),
+    NDJSON("purchases.ndjson", ".ndjson"),
+    BINARY("purchases.bin", ".bin");
+
+    private final String fileName;
+    private final String extension;
+
+    SnapshotFormat(String fileName, String extension) {
+        this.fileName = fileName;
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the default snapshot file name for this format.
+     *
+     * @return the file name inside the data directory
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Returns the file extension of this format, including the leading dot.
+     *
+     * @return the file extension
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Creates a codec that reads and writes this format, pretty-printing JSON.
+     *
+     * @return a new codec
+     */
+    public SnapshotCodec createCodec() {
+        return createCodec(true);
+    }
+
+    /**
+     * Creates a codec that reads and writes this format.
+     *
+     * @param prettyPrint whether JSON is indented; ignored by the other formats
+     * @return a new codec
+     */
+    public SnapshotCodec createCodec(boolean prettyPrint) {
+        switch (this) {
+            case BINARY:
+                return new BinarySnapshotCodec();
+            case NDJSON:
+                return new NdjsonSnapshotCodec();
+            case JSON:
+            default:
+                return new JsonSnapshotCodec(prettyPrint);
+        }
+    }
+
+    /**
+     * Parses a format name from the configuration, case-insensitively.
+     *
+     * @param name the configured format name, may be null
+     * @return the matching format, or JSON if the name is missing or unknown
+     */
+    public static SnapshotFormat fromName(String name) {
+        if (name != null) {
+            for (SnapshotFormat format : values()) {
+                if (format.name().equalsIgnoreCase(name.trim())) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Determines the format of a snapshot file from its extension.
+     *
+     * @param file the snapshot file
+     * @return the matching format
+     * @throws IllegalArgumentException if the extension is not recognized
+     */
+    public static SnapshotFormat forFile(Path file) {
+        String name = file.getFileName().toString();
+        for (SnapshotFormat format : values()) {
+            if (name.endsWith(format.extension)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown snapshot file extension: " + name);
+    }
+}
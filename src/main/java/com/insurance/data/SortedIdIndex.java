@@ -0,0 +1,147 @@
+package com.insurance.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorted index of policy IDs that supports both offset and keyset paging.
+ *
+ * IDs are kept in ascending order in a list of bounded blocks, so an insert or
+ * removal only shifts one block and locating the n-th ID only walks the block sizes.
+ * Not thread-safe; callers synchronize access.
+ */
+class SortedIdIndex {
+
+    private static final int MAX_BLOCK_SIZE = 2048;
+
+    private final List<List<String>> blocks = new ArrayList<>();
+    private int size;
+
+    /**
+     * Creates an index over the given IDs.
+     *
+     * @param ids the IDs to index, in any order and without duplicates
+     */
+    SortedIdIndex(Collection<String> ids) {
+        String[] sorted = ids.toArray(new String[0]);
+        Arrays.parallelSort(sorted);
+        for (int from = 0; from < sorted.length; from += MAX_BLOCK_SIZE / 2) {
+            int to = Math.min(sorted.length, from + MAX_BLOCK_SIZE / 2);
+            blocks.add(new ArrayList<>(Arrays.asList(sorted).subList(from, to)));
+        }
+        size = sorted.length;
+    }
+
+    /** @return number of indexed IDs */
+    int size() {
+        return size;
+    }
+
+    /** Adds an ID that is not yet indexed. */
+    void add(String id) {
+        if (blocks.isEmpty()) {
+            blocks.add(new ArrayList<>());
+        }
+        int blockIndex = blockFor(id);
+        List<String> block = blocks.get(blockIndex);
+        int position = Collections.binarySearch(block, id);
+        if (position >= 0) {
+            return;
+        }
+        block.add(-position - 1, id);
+        size++;
+        if (block.size() > MAX_BLOCK_SIZE) {
+            List<String> upper = new ArrayList<>(block.subList(block.size() / 2, block.size()));
+            block.subList(block.size() / 2, block.size()).clear();
+            blocks.add(blockIndex + 1, upper);
+        }
+    }
+
+    /** Removes an ID if it is indexed. */
+    void remove(String id) {
+        if (blocks.isEmpty()) {
+            return;
+        }
+        int blockIndex = blockFor(id);
+        List<String> block = blocks.get(blockIndex);
+        int position = Collections.binarySearch(block, id);
+        if (position < 0) {
+            return;
+        }
+        block.remove(position);
+        size--;
+        if (block.isEmpty()) {
+            blocks.remove(blockIndex);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} IDs starting at the given position in sort order.
+     *
+     * @param offset zero-based position of the first ID
+     * @param limit  maximum number of IDs to return
+     * @return the IDs, in ascending order
+     */
+    List<String> range(int offset, int limit) {
+        List<String> ids = new ArrayList<>(Math.max(0, Math.min(limit, size - offset)));
+        int blockIndex = 0;
+        int skipped = 0;
+        while (blockIndex < blocks.size() && skipped + blocks.get(blockIndex).size() <= offset) {
+            skipped += blocks.get(blockIndex).size();
+            blockIndex++;
+        }
+        collect(blockIndex, offset - skipped, limit, ids);
+        return ids;
+    }
+
+    /**
+     * Returns up to {@code limit} IDs that sort strictly after the given ID.
+     *
+     * @param afterId the cursor, or null to start from the first ID
+     * @param limit   maximum number of IDs to return
+     * @return the IDs, in ascending order
+     */
+    List<String> after(String afterId, int limit) {
+        List<String> ids = new ArrayList<>();
+        if (blocks.isEmpty()) {
+            return ids;
+        }
+        if (afterId == null) {
+            collect(0, 0, limit, ids);
+            return ids;
+        }
+        int blockIndex = blockFor(afterId);
+        int position = Collections.binarySearch(blocks.get(blockIndex), afterId);
+        collect(blockIndex, position >= 0 ? position + 1 : -position - 1, limit, ids);
+        return ids;
+    }
+
+    /** Copies IDs from the given block and position onwards until {@code limit} are collected. */
+    private void collect(int blockIndex, int position, int limit, List<String> ids) {
+        for (; blockIndex < blocks.size() && ids.size() < limit; blockIndex++, position = 0) {
+            List<String> block = blocks.get(blockIndex);
+            int end = Math.min(block.size(), position + limit - ids.size());
+            if (position < end) {
+                ids.addAll(block.subList(position, end));
+            }
+        }
+    }
+
+    /** Returns the index of the block whose range covers the given ID. */
+    private int blockFor(String id) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (blocks.get(middle).get(0).compareTo(id) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,47 @@
+package com.insurance.data;
+
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+/**
+ * Streaming reader for the JSON data file.
+ * Visits policies and claims one at a time with {@link JsonSnapshotParser} instead of binding
+ * the whole file into memory, so the snapshot codecs can load the file into the resident
+ * store without an intermediate object graph, and a visitor can stop reading early.
+ */
+public class StreamingDataReader {
+
+    private final Path file;
+
+    /**
+     * Creates a reader for the given data file.
+     *
+     * @param file the JSON data file
+     */
+    public StreamingDataReader(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Streams the data file, passing each policy and claim to its visitor in file order.
+     * Reading stops as soon as a visitor returns false. A null visitor skips that section.
+     *
+     * @param policyVisitor receives each policy; returns false to stop reading
+     * @param claimVisitor  receives each claim; returns false to stop reading
+     * @return true if the whole file was visited, false if a visitor stopped early
+     * @throws IOException if the file could not be read or is malformed
+     */
+    public boolean read(Predicate<Policy> policyVisitor, Predicate<Claim> claimVisitor) throws IOException {
+        if (!Files.exists(file)) {
+            return true;
+        }
+        try (JsonSnapshotParser parser = new JsonSnapshotParser(Files.newInputStream(file))) {
+            return parser.read(policyVisitor, claimVisitor);
+        }
+    }
+}
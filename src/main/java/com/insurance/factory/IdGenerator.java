@@ -0,0 +1,253 @@
+package com.insurance.factory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Singleton generator of policy and claim IDs.
+ *
+ * An ID is a positive 64-bit number made of the milliseconds since 2024-01-01 UTC
+ * (41 bits, enough until 2093), a node number (10 bits) and a sequence number (12 bits):
+ * <pre>
+ *   0 | timestamp (41) | node (10) | sequence (12)
+ * </pre>
+ * IDs are allocated with a single compare-and-set, without locks: each call takes the
+ * next number after the last one handed out, or the first number of the current
+ * millisecond if that is larger. IDs are therefore strictly increasing within a process,
+ * even when more than 4096 are taken in one millisecond (the timestamp then runs slightly
+ * ahead of the clock) or the clock steps back. They stay unique across restarts as long
+ * as the clock does not step back past the last ID of the previous run. Processes writing
+ * the same data store must use different node numbers, which {@link #configureLeased}
+ * ensures by leasing a node through a lock file held for the lifetime of the process.
+ *
+ * IDs are encoded at a fixed width, so that they sort as text in the order they were
+ * generated: as 13 characters of Crockford base32 (digits and upper-case letters without
+ * I, L, O and U) by default, or as 19 decimal digits.
+ *
+ * Design Pattern: Singleton
+ */
+public class IdGenerator {
+
+    /**
+     * How IDs are written as text.
+     */
+    public enum Encoding {
+        /** 13 characters of Crockford base32, such as 0F2XK7M3Q8001. */
+        BASE32,
+        /** 19 decimal digits. */
+        DECIMAL
+    }
+
+    /** The largest node number. */
+    public static final int MAX_NODE = 1023;
+
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int BASE32_LENGTH = 13;
+    private static final int DECIMAL_LENGTH = 19;
+    private static final char[] BASE32_DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private static IdGenerator instance;
+
+    // The timestamp and sequence number of the last ID handed out
+    private final AtomicLong last = new AtomicLong();
+    private volatile long node;
+    private volatile Encoding encoding = Encoding.BASE32;
+    // The lock file channel holding the leased node, if any
+    private FileChannel lease;
+
+    /** Private constructor to prevent external instantiation. */
+    private IdGenerator() {
+    }
+
+    /**
+     * Returns the single instance of IdGenerator.
+     *
+     * @return the IdGenerator instance
+     */
+    public static synchronized IdGenerator getInstance() {
+        if (instance == null) {
+            instance = new IdGenerator();
+        }
+        return instance;
+    }
+
+    /**
+     * Sets the node number and the text encoding of the IDs generated from now on.
+     *
+     * @param nodeId   the node number, from 0 to {@value #MAX_NODE}
+     * @param encoding "base32" or "decimal"
+     */
+    public void configure(int nodeId, String encoding) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        this.node = (long) nodeId << SEQUENCE_BITS;
+        this.encoding = "decimal".equalsIgnoreCase(encoding) ? Encoding.DECIMAL : Encoding.BASE32;
+    }
+
+    /**
+     * Leases a node number that no other running process holds and sets it, with the text
+     * encoding, for the IDs generated from now on. Each node is leased by an exclusive lock on
+     * its own file in the given directory, which the operating system releases when the process
+     * exits. The preferred node is tried first, then the following ones in turn. If no lock can
+     * be taken, the preferred node is used without a lease.
+     *
+     * @param directory     the directory of the lock files, shared by the processes of a data store
+     * @param preferredNode the node number to try first, from 0 to {@value #MAX_NODE}
+     * @param encoding      "base32" or "decimal"
+     * @return the node number now in use
+     */
+    public synchronized int configureLeased(Path directory, int preferredNode, String encoding) {
+        configure(preferredNode, encoding);
+        releaseLease();
+        try {
+            Files.createDirectories(directory);
+            for (int i = 0; i <= MAX_NODE; i++) {
+                int nodeId = (preferredNode + i) % (MAX_NODE + 1);
+                FileChannel channel = FileChannel.open(directory.resolve("id-node-" + nodeId + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock lock;
+                try {
+                    lock = channel.tryLock();
+                } catch (OverlappingFileLockException | IOException e) {
+                    // Held by this process, or not lockable here
+                    lock = null;
+                }
+                if (lock == null) {
+                    channel.close();
+                    continue;
+                }
+                lease = channel;
+                configure(nodeId, encoding);
+                return nodeId;
+            }
+            System.err.println("No free ID node to lease in " + directory + ", using node " + preferredNode);
+        } catch (IOException e) {
+            System.err.println("Could not lease an ID node in " + directory + ", using node " + preferredNode
+                    + ": " + e.getMessage());
+        }
+        return preferredNode;
+    }
+
+    /** Releases the node leased by {@link #configureLeased}, if any. */
+    private void releaseLease() {
+        if (lease != null) {
+            try {
+                lease.close();
+            } catch (IOException e) {
+                System.err.println("Failed to release ID node lease: " + e.getMessage());
+            }
+            lease = null;
+        }
+    }
+
+    /**
+     * Returns a new ID.
+     *
+     * @return the ID, encoded as configured
+     */
+    public String nextId() {
+        long id = next();
+        return encoding == Encoding.DECIMAL ? encodeDecimal(id) : encodeBase32(id);
+    }
+
+    /**
+     * Returns a new ID as a number.
+     *
+     * @return the ID
+     */
+    public long next() {
+        long first = (System.currentTimeMillis() - EPOCH_MILLIS) << SEQUENCE_BITS;
+        long previous;
+        long current;
+        do {
+            previous = last.get();
+            current = Math.max(previous + 1, first);
+        } while (!last.compareAndSet(previous, current));
+        return (current >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS) | node | (current & SEQUENCE_MASK);
+    }
+
+    /**
+     * Encodes an ID as 13 characters of Crockford base32.
+     *
+     * @param id the ID
+     * @return the encoded ID
+     */
+    public static String encodeBase32(long id) {
+        char[] text = new char[BASE32_LENGTH];
+        for (int i = BASE32_LENGTH - 1; i >= 0; i--) {
+            text[i] = BASE32_DIGITS[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(text);
+    }
+
+    /**
+     * Encodes an ID as 19 decimal digits.
+     *
+     * @param id the ID
+     * @return the encoded ID
+     */
+    public static String encodeDecimal(long id) {
+        String digits = Long.toString(id);
+        return "0".repeat(DECIMAL_LENGTH - digits.length()) + digits;
+    }
+
+    /**
+     * Decodes an ID written in either encoding. Base32 is read leniently, as Crockford
+     * intends for IDs typed by people: case is ignored, I and L read as 1, O as 0, and
+     * hyphens are skipped.
+     *
+     * @param text the encoded ID
+     * @return the ID, or -1 if the text is not a generated ID, such as an ID from before this generator
+     */
+    public static long decode(String text) {
+        String value = text.trim().replace("-", "").toUpperCase(Locale.ROOT);
+        if (value.length() == DECIMAL_LENGTH && value.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        if (value.length() != BASE32_LENGTH) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = 0; i < BASE32_LENGTH; i++) {
+            int digit = base32Digit(value.charAt(i));
+            if (digit < 0 || (i == 0 && digit > 7)) {
+                return -1;
+            }
+            id = id << 5 | digit;
+        }
+        return id;
+    }
+
+    private static int base32Digit(char c) {
+        switch (c) {
+            case 'O':
+                return 0;
+            case 'I':
+            case 'L':
+                return 1;
+            default:
+                for (int digit = 0; digit < BASE32_DIGITS.length; digit++) {
+                    if (BASE32_DIGITS[digit] == c) {
+                        return digit;
+                    }
+                }
+                return -1;
+        }
+    }
+}
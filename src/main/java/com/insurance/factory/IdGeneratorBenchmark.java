@@ -0,0 +1,99 @@
+package com.insurance.factory;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Command-line benchmark of the {@link IdGenerator}: takes IDs from 1, 2, 4 and 8 threads at
+ * once and reports the throughput, next to the random 8-character UUID prefixes used before,
+ * and checks that no ID repeats and that each thread sees its IDs increase.
+ *
+ * Usage: {@code IdGeneratorBenchmark <ids>}, for example 4000000 ids in total per run.
+ * Every configuration runs once as a warm-up before it is measured.
+ */
+public class IdGeneratorBenchmark {
+
+    private static final int[] THREADS = {1, 2, 4, 8};
+
+    /** Private constructor to prevent instantiation. */
+    private IdGeneratorBenchmark() {
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param args the number of IDs taken per run, shared among the threads
+     * @throws InterruptedException if interrupted while waiting for the threads
+     */
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length != 1) {
+            System.err.println("Usage: IdGeneratorBenchmark <ids>");
+            System.exit(1);
+        }
+        int total = Integer.parseInt(args[0]);
+        IdGenerator generator = IdGenerator.getInstance();
+        Supplier<String> uuidPrefix = () -> UUID.randomUUID().toString().substring(0, 8);
+
+        for (int round = 0; round < 2; round++) {
+            for (int threads : THREADS) {
+                run("uuid8", threads, total / threads, uuidPrefix, round == 1);
+                run("generator", threads, total / threads, generator::nextId, round == 1);
+            }
+        }
+    }
+
+    /** Takes IDs from several threads started together and prints the result if requested. */
+    private static void run(String name, int threads, int perThread, Supplier<String> source, boolean report)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<String[]> results = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String[] ids = new String[perThread];
+            results.add(ids);
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    ids[i] = source.get();
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - startNanos;
+        if (!report) {
+            return;
+        }
+
+        long count = (long) threads * perThread;
+        Set<String> seen = new HashSet<>((int) Math.min(Integer.MAX_VALUE, count * 2));
+        long duplicates = 0;
+        boolean increasing = true;
+        for (String[] ids : results) {
+            for (int i = 0; i < ids.length; i++) {
+                if (!seen.add(ids[i])) {
+                    duplicates++;
+                }
+                if (i > 0 && ids[i].compareTo(ids[i - 1]) <= 0) {
+                    increasing = false;
+                }
+            }
+        }
+        System.out.printf("%-9s %d threads: %,.0f ids/s (%.0f ns/id), duplicates %d, increasing per thread %b%n",
+                name, threads, count * 1e9 / elapsed, elapsed / (double) count, duplicates, increasing);
+    }
+}
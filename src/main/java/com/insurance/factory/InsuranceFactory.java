@@ -3,7 +3,6 @@ package com.insurance.factory;
 import com.insurance.model.*;
 
 import java.time.LocalDate;
-import java.util.UUID;
 
 /**
  * Factory class for creating insurance policies and claims.
@@ -26,8 +25,22 @@ public class InsuranceFactory {
      */
     public static Policy createPolicy(String firstName, String lastName, LocalDate date,
                                       String remarks, InsuranceType type) {
-        String id = generateId();
+        return restorePolicy(generateId(), firstName, lastName, date, remarks, type);
+    }
 
+    /**
+     * Recreates a previously saved insurance policy of the specified type with its existing ID.
+     *
+     * @param id        the existing policy ID
+     * @param firstName customer first name
+     * @param lastName  customer last name
+     * @param date      policy date
+     * @param remarks   additional remarks
+     * @param type      the type of insurance to create
+     * @return the policy of the appropriate subclass
+     */
+    public static Policy restorePolicy(String id, String firstName, String lastName, LocalDate date,
+                                       String remarks, InsuranceType type) {
         switch (type) {
             case CAR:
                 return new CarInsurance(id, firstName, lastName, date, remarks);
@@ -57,11 +70,11 @@ public class InsuranceFactory {
     }
 
     /**
-     * Generates a short unique identifier.
+     * Generates a unique identifier, see {@link IdGenerator}.
      *
-     * @return an 8-character unique ID
+     * @return a unique ID that sorts after every ID generated before it
      */
     private static String generateId() {
-        return UUID.randomUUID().toString().substring(0, 8);
+        return IdGenerator.getInstance().nextId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package com.insurance.index;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Command-line benchmark of the {@link FuzzyNameIndex}: builds an index over synthetic
+ * customer names and reports build time, heap, incremental update cost and the latency
+ * of top-10 queries with one typo each at edit distances 1 and 2.
+ *
+ * Usage: {@code FuzzyNameBenchmark <ids> [queries]}, for example 1000000 or 10000000 ids.
+ * Names are generated from a fixed seed, so runs are comparable; 10M ids need about 3 GB of heap.
+ */
+public class FuzzyNameBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "ri", "mo", "an", "el", "so", "ta", "ne", "li", "ro", "ma",
+            "jo", "hn", "sm", "ith", "er", "ly", "da", "vi", "son", "ber", "go", "la", "ni"};
+    private static final int FIRST_NAMES = 3000;
+    private static final int UPDATES = 10_000;
+    private static final int LIMIT = 10;
+
+    /** Private constructor to prevent instantiation. */
+    private FuzzyNameBenchmark() {
+    }
+
+    /**
+     * Entry point of the benchmark.
+     *
+     * @param args the number of policy IDs to index, and optionally the number of queries
+     */
+    public static void main(String[] args) {
+        if (args.length < 1 || args.length > 2) {
+            System.err.println("Usage: FuzzyNameBenchmark <ids> [queries]");
+            System.exit(1);
+        }
+        int ids = Integer.parseInt(args[0]);
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Random random = new Random(42);
+
+        String[] firstNames = words(random, FIRST_NAMES, 2);
+        String[] lastNames = words(random, Math.max(1000, ids / 5), 3);
+        Map<String, String> namesById = new HashMap<>(ids * 2);
+        String[] sample = new String[Math.min(ids, 200_000)];
+        for (int i = 0; i < ids; i++) {
+            String name = randomName(random, firstNames, lastNames);
+            namesById.put(Integer.toHexString(i), name);
+            if (i < sample.length) {
+                sample[i] = name;
+            }
+        }
+
+        FuzzyNameIndex index = new FuzzyNameIndex();
+        long start = System.nanoTime();
+        index.putAll(namesById);
+        long buildNanos = System.nanoTime() - start;
+        namesById = null;
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        System.out.printf("build %,d ids (%,d names): %,d ms, heap %,d MB%n", ids, index.nameCount(),
+                buildNanos / 1_000_000, (runtime.totalMemory() - runtime.freeMemory()) >> 20);
+
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            index.put("new" + i, randomName(random, firstNames, lastNames));
+        }
+        System.out.printf("put: %.1f us%n", (System.nanoTime() - start) / (double) UPDATES / 1_000);
+        start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            index.remove("new" + i);
+        }
+        System.out.printf("remove: %.1f us%n", (System.nanoTime() - start) / (double) UPDATES / 1_000);
+
+        for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+            long total = 0;
+            long worst = 0;
+            for (int i = 0; i < queries; i++) {
+                String query = typo(random, sample[random.nextInt(sample.length)]);
+                long queryStart = System.nanoTime();
+                index.search(query, maxDistance, LIMIT);
+                long elapsed = System.nanoTime() - queryStart;
+                total += elapsed;
+                worst = Math.max(worst, elapsed);
+            }
+            System.out.printf("k=%d top-%d: avg %.2f ms, max %.2f ms over %d queries%n", maxDistance, LIMIT,
+                    total / (double) queries / 1_000_000, worst / 1_000_000.0, queries);
+        }
+    }
+
+    /** Generates words of two to {@code 1 + maxExtraSyllables} syllables. */
+    private static String[] words(Random random, int count, int maxExtraSyllables) {
+        String[] words = new String[count];
+        for (int i = 0; i < count; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(maxExtraSyllables);
+            for (int s = 0; s < syllables; s++) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words[i] = word.toString();
+        }
+        return words;
+    }
+
+    private static String randomName(Random random, String[] firstNames, String[] lastNames) {
+        return firstNames[random.nextInt(firstNames.length)] + " " + lastNames[random.nextInt(lastNames.length)];
+    }
+
+    /** Applies one random typo: a transposition, deletion, insertion or substitution. */
+    private static String typo(Random random, String name) {
+        int at = random.nextInt(name.length() - 1);
+        switch (random.nextInt(4)) {
+            case 0:
+                return name.substring(0, at) + name.charAt(at + 1) + name.charAt(at) + name.substring(at + 2);
+            case 1:
+                return name.substring(0, at) + name.substring(at + 1);
+            case 2:
+                return name.substring(0, at) + "x" + name.substring(at);
+            default:
+                return name.substring(0, at) + "q" + name.substring(at + 1);
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.insurance.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typo-tolerant lookup of names, each name standing for one or more IDs.
+ *
+ * Distinct names are kept in a sorted dictionary split into bounded blocks, so adding
+ * or removing a name only shifts one block. A query walks the dictionary in order and
+ * computes the edit distance row by row, one row per character. Neighbouring names
+ * share their prefix rows, and as soon as no extension of a prefix can come within the
+ * allowed distance, every name with that prefix is skipped with a binary search.
+ * Once {@code limit} matches are found, the allowed distance shrinks to what could
+ * still beat the worst of them.
+ *
+ * Distances count insertions, deletions, substitutions and transpositions of adjacent
+ * characters, so "smtih" is one edit away from "smith". Names are compared after
+ * {@link #normalize(String)}. Thread-safe.
+ */
+public class FuzzyNameIndex {
+
+    private static final int MAX_BLOCK_SIZE = 2048;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Block> blocks = new ArrayList<>();
+    /** Name of each ID, needed to move or remove the ID without the caller repeating the name. */
+    private final Map<String, String> nameById = new HashMap<>();
+    private int names;
+
+    /**
+     * A name within the allowed distance of a query.
+     */
+    public static class Match {
+
+        private final String name;
+        private final int distance;
+        private final List<String> ids;
+
+        Match(String name, int distance, List<String> ids) {
+            this.name = name;
+            this.distance = distance;
+            this.ids = ids;
+        }
+
+        /** @return the normalized matching name */
+        public String getName() {
+            return name;
+        }
+
+        /** @return the edit distance between the query and the name */
+        public int getDistance() {
+            return distance;
+        }
+
+        /** @return the IDs indexed under the name */
+        public List<String> getIds() {
+            return ids;
+        }
+    }
+
+    /**
+     * Sorted run of names with the IDs of each; an entry of {@code ids} is either a
+     * single ID string or a String[] for a name shared by several IDs.
+     */
+    private static class Block {
+
+        final List<String> names = new ArrayList<>();
+        final List<Object> ids = new ArrayList<>();
+    }
+
+    /**
+     * Normalizes a name for indexing and lookup: lower case with runs of whitespace
+     * collapsed to a single space.
+     *
+     * @param name the name, may be null
+     * @return the normalized name
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexes an ID under a name, replacing any name the ID had before.
+     *
+     * @param id   the ID
+     * @param name the name, normalized by this method
+     */
+    public void put(String id, String name) {
+        String normalized = normalize(name);
+        lock.writeLock().lock();
+        try {
+            String previous = nameById.get(id);
+            if (normalized.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                removeLocked(id, previous);
+            }
+            addLocked(id, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes many IDs at once. On an empty index the names are sorted once and the
+     * dictionary is built directly, which is much faster than adding them one by one.
+     *
+     * @param namesById the name of each ID, normalized by this method
+     */
+    public void putAll(Map<String, String> namesById) {
+        lock.writeLock().lock();
+        try {
+            if (!nameById.isEmpty()) {
+                namesById.forEach((id, name) -> {
+                    String previous = nameById.get(id);
+                    if (previous != null) {
+                        removeLocked(id, previous);
+                    }
+                    addLocked(id, normalize(name));
+                });
+                return;
+            }
+            String[][] entries = new String[namesById.size()][];
+            int i = 0;
+            for (Map.Entry<String, String> entry : namesById.entrySet()) {
+                entries[i++] = new String[] {normalize(entry.getValue()), entry.getKey()};
+            }
+            Arrays.parallelSort(entries, (a, b) -> a[0].compareTo(b[0]));
+            blocks.clear();
+            Block block = null;
+            for (int from = 0; from < entries.length; ) {
+                String name = entries[from][0];
+                int to = from + 1;
+                while (to < entries.length && entries[to][0].equals(name)) {
+                    to++;
+                }
+                if (block == null || block.names.size() == MAX_BLOCK_SIZE / 2) {
+                    block = new Block();
+                    blocks.add(block);
+                }
+                if (to - from == 1) {
+                    block.ids.add(entries[from][1]);
+                } else {
+                    String[] ids = new String[to - from];
+                    for (int k = from; k < to; k++) {
+                        ids[k - from] = entries[k][1];
+                    }
+                    block.ids.add(ids);
+                }
+                block.names.add(name);
+                for (int k = from; k < to; k++) {
+                    nameById.put(entries[k][1], name);
+                }
+                names++;
+                from = to;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an ID if it is indexed.
+     *
+     * @param id the ID
+     */
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            String previous = nameById.get(id);
+            if (previous != null) {
+                removeLocked(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the number of indexed IDs */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nameById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return the number of distinct indexed names */
+    public int nameCount() {
+        lock.readLock().lock();
+        try {
+            return names;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the names closest to a query.
+     *
+     * @param query       the name to look up, normalized by this method
+     * @param maxDistance the largest edit distance to accept
+     * @param limit       the maximum number of names to return
+     * @return the matches ordered by distance, then by name
+     */
+    public List<Match> search(String query, int maxDistance, int limit) {
+        String target = normalize(query);
+        List<Match> matches = new ArrayList<>();
+        if (limit <= 0 || maxDistance < 0) {
+            return matches;
+        }
+        // Worst match first; among equal distances the later name is the worse one
+        PriorityQueue<Match> best = new PriorityQueue<>((a, b) -> {
+            int byDistance = Integer.compare(b.distance, a.distance);
+            return byDistance != 0 ? byDistance : b.name.compareTo(a.name);
+        });
+        lock.readLock().lock();
+        try {
+            walk(target, maxDistance, limit, best);
+        } finally {
+            lock.readLock().unlock();
+        }
+        while (!best.isEmpty()) {
+            matches.add(best.poll());
+        }
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    /**
+     * Walks the dictionary in order, reusing the distance rows of the prefix shared
+     * with the previous name and skipping every name under a hopeless prefix.
+     */
+    private void walk(String target, int maxDistance, int limit, PriorityQueue<Match> best) {
+        int width = target.length() + 1;
+        int[][] rows = new int[16][];
+        rows[0] = new int[width];
+        for (int j = 0; j < width; j++) {
+            rows[0][j] = j;
+        }
+        // rowMinimum[d] is the smallest value in rows[d]
+        int[] rowMinimum = new int[16];
+        String previous = "";
+        int validRows = 0;
+        int allowed = maxDistance;
+
+        int blockIndex = 0;
+        int position = 0;
+        while (blockIndex < blocks.size()) {
+            Block block = blocks.get(blockIndex);
+            if (position >= block.names.size()) {
+                blockIndex++;
+                position = 0;
+                continue;
+            }
+            String name = block.names.get(position);
+            if (rows.length <= name.length()) {
+                int capacity = Math.max(rows.length * 2, name.length() + 1);
+                rows = Arrays.copyOf(rows, capacity);
+                rowMinimum = Arrays.copyOf(rowMinimum, capacity);
+            }
+
+            int depth = Math.min(validRows, commonPrefixLength(previous, name));
+            int pruneDepth = -1;
+            while (depth < name.length()) {
+                depth++;
+                fillRow(rows, rowMinimum, depth, name, target, width);
+                // Deeper rows derive from this row, or from the row above through a transposition
+                int bound = Math.min(rowMinimum[depth], rowMinimum[depth - 1] + 1);
+                if (bound > allowed) {
+                    pruneDepth = depth;
+                    break;
+                }
+            }
+            previous = name;
+
+            if (pruneDepth >= 0) {
+                validRows = pruneDepth;
+                // Skip every name starting with the hopeless prefix
+                String after = name.substring(0, pruneDepth) + Character.MAX_VALUE;
+                blockIndex = blockFor(after);
+                position = insertionPoint(blocks.get(blockIndex).names, after);
+                continue;
+            }
+
+            validRows = name.length();
+            int distance = rows[name.length()][width - 1];
+            if (distance <= allowed) {
+                best.add(new Match(name, distance, idList(block.ids.get(position))));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+                if (best.size() == limit) {
+                    // Names come in order, so a later name must be strictly closer to replace the worst
+                    allowed = best.peek().distance - 1;
+                    if (allowed < 0) {
+                        return;
+                    }
+                }
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Computes row {@code depth} of the edit distance matrix between the first
+     * {@code depth} characters of {@code name} and {@code target}.
+     */
+    private static void fillRow(int[][] rows, int[] rowMinimum, int depth, String name, String target, int width) {
+        int[] row = rows[depth];
+        if (row == null || row.length < width) {
+            row = new int[width];
+            rows[depth] = row;
+        }
+        int[] above = rows[depth - 1];
+        int[] twoAbove = depth >= 2 ? rows[depth - 2] : null;
+        char c = name.charAt(depth - 1);
+        row[0] = depth;
+        int minimum = depth;
+        for (int j = 1; j < width; j++) {
+            char t = target.charAt(j - 1);
+            int cost = c == t ? 0 : 1;
+            int value = Math.min(Math.min(row[j - 1] + 1, above[j] + 1), above[j - 1] + cost);
+            if (twoAbove != null && j >= 2 && c == target.charAt(j - 2) && name.charAt(depth - 2) == t) {
+                value = Math.min(value, twoAbove[j - 2] + 1);
+            }
+            row[j] = value;
+            minimum = Math.min(minimum, value);
+        }
+        rowMinimum[depth] = minimum;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static List<String> idList(Object ids) {
+        return ids instanceof String[] ? List.of((String[]) ids) : List.of((String) ids);
+    }
+
+    private void addLocked(String id, String name) {
+        if (blocks.isEmpty()) {
+            blocks.add(new Block());
+        }
+        int blockIndex = blockFor(name);
+        Block block = blocks.get(blockIndex);
+        int position = Collections.binarySearch(block.names, name);
+        if (position >= 0) {
+            Object ids = block.ids.get(position);
+            String[] extended;
+            if (ids instanceof String[]) {
+                String[] existing = (String[]) ids;
+                extended = Arrays.copyOf(existing, existing.length + 1);
+            } else {
+                extended = new String[] {(String) ids, null};
+            }
+            extended[extended.length - 1] = id;
+            block.ids.set(position, extended);
+            nameById.put(id, block.names.get(position));
+        } else {
+            position = -position - 1;
+            block.names.add(position, name);
+            block.ids.add(position, id);
+            nameById.put(id, name);
+            names++;
+            if (block.names.size() > MAX_BLOCK_SIZE) {
+                split(blockIndex);
+            }
+        }
+    }
+
+    private void removeLocked(String id, String name) {
+        nameById.remove(id);
+        int blockIndex = blockFor(name);
+        Block block = blocks.get(blockIndex);
+        int position = Collections.binarySearch(block.names, name);
+        if (position < 0) {
+            return;
+        }
+        Object ids = block.ids.get(position);
+        if (ids instanceof String[]) {
+            String[] existing = (String[]) ids;
+            String[] reduced = Arrays.stream(existing).filter(other -> !other.equals(id)).toArray(String[]::new);
+            block.ids.set(position, reduced.length == 1 ? reduced[0] : reduced);
+            return;
+        }
+        block.names.remove(position);
+        block.ids.remove(position);
+        names--;
+        if (block.names.isEmpty() && blocks.size() > 1) {
+            blocks.remove(blockIndex);
+        }
+    }
+
+    private void split(int blockIndex) {
+        Block block = blocks.get(blockIndex);
+        int half = block.names.size() / 2;
+        Block upper = new Block();
+        upper.names.addAll(block.names.subList(half, block.names.size()));
+        upper.ids.addAll(block.ids.subList(half, block.ids.size()));
+        block.names.subList(half, block.names.size()).clear();
+        block.ids.subList(half, block.ids.size()).clear();
+        blocks.add(blockIndex + 1, upper);
+    }
+
+    /** Returns the index of the block whose range covers the given name. */
+    private int blockFor(String name) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            List<String> middleNames = blocks.get(middle).names;
+            if (!middleNames.isEmpty() && middleNames.get(0).compareTo(name) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private static int insertionPoint(List<String> names, String name) {
+        int position = Collections.binarySearch(names, name);
+        return position >= 0 ? position : -position - 1;
+    }
+}
@@ -0,0 +1,594 @@
+package com.insurance.index;
+
+import com.insurance.data.AtomicFileWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Incremental inverted index over short text documents, with positional postings
+ * for phrase queries and BM25 ranking.
+ *
+ * Documents are identified by a caller-chosen key and may carry a payload string that
+ * is returned with each hit. Adding a document under an existing key replaces it.
+ * Documents are numbered in the order they are added, so every posting list is sorted
+ * by document number simply by appending. Removing a document only marks its postings
+ * dead; a posting list is compacted once half of it is dead.
+ *
+ * The index can be saved to a file together with a fingerprint of its contents, so a
+ * caller can tell on startup whether the saved index still matches its data. Saved
+ * files are read through a memory-mapped buffer. Thread-safe.
+ *
+ * File layout (big-endian):
+ * <pre>
+ * header:   magic "INSX" (int), version (short), fingerprint (long), document count (int), term count (int)
+ * document: key (string), payload (string), length in terms (int), fingerprint (long)
+ * term:     term (string), document frequency (int), then per document:
+ *           document number (int), position count (int), positions (int...)
+ * string:   byte length (int, -1 for null) followed by UTF-8 bytes
+ * </pre>
+ */
+public class InvertedIndex {
+
+    private static final int MAGIC = 0x494E5358; // "INSX"
+    private static final short VERSION = 1;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docByKey = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private String[] keys = new String[256];
+    private String[] payloads = new String[256];
+    private PostingList[][] docTerms = new PostingList[256][];
+    private int[] lengths = new int[256];
+    /** Fingerprint of each document, kept because the text itself is not retained. */
+    private long[] fingerprints = new long[256];
+    private int documents;
+    private long totalLength;
+    private long fingerprint;
+
+    /**
+     * A ranked search result.
+     */
+    public static class Hit {
+
+        private final String key;
+        private final String payload;
+        private final double score;
+
+        Hit(String key, String payload, double score) {
+            this.key = key;
+            this.payload = payload;
+            this.score = score;
+        }
+
+        /** @return the key of the matching document */
+        public String getKey() {
+            return key;
+        }
+
+        /** @return the payload stored with the document, or null */
+        public String getPayload() {
+            return payload;
+        }
+
+        /** @return the relevance score; higher is better */
+        public double getScore() {
+            return score;
+        }
+    }
+
+    /**
+     * Adds a document, replacing any document with the same key.
+     *
+     * @param key     the document key
+     * @param text    the text to index, may be null
+     * @param payload an optional string returned with hits, may be null
+     */
+    public void put(String key, String text, String payload) {
+        List<String> terms = Tokenizer.tokenize(text);
+        Map<String, int[]> positions = new LinkedHashMap<>();
+        for (int position = 0; position < terms.size(); position++) {
+            int[] list = positions.get(terms.get(position));
+            if (list == null) {
+                positions.put(terms.get(position), new int[] {position});
+            } else {
+                list = Arrays.copyOf(list, list.length + 1);
+                list[list.length - 1] = position;
+                positions.put(terms.get(position), list);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            int doc = newDocument(key, payload, terms.size(), fingerprintOf(key, text, payload));
+            PostingList[] lists = new PostingList[positions.size()];
+            int i = 0;
+            for (Map.Entry<String, int[]> entry : positions.entrySet()) {
+                PostingList list = postings.computeIfAbsent(entry.getKey(), k -> new PostingList());
+                list.add(doc, entry.getValue());
+                lists[i++] = list;
+            }
+            docTerms[doc] = lists;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a document if it is indexed.
+     *
+     * @param key the document key
+     */
+    public void remove(String key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the number of indexed documents */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the indexed content: the sum of
+     * {@link #fingerprintOf(String, String, String)} over all documents.
+     *
+     * @return the content fingerprint
+     */
+    public long getFingerprint() {
+        lock.readLock().lock();
+        try {
+            return fingerprint;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the fingerprint contribution of one document. Summing it over a data set
+     * gives a value that does not depend on the order documents were added in.
+     *
+     * @param key     the document key
+     * @param text    the document text, may be null
+     * @param payload the document payload, may be null
+     * @return the document fingerprint
+     */
+    public static long fingerprintOf(String key, String text, String payload) {
+        long h = key.hashCode();
+        h = h * 0x9E3779B97F4A7C15L + Objects.hashCode(text);
+        h = h * 0x9E3779B97F4A7C15L + Objects.hashCode(payload);
+        h ^= h >>> 31;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Runs a query and returns the best matches.
+     *
+     * @param query the query, see {@link QueryParser} for the syntax
+     * @param limit the maximum number of hits to return
+     * @return the hits, best first
+     */
+    public List<Hit> search(String query, int limit) {
+        QueryParser.Node node = QueryParser.parse(query);
+        List<Hit> hits = new ArrayList<>();
+        if (node == null || limit <= 0) {
+            return hits;
+        }
+        lock.readLock().lock();
+        try {
+            Scores scores = node.evaluate(this);
+            // Lowest score first; among equal scores the later document is dropped first
+            PriorityQueue<Integer> top = new PriorityQueue<>((a, b) -> {
+                int byScore = Double.compare(scores.score[a], scores.score[b]);
+                return byScore != 0 ? byScore : Integer.compare(b, a);
+            });
+            for (int doc = scores.matched.nextSetBit(0); doc >= 0; doc = scores.matched.nextSetBit(doc + 1)) {
+                top.add(doc);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            while (!top.isEmpty()) {
+                int doc = top.poll();
+                hits.add(new Hit(keys[doc], payloads[doc], scores.score[doc]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        java.util.Collections.reverse(hits);
+        return hits;
+    }
+
+    /**
+     * Saves the index atomically.
+     *
+     * @param file the file to write
+     * @throws IOException if the file could not be written
+     */
+    public void save(Path file) throws IOException {
+        lock.readLock().lock();
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            AtomicFileWriter.writeChannel(file, channel -> {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+                writeTo(out);
+                // Flush without closing; the writer forces and closes the channel
+                out.flush();
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a saved index.
+     *
+     * @param file the file to read
+     * @return the loaded index
+     * @throws IOException if the file is missing, unreadable or corrupt
+     */
+    public static InvertedIndex load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Search index exceeds the 2 GB mapping limit: " + file);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < 22 || in.getInt() != MAGIC) {
+                throw new StreamCorruptedException("Not a search index: " + file);
+            }
+            short version = in.getShort();
+            if (version != VERSION) {
+                throw new StreamCorruptedException("Unsupported search index version " + version);
+            }
+            return readFrom(in);
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new StreamCorruptedException("Truncated search index: " + file);
+        }
+    }
+
+    private static InvertedIndex readFrom(ByteBuffer in) throws IOException {
+        InvertedIndex index = new InvertedIndex();
+        long fingerprint = in.getLong();
+        int documents = in.getInt();
+        int terms = in.getInt();
+        for (int doc = 0; doc < documents; doc++) {
+            String key = readString(in);
+            String payload = readString(in);
+            int length = in.getInt();
+            long docFingerprint = in.getLong();
+            if (key == null) {
+                throw new StreamCorruptedException("Search index document without a key");
+            }
+            index.newDocument(key, payload, length, docFingerprint);
+        }
+        int[] termCounts = new int[documents];
+        List<PostingList> lists = new ArrayList<>(terms);
+        for (int t = 0; t < terms; t++) {
+            String term = readString(in);
+            int frequency = in.getInt();
+            PostingList list = new PostingList(frequency);
+            for (int i = 0; i < frequency; i++) {
+                int doc = in.getInt();
+                int[] positions = new int[in.getInt()];
+                for (int p = 0; p < positions.length; p++) {
+                    positions[p] = in.getInt();
+                }
+                if (doc < 0 || doc >= documents) {
+                    throw new StreamCorruptedException("Search index posting refers to unknown document " + doc);
+                }
+                list.add(doc, positions);
+                termCounts[doc]++;
+            }
+            index.postings.put(term, list);
+            lists.add(list);
+        }
+        for (int doc = 0; doc < documents; doc++) {
+            index.docTerms[doc] = new PostingList[termCounts[doc]];
+        }
+        for (PostingList list : lists) {
+            for (int i = 0; i < list.size; i++) {
+                int doc = list.docs[i];
+                index.docTerms[doc][--termCounts[doc]] = list;
+            }
+        }
+        if (index.fingerprint != fingerprint) {
+            throw new StreamCorruptedException("Search index fingerprint does not match its documents");
+        }
+        return index;
+    }
+
+    /** Writes live documents, renumbered densely, and their live postings. */
+    private void writeTo(DataOutputStream out) throws IOException {
+        int[] renumbered = new int[documents];
+        int live = 0;
+        for (int doc = 0; doc < documents; doc++) {
+            renumbered[doc] = keys[doc] != null ? live++ : -1;
+        }
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(fingerprint);
+        out.writeInt(live);
+        out.writeInt(postings.size());
+        for (int doc = 0; doc < documents; doc++) {
+            if (renumbered[doc] >= 0) {
+                writeString(out, keys[doc]);
+                writeString(out, payloads[doc]);
+                out.writeInt(lengths[doc]);
+                out.writeLong(fingerprints[doc]);
+            }
+        }
+        for (Map.Entry<String, PostingList> term : postings.entrySet()) {
+            PostingList list = term.getValue();
+            writeString(out, term.getKey());
+            out.writeInt(list.liveCount());
+            for (int i = 0; i < list.size; i++) {
+                if (list.positions[i] == null) {
+                    continue;
+                }
+                out.writeInt(renumbered[list.docs[i]]);
+                out.writeInt(list.positions[i].length);
+                for (int position : list.positions[i]) {
+                    out.writeInt(position);
+                }
+            }
+        }
+    }
+
+    private int newDocument(String key, String payload, int length, long docFingerprint) {
+        int doc = documents++;
+        if (doc == keys.length) {
+            int capacity = doc * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            payloads = Arrays.copyOf(payloads, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            fingerprints = Arrays.copyOf(fingerprints, capacity);
+        }
+        keys[doc] = key;
+        payloads[doc] = payload;
+        lengths[doc] = length;
+        fingerprints[doc] = docFingerprint;
+        docByKey.put(key, doc);
+        totalLength += length;
+        fingerprint += docFingerprint;
+        return doc;
+    }
+
+    private void removeLocked(String key) {
+        Integer doc = docByKey.remove(key);
+        if (doc == null) {
+            return;
+        }
+        for (PostingList list : docTerms[doc]) {
+            list.remove(doc);
+        }
+        totalLength -= lengths[doc];
+        fingerprint -= fingerprints[doc];
+        docTerms[doc] = null;
+        keys[doc] = null;
+        payloads[doc] = null;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // ---- query evaluation, used by QueryParser nodes while the read lock is held ----
+
+    /**
+     * Matching documents of a query node with their scores, indexed by document number.
+     */
+    static class Scores {
+
+        final BitSet matched;
+        final double[] score;
+
+        Scores(int documents) {
+            this.matched = new BitSet(documents);
+            this.score = new double[documents];
+        }
+    }
+
+    /** @return an empty result sized for the current documents */
+    Scores emptyScores() {
+        return new Scores(documents);
+    }
+
+    /** @return every live document with a zero score */
+    Scores allDocuments() {
+        Scores all = new Scores(documents);
+        for (int doc = 0; doc < documents; doc++) {
+            if (keys[doc] != null) {
+                all.matched.set(doc);
+            }
+        }
+        return all;
+    }
+
+    /**
+     * Scores the documents containing all terms as consecutive words.
+     * A single term is a phrase of length one.
+     */
+    Scores phraseScores(List<String> terms) {
+        Scores scores = new Scores(documents);
+        List<PostingList> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list == null || list.liveCount() == 0) {
+                return scores;
+            }
+            lists.add(list);
+        }
+        double idf = 0;
+        for (PostingList list : lists) {
+            idf += idf(list.liveCount());
+        }
+        int rarestOffset = 0;
+        for (int i = 1; i < lists.size(); i++) {
+            if (lists.get(i).liveCount() < lists.get(rarestOffset).liveCount()) {
+                rarestOffset = i;
+            }
+        }
+        PostingList rarest = lists.get(rarestOffset);
+        double averageLength = docByKey.isEmpty() ? 1 : Math.max(1.0, (double) totalLength / docByKey.size());
+        for (int i = 0; i < rarest.size; i++) {
+            if (rarest.positions[i] == null) {
+                continue;
+            }
+            int doc = rarest.docs[i];
+            int frequency = lists.size() == 1 ? rarest.positions[i].length : phraseFrequency(lists, rarestOffset, doc, rarest.positions[i]);
+            if (frequency > 0) {
+                double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                scores.matched.set(doc);
+                scores.score[doc] = idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+        return scores;
+    }
+
+    /** Counts the occurrences of a phrase in a document, anchored on the rarest term's positions. */
+    private static int phraseFrequency(List<PostingList> lists, int anchorOffset, int doc, int[] anchors) {
+        int[][] positions = new int[lists.size()][];
+        for (int i = 0; i < lists.size(); i++) {
+            positions[i] = lists.get(i).positionsOf(doc);
+            if (positions[i] == null) {
+                return 0;
+            }
+        }
+        int frequency = 0;
+        for (int anchor : anchors) {
+            int start = anchor - anchorOffset;
+            boolean match = start >= 0;
+            for (int i = 0; i < positions.length && match; i++) {
+                match = Arrays.binarySearch(positions[i], start + i) >= 0;
+            }
+            if (match) {
+                frequency++;
+            }
+        }
+        return frequency;
+    }
+
+    private double idf(int documentFrequency) {
+        int n = docByKey.size();
+        return Math.log(1 + (n - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Postings of one term: document numbers in ascending order with the term's
+     * positions in each document. Removed documents keep their slot with null positions.
+     */
+    private static class PostingList {
+
+        private int[] docs;
+        private int[][] positions;
+        private int size;
+        private int dead;
+
+        PostingList() {
+            this(2);
+        }
+
+        PostingList(int capacity) {
+            docs = new int[Math.max(2, capacity)];
+            positions = new int[docs.length][];
+        }
+
+        void add(int doc, int[] docPositions) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            docs[size] = doc;
+            positions[size++] = docPositions;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0 || positions[i] == null) {
+                return;
+            }
+            positions[i] = null;
+            if (++dead > size / 2) {
+                compact();
+            }
+        }
+
+        int[] positionsOf(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            return i >= 0 ? positions[i] : null;
+        }
+
+        int liveCount() {
+            return size - dead;
+        }
+
+        private void compact() {
+            int live = 0;
+            for (int i = 0; i < size; i++) {
+                if (positions[i] != null) {
+                    docs[live] = docs[i];
+                    positions[live++] = positions[i];
+                }
+            }
+            Arrays.fill(positions, live, size, null);
+            size = live;
+            dead = 0;
+        }
+    }
+}
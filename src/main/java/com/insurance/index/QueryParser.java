@@ -0,0 +1,255 @@
+package com.insurance.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses search queries into a tree of boolean and phrase nodes.
+ *
+ * Syntax:
+ * <ul>
+ *   <li>{@code water damage} - both terms must appear (terms are combined with AND by default)</li>
+ *   <li>{@code "water damage"} - the words must appear next to each other, in this order</li>
+ *   <li>{@code flood OR storm} - either term may appear</li>
+ *   <li>{@code NOT glass} or {@code -glass} - the term must not appear</li>
+ *   <li>{@code (flood OR storm) AND basement} - parentheses group</li>
+ * </ul>
+ * Operators are upper case; lower-case "and", "or" and "not" are searched as words.
+ * A word that the {@link Tokenizer} splits into several terms, such as "12-345-67",
+ * is searched as a phrase.
+ */
+class QueryParser {
+
+    private final List<String> tokens;
+    private int next;
+
+    private QueryParser(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Parses a query.
+     *
+     * @param query the query text
+     * @return the root node, or null for a query without any terms
+     */
+    static Node parse(String query) {
+        QueryParser parser = new QueryParser(lex(query == null ? "" : query));
+        Node root = parser.parseOr();
+        // Unbalanced closing parentheses end a group early; treat what follows as further clauses
+        while (parser.next < parser.tokens.size()) {
+            parser.next++;
+            Node rest = parser.parseOr();
+            root = root == null ? rest : rest == null ? root : new And(List.of(root, rest));
+        }
+        return root;
+    }
+
+    /**
+     * Node of a parsed query. Evaluation returns the matching documents with their scores.
+     */
+    interface Node {
+        InvertedIndex.Scores evaluate(InvertedIndex index);
+    }
+
+    private Node parseOr() {
+        List<Node> clauses = new ArrayList<>();
+        Node first = parseAnd();
+        if (first != null) {
+            clauses.add(first);
+        }
+        while ("OR".equals(peek())) {
+            next++;
+            Node clause = parseAnd();
+            if (clause != null) {
+                clauses.add(clause);
+            }
+        }
+        return clauses.isEmpty() ? null : clauses.size() == 1 ? clauses.get(0) : new Or(clauses);
+    }
+
+    private Node parseAnd() {
+        List<Node> clauses = new ArrayList<>();
+        while (peek() != null && !"OR".equals(peek()) && !")".equals(peek())) {
+            if ("AND".equals(peek())) {
+                next++;
+                continue;
+            }
+            Node clause = parseUnary();
+            if (clause != null) {
+                clauses.add(clause);
+            }
+        }
+        return clauses.isEmpty() ? null : clauses.size() == 1 ? clauses.get(0) : new And(clauses);
+    }
+
+    private Node parseUnary() {
+        String token = tokens.get(next++);
+        if ("NOT".equals(token) || "-".equals(token)) {
+            if (peek() == null || "OR".equals(peek()) || ")".equals(peek())) {
+                return null;
+            }
+            Node negated = parseUnary();
+            return negated != null ? new Not(negated) : null;
+        }
+        if ("(".equals(token)) {
+            Node group = parseOr();
+            if (")".equals(peek())) {
+                next++;
+            }
+            return group;
+        }
+        if (token.startsWith("\"")) {
+            List<String> terms = Tokenizer.tokenize(token.substring(1));
+            return terms.isEmpty() ? null : new Phrase(terms);
+        }
+        List<String> terms = Tokenizer.tokenize(token);
+        return terms.isEmpty() ? null : new Phrase(terms);
+    }
+
+    private String peek() {
+        return next < tokens.size() ? tokens.get(next) : null;
+    }
+
+    /**
+     * Splits a query into words, quoted phrases (kept with their opening quote),
+     * parentheses and a leading "-" negation marker.
+     */
+    private static List<String> lex(String query) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '"') {
+                int end = query.indexOf('"', i + 1);
+                end = end < 0 ? query.length() : end;
+                tokens.add(query.substring(i, end));
+                i = end + 1;
+            } else if (c == '-' && (i == 0 || Character.isWhitespace(query.charAt(i - 1))
+                    || query.charAt(i - 1) == '(')) {
+                tokens.add("-");
+                i++;
+            } else {
+                int start = i;
+                while (i < query.length() && !Character.isWhitespace(query.charAt(i))
+                        && query.charAt(i) != '(' && query.charAt(i) != ')' && query.charAt(i) != '"') {
+                    i++;
+                }
+                tokens.add(query.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Documents containing a phrase; a single term is a phrase of length one.
+     */
+    private static class Phrase implements Node {
+
+        private final List<String> terms;
+
+        Phrase(List<String> terms) {
+            this.terms = terms;
+        }
+
+        @Override
+        public InvertedIndex.Scores evaluate(InvertedIndex index) {
+            return index.phraseScores(terms);
+        }
+    }
+
+    /**
+     * Documents matching every positive clause and no negated clause; scores add up.
+     */
+    private static class And implements Node {
+
+        private final List<Node> clauses;
+
+        And(List<Node> clauses) {
+            this.clauses = clauses;
+        }
+
+        @Override
+        public InvertedIndex.Scores evaluate(InvertedIndex index) {
+            InvertedIndex.Scores result = null;
+            List<Node> negated = new ArrayList<>();
+            for (Node clause : clauses) {
+                if (clause instanceof Not) {
+                    negated.add(((Not) clause).negated);
+                    continue;
+                }
+                InvertedIndex.Scores scores = clause.evaluate(index);
+                if (result == null) {
+                    result = scores;
+                } else {
+                    result.matched.and(scores.matched);
+                    add(result, scores);
+                }
+                if (result.matched.isEmpty()) {
+                    return result;
+                }
+            }
+            if (result == null) {
+                result = index.allDocuments();
+            }
+            for (Node clause : negated) {
+                result.matched.andNot(clause.evaluate(index).matched);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Documents matching any clause; scores add up.
+     */
+    private static class Or implements Node {
+
+        private final List<Node> clauses;
+
+        Or(List<Node> clauses) {
+            this.clauses = clauses;
+        }
+
+        @Override
+        public InvertedIndex.Scores evaluate(InvertedIndex index) {
+            InvertedIndex.Scores result = index.emptyScores();
+            for (Node clause : clauses) {
+                InvertedIndex.Scores scores = clause.evaluate(index);
+                result.matched.or(scores.matched);
+                add(result, scores);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Documents not matching a clause. Inside an AND it only filters the other clauses.
+     */
+    private static class Not implements Node {
+
+        private final Node negated;
+
+        Not(Node negated) {
+            this.negated = negated;
+        }
+
+        @Override
+        public InvertedIndex.Scores evaluate(InvertedIndex index) {
+            InvertedIndex.Scores result = index.allDocuments();
+            result.matched.andNot(negated.evaluate(index).matched);
+            return result;
+        }
+    }
+
+    /** Adds the scores of the documents matched by {@code scores} to {@code result}. */
+    private static void add(InvertedIndex.Scores result, InvertedIndex.Scores scores) {
+        for (int doc = scores.matched.nextSetBit(0); doc >= 0; doc = scores.matched.nextSetBit(doc + 1)) {
+            result.score[doc] += scores.score[doc];
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.insurance.index;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compact radix tree mapping string keys to values, built for prefix completion.
+ *
+ * Keys are matched case-insensitively with runs of whitespace treated as one space,
+ * see {@link #normalize(String)}. Each node's edge label is a range of a normalized key
+ * rather than a copied array, and leaves share the empty child array, so a tree of
+ * short keys costs little more than its nodes. Children are kept sorted, so completions
+ * come out in key order.
+ *
+ * {@link #complete(CharSequence, String[])} writes into a caller-supplied array and does
+ * not allocate, which keeps per-keystroke lookups free of garbage. Thread-safe.
+ *
+ * @param <V> the value type
+ */
+public class RadixTree<V> {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("", 0, 0);
+    private int size;
+
+    /**
+     * A tree node. The edge leading to it is {@code path[start, end)}; a node holding
+     * a key is terminal.
+     */
+    private static final class Node {
+
+        String path;
+        int start;
+        int end;
+        Node[] children = NO_CHILDREN;
+        String key;
+        Object value;
+
+        Node(String path, int start, int end) {
+            this.path = path;
+            this.start = start;
+            this.end = end;
+        }
+
+        char first() {
+            return path.charAt(start);
+        }
+
+        int labelLength() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Normalizes a key: lower case, leading whitespace dropped and each run of
+     * whitespace replaced by a single space. Returns the argument itself when it is
+     * already normalized.
+     *
+     * @param key the key
+     * @return the normalized key
+     */
+    public static String normalize(String key) {
+        int length = key.length();
+        int i = 0;
+        while (i < length && !Character.isWhitespace(key.charAt(i)) && Character.toLowerCase(key.charAt(i)) == key.charAt(i)) {
+            i++;
+        }
+        if (i == length) {
+            return key;
+        }
+        StringBuilder normalized = new StringBuilder(length).append(key, 0, i);
+        for (; i < length; i++) {
+            char c = key.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toLowerCase(c));
+            } else if (normalized.length() > 0 && normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Adds or replaces a key.
+     *
+     * @param key   the key; completions return this string as given
+     * @param value the value
+     * @return the previous value for the key, or null
+     */
+    public V put(String key, V value) {
+        String path = normalize(key);
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            int depth = 0;
+            while (true) {
+                if (depth == path.length()) {
+                    return setTerminal(node, key, value);
+                }
+                int index = childIndex(node, path.charAt(depth));
+                if (index < 0) {
+                    Node leaf = new Node(path, depth, path.length());
+                    insertChild(node, -index - 1, leaf);
+                    return setTerminal(leaf, key, value);
+                }
+                Node child = node.children[index];
+                int matched = matchLabel(child, path, depth);
+                if (matched < child.labelLength()) {
+                    // Split the child's edge where the new key diverges
+                    Node upper = new Node(child.path, child.start, child.start + matched);
+                    child.start += matched;
+                    upper.children = new Node[] {child};
+                    node.children[index] = upper;
+                    child = upper;
+                }
+                node = child;
+                depth += matched;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the value for a key.
+     *
+     * @param key the key
+     * @return the value, or null if the key is absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        String path = normalize(key);
+        lock.readLock().lock();
+        try {
+            Node node = find(path);
+            return node != null && node.key != null ? (V) node.value : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key the key
+     * @return the removed value, or null if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(String key) {
+        String path = normalize(key);
+        lock.writeLock().lock();
+        try {
+            Node parent = null;
+            Node node = root;
+            int depth = 0;
+            while (depth < path.length()) {
+                int index = childIndex(node, path.charAt(depth));
+                if (index < 0) {
+                    return null;
+                }
+                Node child = node.children[index];
+                if (matchLabel(child, path, depth) < child.labelLength()) {
+                    return null;
+                }
+                parent = node;
+                node = child;
+                depth += child.labelLength();
+            }
+            if (node.key == null) {
+                return null;
+            }
+            V previous = (V) node.value;
+            node.key = null;
+            node.value = null;
+            size--;
+            if (parent != null) {
+                if (node.children.length == 0) {
+                    removeChild(parent, childIndex(parent, node.first()));
+                    if (parent != root && parent.key == null && parent.children.length == 1) {
+                        mergeWithChild(parent);
+                    }
+                } else if (node.children.length == 1) {
+                    mergeWithChild(node);
+                }
+            }
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return the number of keys */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Collects the keys starting with a prefix, in key order, without allocating.
+     * The prefix is compared the way keys are normalized; a trailing space in the
+     * prefix only matches keys that continue with a space.
+     *
+     * @param prefix      the typed prefix
+     * @param completions receives the keys; at most {@code completions.length} are written
+     * @return the number of keys written
+     */
+    public int complete(CharSequence prefix, String[] completions) {
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int labelPosition = 0;
+            int length = prefix.length();
+            int i = 0;
+            while (i < length && Character.isWhitespace(prefix.charAt(i))) {
+                i++;
+            }
+            while (i < length) {
+                char c = prefix.charAt(i++);
+                if (Character.isWhitespace(c)) {
+                    while (i < length && Character.isWhitespace(prefix.charAt(i))) {
+                        i++;
+                    }
+                    c = ' ';
+                } else {
+                    c = Character.toLowerCase(c);
+                }
+                if (labelPosition == node.labelLength()) {
+                    int index = childIndex(node, c);
+                    if (index < 0) {
+                        return 0;
+                    }
+                    node = node.children[index];
+                    labelPosition = 0;
+                }
+                if (node.path.charAt(node.start + labelPosition) != c) {
+                    return 0;
+                }
+                labelPosition++;
+            }
+            return collect(node, completions, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Writes the keys of a subtree in order, starting at {@code count}; returns the new count. */
+    private static int collect(Node node, String[] completions, int count) {
+        if (count == completions.length) {
+            return count;
+        }
+        if (node.key != null) {
+            completions[count++] = node.key;
+        }
+        for (int i = 0; i < node.children.length && count < completions.length; i++) {
+            count = collect(node.children[i], completions, count);
+        }
+        return count;
+    }
+
+    private Node find(String path) {
+        Node node = root;
+        int depth = 0;
+        while (depth < path.length()) {
+            int index = childIndex(node, path.charAt(depth));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            if (matchLabel(node, path, depth) < node.labelLength()) {
+                return null;
+            }
+            depth += node.labelLength();
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V setTerminal(Node node, String key, V value) {
+        V previous = (V) node.value;
+        if (node.key == null) {
+            size++;
+        }
+        node.key = key;
+        node.value = value;
+        return previous;
+    }
+
+    /** Returns how many characters of the node's label match {@code path} from {@code depth}. */
+    private static int matchLabel(Node node, String path, int depth) {
+        int length = Math.min(node.labelLength(), path.length() - depth);
+        int i = 0;
+        while (i < length && node.path.charAt(node.start + i) == path.charAt(depth + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Binary search for the child whose label starts with {@code c}. */
+    private static int childIndex(Node node, char c) {
+        Node[] children = node.children;
+        int low = 0;
+        int high = children.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char first = children[middle].first();
+            if (first < c) {
+                low = middle + 1;
+            } else if (first > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static void insertChild(Node node, int index, Node child) {
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        children[index] = child;
+        System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+        node.children = children;
+    }
+
+    private static void removeChild(Node node, int index) {
+        if (node.children.length == 1) {
+            node.children = NO_CHILDREN;
+            return;
+        }
+        Node[] children = new Node[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.children, index + 1, children, index, children.length - index);
+        node.children = children;
+    }
+
+    /** Absorbs the only child of a non-terminal node, lengthening the node's edge. */
+    private static void mergeWithChild(Node node) {
+        Node child = node.children[0];
+        // The child's path extends the node's label, so its range covers both edges
+        node.path = child.path;
+        node.start = child.start - node.labelLength();
+        node.end = child.end;
+        node.children = child.children;
+        node.key = child.key;
+        node.value = child.value;
+    }
+}
@@ -0,0 +1,46 @@
+package com.insurance.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits free text into lower-cased terms.
+ * A term is a run of letters and digits; everything else separates terms, so a plate
+ * number like "12-345-67" becomes the terms "12", "345" and "67" and is found as a phrase.
+ */
+public class Tokenizer {
+
+    /** Terms longer than this are dropped; they are almost never searched for. */
+    static final int MAX_TERM_LENGTH = 64;
+
+    /** Private constructor to prevent instantiation. */
+    private Tokenizer() {
+    }
+
+    /**
+     * Tokenizes text. The index of a term in the returned list is its position.
+     *
+     * @param text the text to tokenize, may be null
+     * @return the terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean termChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (termChar && start < 0) {
+                start = i;
+            } else if (!termChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -1,8 +1,8 @@
 package com.insurance.logger;
 
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * Singleton logger that records insurance purchase transactions
@@ -10,15 +10,32 @@ import java.io.PrintWriter;
  *
  * Log format: Name,FamilyName,Date,Remarks,InsuranceType
  *
+ * By default every call appends to the file synchronously. After {@link #startAsync}
+ * calls only publish their line to an in-memory ring buffer and a background thread
+ * writes the lines in batches; {@link #close()} writes what is still buffered.
+ *
+ * log.txt is rolled over by size and by day into gzipped segments in the logs directory,
+ * listed with the time range they cover in {@link #getManifest()}; see {@link #configureRotation}.
+ * Every file is indexed by day and customer as it is written, for {@link #getAuditLog()}.
+ *
  * Design Pattern: Singleton
  */
 public class AppLogger {
 
     private static AppLogger instance;
     private static final String LOG_FILE = "log.txt";
+    private static final String LOG_DIRECTORY = "logs";
+    private static final long DEFAULT_MAX_FILE_BYTES = 64L * 1024 * 1024;
+
+    private final RollingLogFile file;
+    private final AuditLog auditLog;
+    // Null while logging synchronously
+    private volatile AsyncLogWriter asyncWriter;
 
     /** Private constructor to prevent external instantiation. */
     private AppLogger() {
+        file = new RollingLogFile(Paths.get(LOG_FILE), Paths.get(LOG_DIRECTORY), DEFAULT_MAX_FILE_BYTES, true, 0, 0);
+        auditLog = new AuditLog(file);
     }
 
     /**
@@ -44,10 +61,104 @@ public class AppLogger {
      */
     public void log(String name, String familyName, String date, String remarks, String insuranceType) {
         String line = name + "," + familyName + "," + date + "," + remarks + "," + insuranceType;
-        try (PrintWriter writer = new PrintWriter(new FileWriter(LOG_FILE, true))) {
-            writer.println(line);
+        AsyncLogWriter async = asyncWriter;
+        if (async != null && async.publish(line)) {
+            return;
+        }
+        try {
+            file.append(line + System.lineSeparator());
+        } catch (IOException e) {
+            System.err.println("Failed to write to log file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Logs many transactions with a single write to log.txt, for bulk operations.
+     * Each record holds the fields of {@link #log(String, String, String, String, String)} in order.
+     *
+     * @param records the transactions to log
+     */
+    public void logAll(List<String[]> records) {
+        AsyncLogWriter async = asyncWriter;
+        if (async != null) {
+            int published = 0;
+            while (published < records.size() && async.publish(String.join(",", records.get(published)))) {
+                published++;
+            }
+            if (published == records.size()) {
+                return;
+            }
+            records = records.subList(published, records.size());
+        }
+        StringBuilder lines = new StringBuilder(records.size() * 64);
+        for (String[] record : records) {
+            lines.append(String.join(",", record)).append(System.lineSeparator());
+        }
+        try {
+            file.append(lines);
         } catch (IOException e) {
             System.err.println("Failed to write to log file: " + e.getMessage());
         }
     }
+
+    /**
+     * Switches to asynchronous logging. Does nothing if it is already active.
+     *
+     * @param capacity            how many lines can wait in memory; rounded up to a power of two
+     * @param flushIntervalMillis the longest a line waits before it is written
+     * @param backpressure        what a caller does when the buffer is full: "block" to wait
+     *                            for room, or "drop" to discard the line
+     */
+    public synchronized void startAsync(int capacity, long flushIntervalMillis, String backpressure) {
+        if (asyncWriter != null) {
+            return;
+        }
+        AsyncLogWriter.Backpressure policy = "drop".equalsIgnoreCase(backpressure)
+                ? AsyncLogWriter.Backpressure.DROP : AsyncLogWriter.Backpressure.BLOCK;
+        asyncWriter = new AsyncLogWriter(file, capacity, flushIntervalMillis, policy);
+    }
+
+    /**
+     * Sets when log.txt is rolled over and how long rolled-over segments are kept.
+     *
+     * @param maxFileBytes  the size after which log.txt is rolled over
+     * @param rotateDaily   whether log.txt is also rolled over when the day changes
+     * @param retentionDays segments that ended more than this many days ago are deleted; 0 keeps all
+     * @param maxSegments   only the newest this many segments are kept; 0 keeps all
+     */
+    public void configureRotation(long maxFileBytes, boolean rotateDaily, int retentionDays, int maxSegments) {
+        file.setPolicy(maxFileBytes, rotateDaily, retentionDays, maxSegments);
+    }
+
+    /**
+     * Returns the manifest of rolled-over log segments, for reading older transactions.
+     *
+     * @return the manifest
+     */
+    public LogManifest getManifest() {
+        return file.getManifest();
+    }
+
+    /**
+     * Returns the query facility over log.txt and its segments, for audit questions such as
+     * every transaction of a customer or every deletion in a month.
+     *
+     * @return the audit log
+     */
+    public AuditLog getAuditLog() {
+        return auditLog;
+    }
+
+    /**
+     * Writes every buffered line, returns to synchronous logging and closes log.txt
+     * once pending segment compression has finished. Logging again reopens the file.
+     */
+    public synchronized void close() {
+        AsyncLogWriter writer = asyncWriter;
+        if (writer != null) {
+            writer.close();
+            asyncWriter = null;
+        }
+        file.close();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.insurance.logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log lines in the background.
+ *
+ * Callers publish lines into a {@link LogRingBuffer}; a single writer thread wakes up
+ * every flush interval, or earlier when the buffer fills up, and appends everything
+ * published so far to the {@link RollingLogFile} with one write per batch.
+ * {@link #close()} stops accepting lines and returns once every accepted line is written.
+ */
+class AsyncLogWriter implements Closeable {
+
+    /**
+     * What a caller does when the buffer is full.
+     */
+    enum Backpressure {
+        /** Wait until the writer frees room; no line is lost. */
+        BLOCK,
+        /** Discard the line and count it; callers never wait. */
+        DROP
+    }
+
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final LogRingBuffer buffer;
+    private final RollingLogFile file;
+    private final long flushIntervalNanos;
+    private final Backpressure backpressure;
+    // Publishing when a multiple of this many lines is reached wakes the writer early
+    private final int wakeupMask;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger publishing = new AtomicInteger();
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    /**
+     * Starts the writer thread.
+     *
+     * @param file                the log file
+     * @param capacity            how many lines the buffer holds
+     * @param flushIntervalMillis the longest a published line waits before it is written
+     * @param backpressure        what callers do when the buffer is full
+     */
+    AsyncLogWriter(RollingLogFile file, int capacity, long flushIntervalMillis, Backpressure backpressure) {
+        this.buffer = new LogRingBuffer(capacity);
+        this.file = file;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMillis));
+        this.backpressure = backpressure;
+        this.wakeupMask = Math.max(1, buffer.capacity() / 4) - 1;
+        this.writerThread = new Thread(this::run, "app-logger");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Publishes a line without waiting for it to be written.
+     *
+     * @param line the line, without a line separator
+     * @return false if the writer is closed and the caller must write the line itself
+     */
+    boolean publish(String line) {
+        publishing.incrementAndGet();
+        try {
+            if (closed) {
+                return false;
+            }
+            long position = buffer.offer(line);
+            while (position < 0) {
+                if (backpressure == Backpressure.DROP) {
+                    dropped.incrementAndGet();
+                    return true;
+                }
+                LockSupport.unpark(writerThread);
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+                position = buffer.offer(line);
+            }
+            if ((position & wakeupMask) == wakeupMask) {
+                LockSupport.unpark(writerThread);
+            }
+            return true;
+        } finally {
+            publishing.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops accepting lines and writes every accepted line.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Writer loop: drains the buffer in batches until closed and empty. */
+    private void run() {
+        StringBuilder batch = new StringBuilder(buffer.capacity() * 64);
+        while (true) {
+            boolean stopping = closed;
+            int drained = buffer.drainTo(batch, buffer.capacity());
+            if (drained > 0) {
+                write(batch);
+                batch.setLength(0);
+            }
+            long droppedLines = dropped.getAndSet(0);
+            if (droppedLines > 0) {
+                System.err.println("Log buffer full, dropped " + droppedLines + " log lines.");
+            }
+            // Lines of callers that saw the writer open before it closed are still drained
+            if (stopping && publishing.get() == 0 && buffer.isEmpty()) {
+                break;
+            }
+            if (drained < buffer.capacity() && !stopping) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            } else if (drained == 0) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /** Appends a batch of lines with a single write. */
+    private void write(StringBuilder batch) {
+        try {
+            file.append(batch);
+        } catch (IOException e) {
+            System.err.println("Failed to write to log file: " + e.getMessage());
+        }
+    }
+}
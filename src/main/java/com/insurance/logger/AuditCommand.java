@@ -0,0 +1,91 @@
+package com.insurance.logger;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command-line tool that answers audit questions from the transaction log.
+ *
+ * Usage:
+ * <ul>
+ *   <li>{@code AuditCommand customer <firstName> <lastName> [from] [to]}: every transaction of a customer</li>
+ *   <li>{@code AuditCommand <all|creations|deletions|imports> <from> <to>}: the transactions logged
+ *       between two days, for example every deletion last March</li>
+ * </ul>
+ * Days are ISO dates (yyyy-MM-dd) and inclusive; "-" leaves a bound open.
+ */
+public class AuditCommand {
+
+    /** Private constructor to prevent instantiation. */
+    private AuditCommand() {
+    }
+
+    /**
+     * Entry point of the audit tool.
+     *
+     * @param args the query
+     * @throws IOException if the log could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        boolean customer = args.length >= 3 && args.length <= 5 && "customer".equalsIgnoreCase(args[0]);
+        if (!customer && args.length != 3) {
+            usage();
+        }
+        AuditLog auditLog = AppLogger.getInstance().getAuditLog();
+        try {
+            long start = System.nanoTime();
+            List<AuditRecord> records;
+            if (customer) {
+                records = auditLog.findByCustomer(args[1], args[2],
+                        args.length > 3 ? parseDay(args[3]) : null, args.length > 4 ? parseDay(args[4]) : null);
+            } else {
+                records = auditLog.findByDay(parseDay(args[1]), parseDay(args[2]), parseAction(args[0]));
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            for (AuditRecord record : records) {
+                System.out.println(record);
+            }
+            System.out.printf("%,d records in %,d ms%n", records.size(), elapsedMillis);
+        } finally {
+            AppLogger.getInstance().close();
+        }
+    }
+
+    private static LocalDate parseDay(String argument) {
+        if ("-".equals(argument)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(argument);
+        } catch (DateTimeParseException e) {
+            System.err.println("Invalid day: " + argument);
+            usage();
+            return null;
+        }
+    }
+
+    private static AuditRecord.Action parseAction(String argument) {
+        switch (argument.toLowerCase(Locale.ROOT)) {
+            case "all":
+                return null;
+            case "creations":
+                return AuditRecord.Action.CREATION;
+            case "deletions":
+                return AuditRecord.Action.DELETION;
+            case "imports":
+                return AuditRecord.Action.IMPORT;
+            default:
+                usage();
+                return null;
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: AuditCommand customer <firstName> <lastName> [from] [to]");
+        System.err.println("       AuditCommand <all|creations|deletions|imports> <from> <to>");
+        System.exit(1);
+    }
+}
@@ -0,0 +1,729 @@
+package com.insurance.logger;
+
+import com.insurance.data.AtomicFileWriter;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * The audit index of the transaction log, built as lines are appended.
+ *
+ * Every log file has two index files in the log directory, named after the file:
+ * <ul>
+ *   <li>a sparse time index (.tidx) of (time, byte offset) checkpoints, taken at the first
+ *       append of each day and then every {@value #CHECKPOINT_INTERVAL_BYTES} bytes, so every
+ *       line between two checkpoints was logged on the day of the first one;</li>
+ *   <li>a customer posting file of (customer hash, byte offset) records, one per line.
+ *       For the active file it is append-only (.postings); when a segment is rotated out
+ *       it is sorted by hash (.pidx) so a customer's lines are found by binary search.</li>
+ * </ul>
+ * A compressed segment also has a block table (.bidx) of (offset, compressed offset) pairs,
+ * one per gzip member, so a line can be read by decompressing only the member holding it.
+ * The index of the active file is kept in memory and written in batches; lines that
+ * did not reach the index files before a crash are indexed again on the next start.
+ * Instances are guarded by the owning {@link RollingLogFile}.
+ */
+class AuditIndex {
+
+    /** Base name of the index files of the active log file. */
+    static final String ACTIVE = "active";
+    static final String TIME_SUFFIX = ".tidx";
+    static final String POSTINGS_SUFFIX = ".postings";
+    static final String SORTED_POSTINGS_SUFFIX = ".pidx";
+    static final String BLOCKS_SUFFIX = ".bidx";
+
+    private static final int TIME_RECORD_BYTES = 16;
+    private static final int POSTING_RECORD_BYTES = 12;
+    private static final long CHECKPOINT_INTERVAL_BYTES = 256 * 1024;
+    private static final int FLUSH_POSTINGS = 8192;
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final Path directory;
+    private boolean loaded;
+    // The bounds of the day of the last checkpoint, in epoch milliseconds
+    private long dayStart;
+    private long dayEnd;
+    private long[] checkpointTimes = new long[16];
+    private long[] checkpointOffsets = new long[16];
+    private int checkpoints;
+    private int[] hashes = new int[1024];
+    private long[] offsets = new long[1024];
+    private int postings;
+    private int flushedPostings;
+
+    /**
+     * Creates the index of the active log file.
+     *
+     * @param directory the log directory holding the index files
+     */
+    AuditIndex(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Visits the lines of a log file.
+     */
+    @FunctionalInterface
+    interface LineVisitor {
+        /**
+         * Visits one line.
+         *
+         * @param offset the byte offset of the line in the file
+         * @param buffer the buffer holding the line
+         * @param from   the index of the first byte of the line
+         * @param to     the index after the last byte, excluding the line separator
+         * @return false to stop reading
+         */
+        boolean visit(long offset, byte[] buffer, int from, int to);
+    }
+
+    /**
+     * Loads the index of the active file and indexes the lines it is missing.
+     * Does nothing if the index is already loaded.
+     *
+     * @param activeFile  the active log file
+     * @param activeBytes the size of the active file
+     * @param activeSince when the active file was started
+     */
+    void open(Path activeFile, long activeBytes, Instant activeSince) {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        try {
+            Files.createDirectories(directory);
+            load();
+            if (postings > 0 && offsets[postings - 1] >= activeBytes) {
+                // The index belongs to a log file that is gone
+                reset();
+            }
+            if (checkpoints == 0) {
+                addCheckpoint(activeSince.toEpochMilli(), 0);
+            }
+            catchUp(activeFile, activeBytes);
+        } catch (IOException e) {
+            System.err.println("Failed to load audit index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Splits text into lines and hashes their customers, before the text is appended,
+     * so that this work is done outside the lock of the log file.
+     *
+     * @param text complete lines, each ending with a line separator
+     * @return the lines
+     */
+    static Lines lines(CharSequence text) {
+        Lines lines = new Lines();
+        int offset = 0;
+        int lineOffset = 0;
+        int lineStart = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                lines.add(lineHash(text, lineStart, i), lineOffset);
+                lineStart = i + 1;
+                lineOffset = offset + 1;
+            }
+            offset += c < 0x80 ? 1 : c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+        }
+        return lines;
+    }
+
+    /**
+     * Indexes appended lines.
+     *
+     * @param lines       the lines, see {@link #lines(CharSequence)}
+     * @param startOffset the byte offset the lines were written at
+     * @param now         when the lines were written, in epoch milliseconds
+     */
+    void add(Lines lines, long startOffset, long now) {
+        if (checkpoints == 0 || now < dayStart || now >= dayEnd
+                || startOffset - checkpointOffsets[checkpoints - 1] >= CHECKPOINT_INTERVAL_BYTES) {
+            addCheckpoint(now, startOffset);
+        }
+        for (int i = 0; i < lines.count; i++) {
+            appendPosting(lines.hashes[i], startOffset + lines.offsets[i]);
+        }
+        if (postings - flushedPostings >= FLUSH_POSTINGS) {
+            flush();
+        }
+    }
+
+    /** Writes the postings not yet in the index file. */
+    void flush() {
+        if (flushedPostings == postings) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((postings - flushedPostings) * POSTING_RECORD_BYTES);
+        for (int i = flushedPostings; i < postings; i++) {
+            buffer.putInt(hashes[i]).putLong(offsets[i]);
+        }
+        try {
+            appendTo(file(ACTIVE, POSTINGS_SUFFIX), buffer.flip());
+            flushedPostings = postings;
+        } catch (IOException e) {
+            System.err.println("Failed to write audit index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands the index files of the active file over to the segment it was rotated into
+     * and starts an empty index for the next active file.
+     *
+     * @param segmentFileName the uncompressed file name of the segment
+     */
+    void rotate(String segmentFileName) {
+        flush();
+        try {
+            move(ACTIVE + TIME_SUFFIX, segmentFileName + TIME_SUFFIX);
+            move(ACTIVE + POSTINGS_SUFFIX, segmentFileName + POSTINGS_SUFFIX);
+        } catch (IOException e) {
+            System.err.println("Failed to move audit index of " + segmentFileName + ": " + e.getMessage());
+        }
+        checkpoints = 0;
+        postings = 0;
+        flushedPostings = 0;
+        loaded = false;
+    }
+
+    /** @return the checkpoints of the active file */
+    Checkpoints getCheckpoints() {
+        return new Checkpoints(Arrays.copyOf(checkpointTimes, checkpoints), Arrays.copyOf(checkpointOffsets, checkpoints));
+    }
+
+    /**
+     * Returns the offsets of the active file's lines whose customer has the given hash.
+     *
+     * @param hash the customer hash
+     * @return the offsets in ascending order
+     */
+    long[] getOffsets(int hash) {
+        long[] result = new long[16];
+        int count = 0;
+        for (int i = 0; i < postings; i++) {
+            if (hashes[i] == hash) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, count * 2);
+                }
+                result[count++] = offsets[i];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Reads the checkpoints of a rotated segment.
+     *
+     * @param directory the log directory
+     * @param baseName  the uncompressed file name of the segment
+     * @return the checkpoints, or null if the segment has no time index
+     * @throws IOException if the index cannot be read
+     */
+    static Checkpoints readCheckpoints(Path directory, String baseName) throws IOException {
+        Path file = directory.resolve(baseName + TIME_SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int count = buffer.remaining() / TIME_RECORD_BYTES;
+        long[] times = new long[count];
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = buffer.getLong();
+            offsets[i] = buffer.getLong();
+        }
+        return new Checkpoints(times, offsets);
+    }
+
+    /**
+     * Returns the offsets of a rotated segment's lines whose customer has the given hash,
+     * by binary search over the memory-mapped sorted posting file, or by scanning the
+     * posting file if it has not been sorted yet.
+     *
+     * @param directory the log directory
+     * @param baseName  the uncompressed file name of the segment
+     * @param hash      the customer hash
+     * @return the offsets in ascending order, or null if the segment has no posting file
+     * @throws IOException if the posting file cannot be read
+     */
+    static long[] readOffsets(Path directory, String baseName, int hash) throws IOException {
+        Path sorted = directory.resolve(baseName + SORTED_POSTINGS_SUFFIX);
+        Path unsorted = directory.resolve(baseName + POSTINGS_SUFFIX);
+        boolean isSorted = Files.exists(sorted);
+        if (!isSorted && !Files.exists(unsorted)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(isSorted ? sorted : unsorted, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = (int) (channel.size() / POSTING_RECORD_BYTES);
+            int first = 0;
+            if (isSorted) {
+                int high = count;
+                while (first < high) {
+                    int middle = (first + high) >>> 1;
+                    if (map.getInt(middle * POSTING_RECORD_BYTES) < hash) {
+                        first = middle + 1;
+                    } else {
+                        high = middle;
+                    }
+                }
+            }
+            long[] result = new long[16];
+            int found = 0;
+            for (int i = first; i < count; i++) {
+                int recordHash = map.getInt(i * POSTING_RECORD_BYTES);
+                if (recordHash == hash) {
+                    if (found == result.length) {
+                        result = Arrays.copyOf(result, found * 2);
+                    }
+                    result[found++] = map.getLong(i * POSTING_RECORD_BYTES + 4);
+                } else if (isSorted) {
+                    break;
+                }
+            }
+            return Arrays.copyOf(result, found);
+        }
+    }
+
+    /**
+     * Sorts the posting file of a rotated segment by customer hash, keeping each
+     * customer's lines in file order. Does nothing if there is nothing to sort.
+     *
+     * @param directory the log directory
+     * @param baseName  the uncompressed file name of the segment
+     * @throws IOException if the posting file cannot be read or written
+     */
+    static void sortPostings(Path directory, String baseName) throws IOException {
+        Path unsorted = directory.resolve(baseName + POSTINGS_SUFFIX);
+        if (!Files.exists(unsorted)) {
+            return;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(unsorted));
+        int count = in.remaining() / POSTING_RECORD_BYTES;
+        long[] offsets = new long[count];
+        // The hash in the high half, the record number in the low half: sorting the keys
+        // orders by hash and keeps file order within a hash
+        long[] keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = ((long) in.getInt() << 32) | i;
+            offsets[i] = in.getLong();
+        }
+        Arrays.sort(keys);
+        ByteBuffer out = ByteBuffer.allocate(count * POSTING_RECORD_BYTES);
+        for (long key : keys) {
+            out.putInt((int) (key >> 32)).putLong(offsets[(int) key]);
+        }
+        AtomicFileWriter.writeChannel(directory.resolve(baseName + SORTED_POSTINGS_SUFFIX), channel -> {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        });
+        Files.delete(unsorted);
+    }
+
+    /**
+     * Writes the block table of a compressed segment.
+     *
+     * @param directory         the log directory
+     * @param baseName          the uncompressed file name of the segment
+     * @param offsets           the uncompressed offset each gzip member starts at
+     * @param compressedOffsets the offset of each gzip member in the compressed file
+     * @throws IOException if the table cannot be written
+     */
+    static void writeBlocks(Path directory, String baseName, long[] offsets, long[] compressedOffsets)
+            throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(offsets.length * TIME_RECORD_BYTES);
+        for (int i = 0; i < offsets.length; i++) {
+            out.putLong(offsets[i]).putLong(compressedOffsets[i]);
+        }
+        AtomicFileWriter.writeChannel(directory.resolve(baseName + BLOCKS_SUFFIX), channel -> {
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        });
+    }
+
+    /**
+     * Reads the block table of a compressed segment.
+     *
+     * @param directory the log directory
+     * @param baseName  the uncompressed file name of the segment
+     * @return the table, or null if the segment was compressed as a single gzip member
+     * @throws IOException if the table cannot be read
+     */
+    static Blocks readBlocks(Path directory, String baseName) throws IOException {
+        Path file = directory.resolve(baseName + BLOCKS_SUFFIX);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int count = buffer.remaining() / TIME_RECORD_BYTES;
+        long[] offsets = new long[count];
+        long[] compressedOffsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = buffer.getLong();
+            compressedOffsets[i] = buffer.getLong();
+        }
+        return count > 0 ? new Blocks(offsets, compressedOffsets) : null;
+    }
+
+    /**
+     * Deletes the index files of a segment.
+     *
+     * @param directory the log directory
+     * @param baseName  the uncompressed file name of the segment
+     * @throws IOException if a file cannot be deleted
+     */
+    static void delete(Path directory, String baseName) throws IOException {
+        Files.deleteIfExists(directory.resolve(baseName + TIME_SUFFIX));
+        Files.deleteIfExists(directory.resolve(baseName + POSTINGS_SUFFIX));
+        Files.deleteIfExists(directory.resolve(baseName + SORTED_POSTINGS_SUFFIX));
+        Files.deleteIfExists(directory.resolve(baseName + BLOCKS_SUFFIX));
+    }
+
+    /**
+     * Returns the hash a customer's lines are indexed under: first and last name,
+     * trimmed and compared case-insensitively.
+     *
+     * @param firstName the first name
+     * @param lastName  the last name
+     * @return the hash
+     */
+    static int customerHash(String firstName, String lastName) {
+        int hash = hashField(firstName, 0, firstName.length(), FNV_OFFSET);
+        return hashField(lastName, 0, lastName.length(), (hash ^ ' ') * FNV_PRIME);
+    }
+
+    /**
+     * Reads lines from a stream positioned at a line start until a visitor stops or the
+     * end offset is reached.
+     *
+     * @param in      the stream
+     * @param offset  the file offset the stream is positioned at
+     * @param end     the offset to stop at
+     * @param visitor the visitor
+     * @throws IOException if the stream cannot be read
+     */
+    static void readLines(InputStream in, long offset, long end, LineVisitor visitor) throws IOException {
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        int filled = 0;
+        int lineStart = 0;
+        int scanned = 0;
+        while (offset < end) {
+            if (scanned == filled) {
+                if (lineStart > 0) {
+                    System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                    filled -= lineStart;
+                    scanned -= lineStart;
+                    lineStart = 0;
+                } else if (filled == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                int read = in.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    return;
+                }
+                filled += read;
+            }
+            if (buffer[scanned++] == '\n') {
+                int to = scanned - 1;
+                if (to > lineStart && buffer[to - 1] == '\r') {
+                    to--;
+                }
+                if (!visitor.visit(offset, buffer, lineStart, to)) {
+                    return;
+                }
+                offset += scanned - lineStart;
+                lineStart = scanned;
+            }
+        }
+    }
+
+    /** Reads the index files of the active file into memory. */
+    private void load() throws IOException {
+        checkpoints = 0;
+        postings = 0;
+        Path timeFile = file(ACTIVE, TIME_SUFFIX);
+        if (Files.exists(timeFile)) {
+            Checkpoints stored = readCheckpoints(directory, ACTIVE);
+            for (int i = 0; i < stored.times.length; i++) {
+                appendCheckpoint(stored.times[i], stored.offsets[i]);
+            }
+        }
+        Path postingFile = file(ACTIVE, POSTINGS_SUFFIX);
+        if (Files.exists(postingFile)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(postingFile));
+            int count = buffer.remaining() / POSTING_RECORD_BYTES;
+            for (int i = 0; i < count; i++) {
+                appendPosting(buffer.getInt(), buffer.getLong());
+            }
+            if (buffer.hasRemaining()) {
+                // Drop a record cut short by a crash
+                try (FileChannel channel = FileChannel.open(postingFile, StandardOpenOption.WRITE)) {
+                    channel.truncate((long) count * POSTING_RECORD_BYTES);
+                }
+            }
+        }
+        flushedPostings = postings;
+    }
+
+    /** Forgets the active index and deletes its files. */
+    private void reset() throws IOException {
+        checkpoints = 0;
+        postings = 0;
+        flushedPostings = 0;
+        delete(directory, ACTIVE);
+    }
+
+    /** Indexes the lines of the active file after the last indexed one. */
+    private void catchUp(Path activeFile, long activeBytes) throws IOException {
+        long start = postings > 0 ? offsets[postings - 1] : 0;
+        if (start >= activeBytes) {
+            return;
+        }
+        boolean[] skipFirst = {postings > 0};
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(activeFile), READ_BUFFER_SIZE)) {
+            in.skipNBytes(start);
+            readLines(in, start, activeBytes, (offset, buffer, from, to) -> {
+                if (skipFirst[0]) {
+                    skipFirst[0] = false;
+                } else {
+                    String line = new String(buffer, from, to - from, StandardCharsets.UTF_8);
+                    appendPosting(lineHash(line, 0, line.length()), offset);
+                }
+                return true;
+            });
+        }
+        flush();
+    }
+
+    private void addCheckpoint(long time, long offset) {
+        appendCheckpoint(time, offset);
+        try {
+            appendTo(file(ACTIVE, TIME_SUFFIX), ByteBuffer.allocate(TIME_RECORD_BYTES).putLong(time).putLong(offset).flip());
+        } catch (IOException e) {
+            System.err.println("Failed to write audit index: " + e.getMessage());
+        }
+    }
+
+    private void appendCheckpoint(long time, long offset) {
+        if (checkpoints == checkpointTimes.length) {
+            checkpointTimes = Arrays.copyOf(checkpointTimes, checkpoints * 2);
+            checkpointOffsets = Arrays.copyOf(checkpointOffsets, checkpoints * 2);
+        }
+        checkpointTimes[checkpoints] = time;
+        checkpointOffsets[checkpoints] = offset;
+        checkpoints++;
+        LocalDate day = LocalDate.ofEpochDay(epochDay(time));
+        dayStart = day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        dayEnd = day.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void appendPosting(int hash, long offset) {
+        if (postings == hashes.length) {
+            hashes = Arrays.copyOf(hashes, postings * 2);
+            offsets = Arrays.copyOf(offsets, postings * 2);
+        }
+        hashes[postings] = hash;
+        offsets[postings] = offset;
+        postings++;
+    }
+
+    private void appendTo(Path file, ByteBuffer buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void move(String from, String to) throws IOException {
+        Path source = directory.resolve(from);
+        if (Files.exists(source)) {
+            Files.move(source, directory.resolve(to), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path file(String baseName, String suffix) {
+        return directory.resolve(baseName + suffix);
+    }
+
+    /** Hashes the customer of a log line: its first two comma-separated fields. */
+    private static int lineHash(CharSequence line, int from, int to) {
+        int firstEnd = indexOf(line, ',', from, to);
+        int lastEnd = indexOf(line, ',', Math.min(firstEnd + 1, to), to);
+        int hash = hashField(line, from, firstEnd, FNV_OFFSET);
+        return hashField(line, Math.min(firstEnd + 1, to), lastEnd, (hash ^ ' ') * FNV_PRIME);
+    }
+
+    private static int hashField(CharSequence text, int from, int to, int hash) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        for (int i = from; i < to; i++) {
+            hash = (hash ^ Character.toLowerCase(text.charAt(i))) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static long epochDay(long millis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    /**
+     * The time checkpoints of one log file, in file order.
+     */
+    static class Checkpoints {
+        private final long[] times;
+        private final long[] offsets;
+
+        Checkpoints(long[] times, long[] offsets) {
+            this.times = times;
+            this.offsets = offsets;
+        }
+
+        /**
+         * Returns the day the line at an offset was logged on.
+         *
+         * @param offset the byte offset of the line
+         * @return the day, or null if the offset precedes every checkpoint
+         */
+        LocalDate dayAt(long offset) {
+            // The last checkpoint at or before the offset
+            int low = 0;
+            int high = offsets.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (offsets[middle] <= offset) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low == 0 ? null : LocalDate.ofEpochDay(epochDay(times[low - 1]));
+        }
+
+        /**
+         * Returns the offset of the first line logged on or after a day.
+         *
+         * @param day the day, or null for the start of the file
+         * @param end the size of the file
+         * @return the offset, or end if no line was logged on or after the day
+         */
+        long startOf(LocalDate day, long end) {
+            if (day == null) {
+                return 0;
+            }
+            for (int i = 0; i < times.length; i++) {
+                if (epochDay(times[i]) >= day.toEpochDay()) {
+                    return Math.min(offsets[i], end);
+                }
+            }
+            return end;
+        }
+
+        /**
+         * Returns the offset after the last line logged on or before a day.
+         *
+         * @param day the day, or null for the end of the file
+         * @param end the size of the file
+         * @return the offset
+         */
+        long endOf(LocalDate day, long end) {
+            if (day == null) {
+                return end;
+            }
+            for (int i = 0; i < times.length; i++) {
+                if (epochDay(times[i]) > day.toEpochDay()) {
+                    return Math.min(offsets[i], end);
+                }
+            }
+            return end;
+        }
+    }
+
+    /**
+     * The gzip members of a compressed segment, in file order.
+     */
+    static class Blocks {
+        private final long[] offsets;
+        private final long[] compressedOffsets;
+
+        Blocks(long[] offsets, long[] compressedOffsets) {
+            this.offsets = offsets;
+            this.compressedOffsets = compressedOffsets;
+        }
+
+        /**
+         * Returns the member holding an uncompressed offset.
+         *
+         * @param offset the uncompressed offset
+         * @return the member index
+         */
+        int blockAt(long offset) {
+            int index = Arrays.binarySearch(offsets, offset);
+            return index >= 0 ? index : Math.max(0, -index - 2);
+        }
+
+        /** @return the uncompressed offset a member starts at */
+        long offset(int block) {
+            return offsets[block];
+        }
+
+        /** @return the offset of a member in the compressed file */
+        long compressedOffset(int block) {
+            return compressedOffsets[block];
+        }
+    }
+
+    /**
+     * The customer hashes and relative byte offsets of the lines of an append.
+     */
+    static class Lines {
+        private int[] hashes = new int[1];
+        private int[] offsets = new int[1];
+        private int count;
+
+        private void add(int hash, int offset) {
+            if (count == hashes.length) {
+                hashes = Arrays.copyOf(hashes, count * 2);
+                offsets = Arrays.copyOf(offsets, count * 2);
+            }
+            hashes[count] = hash;
+            offsets[count] = offset;
+            count++;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.insurance.logger;
+
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Queries over the transaction log: the active log.txt and its rotated segments.
+ *
+ * Queries use the {@link AuditIndex} instead of scanning: segments outside the requested
+ * days are skipped using the manifest, the time index narrows each file to the byte range
+ * logged on those days, and a customer's lines are located through the posting files.
+ * Uncompressed files are memory-mapped and read only at the located offsets; in gzipped
+ * segments only the gzip members holding those offsets are decompressed. Segments rotated
+ * out before the index existed are scanned.
+ *
+ * Days are the days lines were written to the log, in the system time zone.
+ */
+public class AuditLog {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final int LINE_BUFFER_SIZE = 8 * 1024;
+
+    private final RollingLogFile file;
+
+    /**
+     * Creates the query facility over a rolling log.
+     *
+     * @param file the rolling log
+     */
+    AuditLog(RollingLogFile file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns every transaction of a customer, oldest first.
+     *
+     * @param firstName the customer first name, compared case-insensitively
+     * @param lastName  the customer last name, compared case-insensitively
+     * @param from      the first day to include, or null for no lower bound
+     * @param to        the last day to include, or null for no upper bound
+     * @return the matching records
+     * @throws IOException if the log cannot be read
+     */
+    public List<AuditRecord> findByCustomer(String firstName, String lastName, LocalDate from, LocalDate to)
+            throws IOException {
+        String first = firstName.trim();
+        String last = lastName.trim();
+        return query(AuditIndex.customerHash(first, last), from, to,
+                record -> record.getFirstName().trim().equalsIgnoreCase(first)
+                        && record.getLastName().trim().equalsIgnoreCase(last));
+    }
+
+    /**
+     * Returns the transactions logged between two days, oldest first.
+     *
+     * @param from   the first day to include, or null for no lower bound
+     * @param to     the last day to include, or null for no upper bound
+     * @param action the kind of transaction to return, or null for all
+     * @return the matching records
+     * @throws IOException if the log cannot be read
+     */
+    public List<AuditRecord> findByDay(LocalDate from, LocalDate to, AuditRecord.Action action) throws IOException {
+        return query(null, from, to, record -> action == null || record.getAction() == action);
+    }
+
+    private List<AuditRecord> query(Integer customerHash, LocalDate from, LocalDate to,
+                                    Predicate<AuditRecord> filter) throws IOException {
+        RollingLogFile.AuditView view = file.auditView(customerHash);
+        Path directory = file.getManifest().getDirectory();
+        List<AuditRecord> results = new ArrayList<>();
+        for (LogSegment segment : view.segments) {
+            if ((from != null && day(segment.getEnd()).isBefore(from))
+                    || (to != null && day(segment.getStart()).isAfter(to))) {
+                continue;
+            }
+            String baseName = RollingLogFile.baseName(segment.getFileName());
+            Path path = directory.resolve(segment.getFileName());
+            if (!Files.exists(path)) {
+                // Compressed since the view was taken
+                path = directory.resolve(baseName + ".gz");
+            }
+            if (!Files.exists(path)) {
+                continue;
+            }
+            long[] offsets = customerHash != null ? AuditIndex.readOffsets(directory, baseName, customerHash) : null;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                read(channel, path.getFileName().toString(), segment.getBytes(),
+                        AuditIndex.readCheckpoints(directory, baseName), AuditIndex.readBlocks(directory, baseName),
+                        offsets, from, to, filter, results);
+            }
+        }
+        try (FileChannel channel = view.activeChannel) {
+            read(channel, file.getActiveFile().getFileName().toString(), view.activeBytes,
+                    view.activeCheckpoints, null, view.activeOffsets, from, to, filter, results);
+        }
+        return results;
+    }
+
+    /**
+     * Reads the matching records of one log file.
+     *
+     * @param channel     the file
+     * @param source      the file name
+     * @param size        the uncompressed size to read up to
+     * @param checkpoints the time index of the file, or null to read all of it
+     * @param blocks      the gzip members of a compressed file, or null
+     * @param offsets     the offsets of the lines to read, or null to read every line in range
+     */
+    private void read(FileChannel channel, String source, long size, AuditIndex.Checkpoints checkpoints,
+                      AuditIndex.Blocks blocks, long[] offsets, LocalDate from, LocalDate to, Predicate<AuditRecord> filter,
+                      List<AuditRecord> results) throws IOException {
+        long start = checkpoints != null ? checkpoints.startOf(from, size) : 0;
+        long end = checkpoints != null ? checkpoints.endOf(to, size) : size;
+        if (offsets != null) {
+            offsets = inRange(offsets, start, end);
+            if (offsets.length == 0) {
+                return;
+            }
+            start = offsets[0];
+        }
+        if (start >= end) {
+            return;
+        }
+        long[] wanted = offsets;
+        int[] next = {0};
+        AuditIndex.LineVisitor visitor = (offset, buffer, lineFrom, lineTo) -> {
+            if (wanted != null) {
+                if (offset != wanted[next[0]]) {
+                    return true;
+                }
+                next[0]++;
+            }
+            String line = new String(buffer, lineFrom, lineTo - lineFrom, StandardCharsets.UTF_8);
+            AuditRecord record = AuditRecord.parse(line,
+                    checkpoints != null ? checkpoints.dayAt(offset) : null, source, offset);
+            if (record != null && filter.test(record)) {
+                results.add(record);
+            }
+            return wanted == null || next[0] < wanted.length;
+        };
+        if (source.endsWith(".gz") && blocks != null) {
+            readBlocks(channel, blocks, start, end, wanted, visitor);
+        } else if (source.endsWith(".gz") || end - start > Integer.MAX_VALUE) {
+            readStream(channel, source.endsWith(".gz"), start, end, visitor);
+        } else {
+            readMapped(channel, start, end, wanted, visitor);
+        }
+    }
+
+    /** Maps the byte range and reads the wanted lines, or every line if none are given. */
+    private void readMapped(FileChannel channel, long start, long end, long[] wanted, AuditIndex.LineVisitor visitor)
+            throws IOException {
+        end = Math.min(end, channel.size());
+        if (start >= end) {
+            return;
+        }
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        byte[] buffer = new byte[256];
+        int position = 0;
+        int index = 0;
+        while (true) {
+            if (wanted != null) {
+                if (index == wanted.length) {
+                    return;
+                }
+                position = (int) (wanted[index++] - start);
+            }
+            if (position >= map.limit()) {
+                return;
+            }
+            int lineEnd = position;
+            while (lineEnd < map.limit() && map.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int length = lineEnd - position;
+            if (length > 0 && map.get(lineEnd - 1) == '\r') {
+                length--;
+            }
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            map.get(position, buffer, 0, length);
+            if (!visitor.visit(start + position, buffer, 0, length)) {
+                return;
+            }
+            position = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Reads a gzipped file from the member holding the start of the range, or for each wanted
+     * line from the member holding it unless the line is in the member being read.
+     */
+    private void readBlocks(FileChannel channel, AuditIndex.Blocks blocks, long start, long end, long[] wanted,
+                            AuditIndex.LineVisitor visitor) throws IOException {
+        if (wanted == null) {
+            int block = blocks.blockAt(start);
+            try (InputStream in = openBlock(channel, blocks.compressedOffset(block), READ_BUFFER_SIZE)) {
+                in.skipNBytes(start - blocks.offset(block));
+                AuditIndex.readLines(in, start, end, visitor);
+            }
+            return;
+        }
+        InputStream in = null;
+        long position = 0;
+        byte[] line = new byte[256];
+        try {
+            for (long offset : wanted) {
+                int block = blocks.blockAt(offset);
+                if (in == null || offset < position || blocks.offset(block) > position) {
+                    if (in != null) {
+                        in.close();
+                    }
+                    in = openBlock(channel, blocks.compressedOffset(block), LINE_BUFFER_SIZE);
+                    position = blocks.offset(block);
+                }
+                in.skipNBytes(offset - position);
+                int length = 0;
+                int b;
+                while ((b = in.read()) >= 0 && b != '\n') {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, length * 2);
+                    }
+                    line[length++] = (byte) b;
+                }
+                position = offset + length + 1;
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                if (!visitor.visit(offset, line, 0, length)) {
+                    return;
+                }
+            }
+        } finally {
+            if (in != null) {
+                in.close();
+            }
+        }
+    }
+
+    /** Opens a decompressing stream at a gzip member; closing it leaves the channel open. */
+    private static InputStream openBlock(FileChannel channel, long compressedOffset, int bufferSize)
+            throws IOException {
+        channel.position(compressedOffset);
+        InputStream raw = new FilterInputStream(Channels.newInputStream(channel)) {
+            @Override
+            public void close() {
+                // The channel is closed by its owner
+            }
+        };
+        return new BufferedInputStream(new GZIPInputStream(raw, bufferSize), bufferSize);
+    }
+
+    /** Reads the byte range sequentially, decompressing the file if it is gzipped. */
+    private void readStream(FileChannel channel, boolean compressed, long start, long end,
+                            AuditIndex.LineVisitor visitor) throws IOException {
+        InputStream raw = Channels.newInputStream(channel);
+        if (compressed) {
+            raw = new GZIPInputStream(raw, READ_BUFFER_SIZE);
+            raw.skipNBytes(start);
+        } else {
+            channel.position(start);
+        }
+        AuditIndex.readLines(new BufferedInputStream(raw, READ_BUFFER_SIZE), start, end, visitor);
+    }
+
+    private static long[] inRange(long[] offsets, long start, long end) {
+        int from = 0;
+        while (from < offsets.length && offsets[from] < start) {
+            from++;
+        }
+        int to = from;
+        while (to < offsets.length && offsets[to] < end) {
+            to++;
+        }
+        long[] result = new long[to - from];
+        System.arraycopy(offsets, from, result, 0, result.length);
+        return result;
+    }
+
+    private static LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
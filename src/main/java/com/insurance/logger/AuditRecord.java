@@ -0,0 +1,137 @@
+package com.insurance.logger;
+
+import java.time.LocalDate;
+
+/**
+ * One line of the transaction log, as returned by {@link AuditLog} queries.
+ */
+public class AuditRecord {
+
+    /**
+     * The kind of transaction, derived from the insurance type field of the line.
+     */
+    public enum Action {
+        /** A policy sold through the application. */
+        CREATION,
+        /** A policy deletion, logged with " (DELETION)" after the type, or as type DELETION if the policy was unknown. */
+        DELETION,
+        /** A policy added by a bulk import, logged with " (IMPORT)" after the type. */
+        IMPORT
+    }
+
+    private final String firstName;
+    private final String lastName;
+    private final String date;
+    private final String remarks;
+    private final String insuranceType;
+    private final Action action;
+    private final LocalDate loggedOn;
+    private final String source;
+    private final long offset;
+
+    /**
+     * Creates a record.
+     *
+     * @param firstName     the customer first name
+     * @param lastName      the customer last name
+     * @param date          the date field as logged (d.M.yyyy)
+     * @param remarks       the remarks
+     * @param insuranceType the insurance type field as logged
+     * @param action        the kind of transaction
+     * @param loggedOn      the day the line was written, or null if unknown
+     * @param source        the log file the line was read from
+     * @param offset        the byte offset of the line in the uncompressed file
+     */
+    public AuditRecord(String firstName, String lastName, String date, String remarks, String insuranceType,
+                       Action action, LocalDate loggedOn, String source, long offset) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.date = date;
+        this.remarks = remarks;
+        this.insuranceType = insuranceType;
+        this.action = action;
+        this.loggedOn = loggedOn;
+        this.source = source;
+        this.offset = offset;
+    }
+
+    /**
+     * Parses a log line: Name,FamilyName,Date,Remarks,InsuranceType, where the remarks may contain commas.
+     *
+     * @param line     the line, without line separator
+     * @param loggedOn the day the line was written, or null if unknown
+     * @param source   the log file the line was read from
+     * @param offset   the byte offset of the line
+     * @return the record, or null if the line has fewer than five fields
+     */
+    static AuditRecord parse(String line, LocalDate loggedOn, String source, long offset) {
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        int third = second < 0 ? -1 : line.indexOf(',', second + 1);
+        int last = line.lastIndexOf(',');
+        if (third < 0 || last < third) {
+            return null;
+        }
+        String type = line.substring(last + 1);
+        Action action = Action.CREATION;
+        if (type.endsWith("(DELETION)") || type.equals("DELETION")) {
+            action = Action.DELETION;
+        } else if (type.endsWith("(IMPORT)")) {
+            action = Action.IMPORT;
+        }
+        return new AuditRecord(line.substring(0, first), line.substring(first + 1, second),
+                line.substring(second + 1, third), line.substring(third + 1, last), type,
+                action, loggedOn, source, offset);
+    }
+
+    /** @return the customer first name */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /** @return the customer last name */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /** @return the date field as logged: the policy date, or the deletion date for deletions */
+    public String getDate() {
+        return date;
+    }
+
+    /** @return the remarks */
+    public String getRemarks() {
+        return remarks;
+    }
+
+    /** @return the insurance type field as logged, including a " (DELETION)" or " (IMPORT)" suffix */
+    public String getInsuranceType() {
+        return insuranceType;
+    }
+
+    /** @return the kind of transaction */
+    public Action getAction() {
+        return action;
+    }
+
+    /** @return the day the line was written, or null for lines logged before the audit index existed */
+    public LocalDate getLoggedOn() {
+        return loggedOn;
+    }
+
+    /** @return the log file the line was read from */
+    public String getSource() {
+        return source;
+    }
+
+    /** @return the byte offset of the line in the uncompressed log file */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public String toString() {
+        return (loggedOn != null ? loggedOn : "?") + " " + action + ": " + firstName + "," + lastName + ","
+                + date + "," + remarks + "," + insuranceType;
+    }
+}
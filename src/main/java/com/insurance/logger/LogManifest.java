@@ -0,0 +1,151 @@
+package com.insurance.logger;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.insurance.data.AtomicFileWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The list of rotated transaction log segments, oldest first, kept as manifest.json
+ * in the log directory together with the start time of the active log file.
+ * Thread-safe; every change is written through {@link #save()}.
+ */
+public class LogManifest {
+
+    /** File name of the manifest inside the log directory. */
+    public static final String FILE_NAME = "manifest.json";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private final Path directory;
+    private final Data data;
+
+    private LogManifest(Path directory, Data data) {
+        this.directory = directory;
+        this.data = data;
+    }
+
+    /**
+     * Loads the manifest of a log directory; an absent or unreadable manifest is empty.
+     *
+     * @param directory the log directory
+     * @return the manifest
+     */
+    public static LogManifest load(Path directory) {
+        Path file = directory.resolve(FILE_NAME);
+        Data data = null;
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                data = GSON.fromJson(reader, Data.class);
+            } catch (IOException | JsonParseException e) {
+                System.err.println("Could not read log manifest: " + e.getMessage());
+            }
+        }
+        if (data == null) {
+            data = new Data();
+        }
+        if (data.segments == null) {
+            data.segments = new ArrayList<>();
+        }
+        return new LogManifest(directory, data);
+    }
+
+    /** @return the log directory */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /** @return copies of the segments, oldest first */
+    public synchronized List<LogSegment> getSegments() {
+        List<LogSegment> segments = new ArrayList<>(data.segments.size());
+        for (LogSegment segment : data.segments) {
+            segments.add(new LogSegment(segment));
+        }
+        return segments;
+    }
+
+    /** @return when the active log file was started, or null if unknown */
+    public synchronized Instant getActiveSince() {
+        return data.activeSince != null ? Instant.parse(data.activeSince) : null;
+    }
+
+    /** Sets when the active log file was started. */
+    synchronized void setActiveSince(Instant activeSince) {
+        data.activeSince = activeSince.toString();
+    }
+
+    /** Returns the next segment sequence number; numbers are never reused. */
+    synchronized long nextSequence() {
+        return ++data.lastSequence;
+    }
+
+    /** Appends a newly rotated segment. */
+    synchronized void add(LogSegment segment) {
+        data.segments.add(segment);
+    }
+
+    /**
+     * Records that a segment was compressed.
+     *
+     * @param fileName       the segment's uncompressed file name
+     * @param compressedFile the compressed file name
+     * @param compressedSize the compressed size in bytes
+     * @param lines          the number of lines in the segment
+     * @return false if the segment is no longer listed
+     */
+    synchronized boolean markCompressed(String fileName, String compressedFile, long compressedSize, long lines) {
+        for (LogSegment segment : data.segments) {
+            if (segment.getFileName().equals(fileName)) {
+                segment.markCompressed(compressedFile, compressedSize, lines);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes and returns the segments that fall outside the retention policy, oldest first.
+     *
+     * @param retentionDays segments that ended more than this many days ago are removed; 0 keeps all
+     * @param maxSegments   only the newest this many segments are kept; 0 keeps all
+     * @return the removed segments
+     */
+    synchronized List<LogSegment> expire(int retentionDays, int maxSegments) {
+        List<LogSegment> expired = new ArrayList<>();
+        Instant cutoff = retentionDays > 0 ? Instant.now().minusSeconds(retentionDays * 86_400L) : null;
+        while (!data.segments.isEmpty()
+                && ((maxSegments > 0 && data.segments.size() > maxSegments)
+                    || (cutoff != null && data.segments.get(0).getEnd().isBefore(cutoff)))) {
+            expired.add(data.segments.remove(0));
+        }
+        return expired;
+    }
+
+    /**
+     * Writes the manifest atomically.
+     *
+     * @throws IOException if it could not be written
+     */
+    synchronized void save() throws IOException {
+        Files.createDirectories(directory);
+        AtomicFileWriter.write(directory.resolve(FILE_NAME), writer -> GSON.toJson(data, writer));
+    }
+
+    /**
+     * Maps directly to the manifest.json structure.
+     */
+    private static class Data {
+        String activeSince;
+        long lastSequence;
+        List<LogSegment> segments;
+    }
+}
@@ -0,0 +1,101 @@
+package com.insurance.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of log lines with many producers and one consumer.
+ *
+ * Each slot carries a sequence number: a producer claims a position with one CAS on
+ * the tail, fills the slot and then publishes it by advancing the slot's sequence, and
+ * the consumer takes slots in order once they are published. Neither side ever blocks
+ * the other; a full buffer makes {@link #offer(String)} fail instead.
+ */
+class LogRingBuffer {
+
+    private final int capacity;
+    private final int mask;
+    private final String[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only touched by the consumer
+    private long head;
+
+    /**
+     * Creates an empty buffer.
+     *
+     * @param minimumCapacity the number of lines it must hold; rounded up to a power of two
+     */
+    LogRingBuffer(int minimumCapacity) {
+        int size = Integer.highestOneBit(Math.max(2, minimumCapacity - 1)) << 1;
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new String[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** @return the number of lines the buffer holds */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds a line if there is room. Safe to call from any thread.
+     *
+     * @param line the line
+     * @return the position the line was stored at, or -1 if the buffer is full
+     */
+    long offer(String line) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                // The consumer has not freed this slot since the last lap
+                return -1;
+            }
+            // Otherwise another producer claimed the position first; retry with the new tail
+        }
+        slots[index] = line;
+        sequences.lazySet(index, position + 1);
+        return position;
+    }
+
+    /**
+     * Moves published lines to a batch, each followed by a line separator. Consumer thread only.
+     *
+     * @param batch    receives the lines
+     * @param maxLines the maximum number of lines to move
+     * @return the number of lines moved
+     */
+    int drainTo(StringBuilder batch, int maxLines) {
+        int count = 0;
+        while (count < maxLines) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            batch.append(slots[index]).append(System.lineSeparator());
+            slots[index] = null;
+            // Frees the slot for the producer one lap ahead
+            sequences.lazySet(index, head + capacity);
+            head++;
+            count++;
+        }
+        return count;
+    }
+
+    /** @return true if no line is waiting or being written by a producer; consumer thread only */
+    boolean isEmpty() {
+        return tail.get() == head;
+    }
+}
@@ -0,0 +1,111 @@
+package com.insurance.logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A finished part of the transaction log, as listed in the {@link LogManifest}.
+ * Segments are written uncompressed when rotated out and gzipped in the background shortly after.
+ */
+public class LogSegment {
+
+    private String file;
+    private String startTime;
+    private String endTime;
+    private long lines;
+    private long bytes;
+    private long compressedBytes;
+
+    /** No-arg constructor for Gson. */
+    LogSegment() {
+    }
+
+    /**
+     * Creates a segment entry for a rotated file.
+     *
+     * @param file  the file name inside the log directory
+     * @param start when the file was started
+     * @param end   when the file was rotated out
+     * @param bytes the uncompressed size
+     */
+    LogSegment(String file, Instant start, Instant end, long bytes) {
+        this.file = file;
+        this.startTime = start.toString();
+        this.endTime = end.toString();
+        this.bytes = bytes;
+    }
+
+    /** Copy constructor. */
+    LogSegment(LogSegment other) {
+        this.file = other.file;
+        this.startTime = other.startTime;
+        this.endTime = other.endTime;
+        this.lines = other.lines;
+        this.bytes = other.bytes;
+        this.compressedBytes = other.compressedBytes;
+    }
+
+    /** @return the file name inside the log directory */
+    public String getFileName() {
+        return file;
+    }
+
+    /** @return when the segment was started; every line in it was logged at or after this time */
+    public Instant getStart() {
+        return Instant.parse(startTime);
+    }
+
+    /** @return when the segment was rotated out; every line in it was logged before this time */
+    public Instant getEnd() {
+        return Instant.parse(endTime);
+    }
+
+    /** @return the number of lines, counted when the segment is compressed; 0 before */
+    public long getLines() {
+        return lines;
+    }
+
+    /** @return the uncompressed size in bytes */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /** @return the compressed size in bytes, or 0 if not compressed yet */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /** @return true once the segment is gzipped */
+    public boolean isCompressed() {
+        return file.endsWith(".gz");
+    }
+
+    /**
+     * Opens the segment for reading, decompressing it if needed.
+     *
+     * @param directory the log directory
+     * @return a reader over the segment's lines
+     * @throws IOException if the file cannot be opened
+     */
+    public BufferedReader openReader(Path directory) throws IOException {
+        InputStream in = Files.newInputStream(directory.resolve(file));
+        if (isCompressed()) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    /** Records that the segment was compressed into the given file. */
+    void markCompressed(String compressedFile, long compressedSize, long lineCount) {
+        this.file = compressedFile;
+        this.compressedBytes = compressedSize;
+        this.lines = lineCount;
+    }
+}
@@ -0,0 +1,378 @@
+package com.insurance.logger;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The active transaction log file, rolled over into segments by size and by day.
+ *
+ * Lines are appended to a file channel that stays open. When an append would take the
+ * file past the size limit, or the file was started on an earlier day, the file is moved
+ * into the log directory as a segment named after its start day, listed in the
+ * {@link LogManifest}, and a new active file is started. A background thread then gzips
+ * the segment, counts its lines and applies the retention policy. Segments left
+ * uncompressed by a previous run are compressed on startup.
+ *
+ * Segments are gzipped as a series of independent members of
+ * {@value #COMPRESSION_BLOCK_SIZE} uncompressed bytes each, which any gzip reader reads
+ * as one stream, so that audit queries can start decompressing at the member holding
+ * a line instead of at the start of the file.
+ *
+ * Every append is also recorded in the {@link AuditIndex}, whose files follow the active
+ * file into its segment when it is rotated out.
+ */
+class RollingLogFile {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private static final int COMPRESSION_BLOCK_SIZE = 64 * 1024;
+
+    private final Path activeFile;
+    private final Path directory;
+    private final LogManifest manifest;
+    private final AuditIndex index;
+    private final ExecutorService compressor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-compressor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile long maxBytes;
+    private volatile boolean rotateDaily;
+    private volatile int retentionDays;
+    private volatile int maxSegments;
+
+    // Guarded by this; the channel is opened on the first append
+    private FileChannel channel;
+    private long activeBytes;
+    private Instant activeSince;
+    private CompletableFuture<Void> lastCompression = CompletableFuture.completedFuture(null);
+
+    /**
+     * Creates the rolling log, finishing compression left over from a previous run.
+     *
+     * @param activeFile    the file lines are appended to
+     * @param directory     the directory holding segments and the manifest
+     * @param maxBytes      the size after which the active file is rolled over
+     * @param rotateDaily   whether the active file is also rolled over when the day changes
+     * @param retentionDays segments that ended more than this many days ago are deleted; 0 keeps all
+     * @param maxSegments   only the newest this many segments are kept; 0 keeps all
+     */
+    RollingLogFile(Path activeFile, Path directory, long maxBytes, boolean rotateDaily,
+                   int retentionDays, int maxSegments) {
+        this.activeFile = activeFile;
+        this.directory = directory;
+        this.manifest = LogManifest.load(directory);
+        this.index = new AuditIndex(directory);
+        setPolicy(maxBytes, rotateDaily, retentionDays, maxSegments);
+        for (LogSegment segment : manifest.getSegments()) {
+            if (!segment.isCompressed() && Files.exists(directory.resolve(segment.getFileName()))) {
+                scheduleCompression(segment.getFileName());
+            }
+        }
+    }
+
+    /**
+     * Changes the rotation and retention policy.
+     *
+     * @see #RollingLogFile(Path, Path, long, boolean, int, int)
+     */
+    void setPolicy(long maxBytes, boolean rotateDaily, int retentionDays, int maxSegments) {
+        this.maxBytes = maxBytes;
+        this.rotateDaily = rotateDaily;
+        this.retentionDays = retentionDays;
+        this.maxSegments = maxSegments;
+    }
+
+    /** @return the manifest of rotated segments */
+    LogManifest getManifest() {
+        return manifest;
+    }
+
+    /** @return the active log file */
+    Path getActiveFile() {
+        return activeFile;
+    }
+
+    /**
+     * Returns what an audit query needs to read consistently while lines keep being
+     * appended: the segments, the active file opened for reading, its size and its index.
+     * The caller closes the channel; it keeps reading the same file if it is rotated out.
+     *
+     * @param customerHash the customer whose postings in the active file are needed, or null
+     * @return the view
+     * @throws IOException if the active file cannot be opened
+     */
+    synchronized AuditView auditView(Integer customerHash) throws IOException {
+        open();
+        return new AuditView(manifest.getSegments(), FileChannel.open(activeFile, StandardOpenOption.READ),
+                activeBytes, index.getCheckpoints(),
+                customerHash != null ? index.getOffsets(customerHash) : null);
+    }
+
+    /**
+     * Appends text, rolling the active file over first if needed.
+     *
+     * @param text one or more complete lines, each ending with a line separator
+     * @throws IOException if the text could not be written
+     */
+    void append(CharSequence text) throws IOException {
+        ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(text));
+        AuditIndex.Lines lines = AuditIndex.lines(text);
+        write(bytes, lines);
+    }
+
+    /** Writes encoded text at the end of the active file and indexes its lines. */
+    private synchronized void write(ByteBuffer bytes, AuditIndex.Lines lines) throws IOException {
+        open();
+        if (activeBytes > 0 && (activeBytes + bytes.remaining() > maxBytes
+                || (rotateDaily && !LocalDate.now().equals(day(activeSince))))) {
+            rotate();
+            open();
+        }
+        long start = activeBytes;
+        while (bytes.hasRemaining()) {
+            activeBytes += channel.write(bytes);
+        }
+        index.add(lines, start, System.currentTimeMillis());
+    }
+
+    /**
+     * Closes the active file and waits for pending compression. The next append reopens it.
+     */
+    void close() {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            index.flush();
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close log file: " + e.getMessage());
+                }
+                channel = null;
+            }
+            pending = lastCompression;
+        }
+        pending.join();
+    }
+
+    /** Opens the active file if it is not open yet. */
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        channel = FileChannel.open(activeFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        activeBytes = channel.size();
+        activeSince = manifest.getActiveSince();
+        if (activeSince == null || activeBytes == 0) {
+            // For a log written before rotation existed, its last write is the best known start
+            activeSince = activeBytes > 0 ? Files.getLastModifiedTime(activeFile).toInstant() : Instant.now();
+            manifest.setActiveSince(activeSince);
+            saveManifest();
+        }
+        index.open(activeFile, activeBytes, activeSince);
+    }
+
+    /** Moves the active file into the log directory as a new segment and schedules its compression. */
+    private void rotate() throws IOException {
+        channel.close();
+        channel = null;
+        Instant end = Instant.now();
+        Files.createDirectories(directory);
+        Path segmentFile = nextSegmentFile(activeSince);
+        try {
+            Files.move(activeFile, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(activeFile, segmentFile);
+        }
+        String fileName = segmentFile.getFileName().toString();
+        index.rotate(fileName);
+        manifest.add(new LogSegment(fileName, activeSince, end, activeBytes));
+        manifest.setActiveSince(end);
+        saveManifest();
+        scheduleCompression(fileName);
+    }
+
+    /**
+     * Returns an unused segment file named after the start day of the active file and a
+     * sequence number that never repeats, such as log-2024-05-01-000042.txt, so that
+     * segment names sort in time order.
+     */
+    private Path nextSegmentFile(Instant start) {
+        Path candidate;
+        do {
+            candidate = directory.resolve(String.format("log-%s-%06d.txt", day(start), manifest.nextSequence()));
+        } while (Files.exists(candidate) || Files.exists(compressedFile(candidate)));
+        return candidate;
+    }
+
+    private void scheduleCompression(String fileName) {
+        lastCompression = CompletableFuture.runAsync(() -> compress(fileName), compressor);
+    }
+
+    /**
+     * Sorts a segment's customer postings, gzips it, updates the manifest and applies
+     * retention. Runs on the compressor thread.
+     */
+    private void compress(String fileName) {
+        try {
+            AuditIndex.sortPostings(directory, fileName);
+        } catch (IOException e) {
+            System.err.println("Failed to sort audit index of " + fileName + ": " + e.getMessage());
+        }
+        Path source = directory.resolve(fileName);
+        Path target = compressedFile(source);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        if (!Files.exists(source)) {
+            // Already removed by the retention policy
+            return;
+        }
+        long lines = 0;
+        long[] blockOffsets = new long[16];
+        long[] compressedOffsets = new long[16];
+        int blocks = 0;
+        try {
+            try (InputStream in = Files.newInputStream(source);
+                 FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                         StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream stream = unclosable(Channels.newOutputStream(out));
+                byte[] buffer = new byte[COMPRESSION_BLOCK_SIZE];
+                long offset = 0;
+                int read;
+                while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                    if (blocks == blockOffsets.length) {
+                        blockOffsets = Arrays.copyOf(blockOffsets, blocks * 2);
+                        compressedOffsets = Arrays.copyOf(compressedOffsets, blocks * 2);
+                    }
+                    blockOffsets[blocks] = offset;
+                    compressedOffsets[blocks] = out.position();
+                    blocks++;
+                    try (OutputStream member = new GZIPOutputStream(stream, COPY_BUFFER_SIZE)) {
+                        member.write(buffer, 0, read);
+                    }
+                    offset += read;
+                }
+            }
+            AuditIndex.writeBlocks(directory, fileName, Arrays.copyOf(blockOffsets, blocks),
+                    Arrays.copyOf(compressedOffsets, blocks));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            // The manifest points at the compressed file before the original goes away
+            manifest.markCompressed(fileName, target.getFileName().toString(), Files.size(target), lines);
+            saveManifest();
+            Files.delete(source);
+        } catch (IOException e) {
+            System.err.println("Failed to compress log segment " + fileName + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Overwritten by the next attempt
+            }
+        }
+        applyRetention();
+    }
+
+    /** Deletes the segments that fall outside the retention policy. */
+    private void applyRetention() {
+        List<LogSegment> expired = manifest.expire(retentionDays, maxSegments);
+        if (expired.isEmpty()) {
+            return;
+        }
+        saveManifest();
+        for (LogSegment segment : expired) {
+            try {
+                Files.deleteIfExists(directory.resolve(segment.getFileName()));
+                AuditIndex.delete(directory, baseName(segment.getFileName()));
+            } catch (IOException e) {
+                System.err.println("Failed to delete expired log segment: " + e.getMessage());
+            }
+        }
+    }
+
+    private void saveManifest() {
+        try {
+            manifest.save();
+        } catch (IOException e) {
+            System.err.println("Failed to write log manifest: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the uncompressed file name of a segment, which its index files are named after.
+     *
+     * @param fileName the segment file name as listed in the manifest
+     * @return the name without a .gz extension
+     */
+    static String baseName(String fileName) {
+        return fileName.endsWith(".gz") ? fileName.substring(0, fileName.length() - 3) : fileName;
+    }
+
+    /** Wraps a stream so that closing a gzip member does not close the file. */
+    private static OutputStream unclosable(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() {
+                // The file is closed by its owner
+            }
+        };
+    }
+
+    private static Path compressedFile(Path segment) {
+        return segment.resolveSibling(segment.getFileName() + ".gz");
+    }
+
+    private static LocalDate day(Instant instant) {
+        return LocalDate.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    /**
+     * A consistent snapshot of the log for an audit query.
+     */
+    static class AuditView {
+        final List<LogSegment> segments;
+        final FileChannel activeChannel;
+        final long activeBytes;
+        final AuditIndex.Checkpoints activeCheckpoints;
+        final long[] activeOffsets;
+
+        AuditView(List<LogSegment> segments, FileChannel activeChannel, long activeBytes,
+                  AuditIndex.Checkpoints activeCheckpoints, long[] activeOffsets) {
+            this.segments = segments;
+            this.activeChannel = activeChannel;
+            this.activeBytes = activeBytes;
+            this.activeCheckpoints = activeCheckpoints;
+            this.activeOffsets = activeOffsets;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.insurance.model;
+
+import java.util.List;
+
+/**
+ * A fuzzy customer name lookup result: a customer name close to the searched name,
+ * with the policies held under it.
+ */
+public class CustomerMatch {
+
+    private final String name;
+    private final int distance;
+    private final List<String> policyIds;
+
+    /**
+     * Creates a customer match.
+     *
+     * @param name      the normalized customer name, "first last" in lower case
+     * @param distance  the number of edits between the searched name and this name
+     * @param policyIds the IDs of the policies held under the name
+     */
+    public CustomerMatch(String name, int distance, List<String> policyIds) {
+        this.name = name;
+        this.distance = distance;
+        this.policyIds = policyIds;
+    }
+
+    /** @return the normalized customer name */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the number of edits between the searched name and this name */
+    public int getDistance() {
+        return distance;
+    }
+
+    /** @return the IDs of the policies held under the name */
+    public List<String> getPolicyIds() {
+        return policyIds;
+    }
+}
@@ -0,0 +1,71 @@
+package com.insurance.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk policy import: how many rows were read, imported and rejected,
+ * how long it took, and why the first rejected rows were rejected.
+ */
+public class ImportReport {
+
+    private final String source;
+    private final long rows;
+    private final long imported;
+    private final long rejected;
+    private final long elapsedMillis;
+    private final List<String> rejections;
+
+    /**
+     * Creates an import report.
+     *
+     * @param source        the imported file
+     * @param rows          the number of data rows read
+     * @param imported      the number of policies saved
+     * @param rejected      the number of rows rejected by validation or not saved
+     * @param elapsedMillis the duration of the import
+     * @param rejections    the reasons for the first rejected rows, e.g. "line 12: missing last name"
+     */
+    public ImportReport(String source, long rows, long imported, long rejected, long elapsedMillis, List<String> rejections) {
+        this.source = source;
+        this.rows = rows;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.elapsedMillis = elapsedMillis;
+        this.rejections = rejections;
+    }
+
+    /** @return the imported file */
+    public String getSource() {
+        return source;
+    }
+
+    /** @return the number of data rows read */
+    public long getRows() {
+        return rows;
+    }
+
+    /** @return the number of policies saved */
+    public long getImported() {
+        return imported;
+    }
+
+    /** @return the number of rows rejected by validation or not saved */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** @return the duration of the import in milliseconds */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /** @return the import throughput in rows per second */
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+    }
+
+    /** @return the reasons for the first rejected rows */
+    public List<String> getRejections() {
+        return rejections;
+    }
+}
@@ -0,0 +1,235 @@
+package com.insurance.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Criteria for querying policies: filters on insurance type, policy date and customer
+ * name, plus sort keys and a result limit. All filters are optional and combined with AND.
+ * Without sort keys, matching policies are returned in the order they were saved.
+ *
+ * Example: {@code new PolicyCriteria().types(InsuranceType.CAR).namePrefix("co")
+ * .sortBy(PolicyCriteria.SortField.DATE, false).limit(50)}
+ */
+public class PolicyCriteria {
+
+    /**
+     * Policy fields that results can be sorted by.
+     */
+    public enum SortField {
+        ID, FIRST_NAME, LAST_NAME, TYPE, DATE
+    }
+
+    /**
+     * A sort field with a direction.
+     */
+    public static class SortKey {
+
+        private final SortField field;
+        private final boolean ascending;
+
+        /**
+         * Creates a sort key.
+         *
+         * @param field     the field to sort by
+         * @param ascending true for ascending order, false for descending
+         */
+        public SortKey(SortField field, boolean ascending) {
+            this.field = field;
+            this.ascending = ascending;
+        }
+
+        /** @return the field to sort by */
+        public SortField getField() {
+            return field;
+        }
+
+        /** @return true for ascending order, false for descending */
+        public boolean isAscending() {
+            return ascending;
+        }
+    }
+
+    private final Set<InsuranceType> types = EnumSet.noneOf(InsuranceType.class);
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private String namePrefix;
+    private final List<SortKey> sortKeys = new ArrayList<>();
+    private int limit = Integer.MAX_VALUE;
+
+    /**
+     * Restricts results to the given insurance types. May be called repeatedly to add types.
+     *
+     * @param types the insurance types to include
+     * @return this criteria
+     */
+    public PolicyCriteria types(InsuranceType... types) {
+        Collections.addAll(this.types, types);
+        return this;
+    }
+
+    /**
+     * Restricts results to policies dated within a range. Policies without a date never match.
+     *
+     * @param from first date to include, or null for no lower bound
+     * @param to   last date to include, or null for no upper bound
+     * @return this criteria
+     */
+    public PolicyCriteria dateBetween(LocalDate from, LocalDate to) {
+        this.fromDate = from;
+        this.toDate = to;
+        return this;
+    }
+
+    /**
+     * Restricts results to policies whose customer first or last name starts with
+     * the given prefix, ignoring case.
+     *
+     * @param prefix the name prefix, or null or empty for no name filter
+     * @return this criteria
+     */
+    public PolicyCriteria namePrefix(String prefix) {
+        this.namePrefix = prefix == null || prefix.isEmpty() ? null : normalizeName(prefix);
+        return this;
+    }
+
+    /**
+     * Adds a sort key. Keys are applied in the order they were added.
+     *
+     * @param field     the field to sort by
+     * @param ascending true for ascending order, false for descending
+     * @return this criteria
+     */
+    public PolicyCriteria sortBy(SortField field, boolean ascending) {
+        sortKeys.add(new SortKey(field, ascending));
+        return this;
+    }
+
+    /**
+     * Limits the number of returned policies.
+     *
+     * @param limit the maximum number of policies to return
+     * @return this criteria
+     */
+    public PolicyCriteria limit(int limit) {
+        this.limit = Math.max(0, limit);
+        return this;
+    }
+
+    /** @return the insurance types to include; empty means all types */
+    public Set<InsuranceType> getTypes() {
+        return Collections.unmodifiableSet(types);
+    }
+
+    /** @return first date to include, or null */
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /** @return last date to include, or null */
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /** @return the lower-cased name prefix, or null */
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    /** @return true if the criteria filter on the policy date */
+    public boolean hasDateRange() {
+        return fromDate != null || toDate != null;
+    }
+
+    /** @return the sort keys, in order of precedence */
+    public List<SortKey> getSortKeys() {
+        return Collections.unmodifiableList(sortKeys);
+    }
+
+    /** @return the maximum number of policies to return */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Checks a policy against all filters.
+     *
+     * @param policy the policy to check
+     * @return true if the policy matches
+     */
+    public boolean matches(Policy policy) {
+        if (!types.isEmpty() && !types.contains(policy.getType())) {
+            return false;
+        }
+        if (hasDateRange() && !dateInRange(policy.getDate())) {
+            return false;
+        }
+        return namePrefix == null
+                || normalizeName(policy.getFirstName()).startsWith(namePrefix)
+                || normalizeName(policy.getLastName()).startsWith(namePrefix);
+    }
+
+    /**
+     * Checks a date against the date range.
+     *
+     * @param date the date to check, may be null
+     * @return true if the date lies within the range
+     */
+    public boolean dateInRange(LocalDate date) {
+        return date != null
+                && (fromDate == null || !date.isBefore(fromDate))
+                && (toDate == null || !date.isAfter(toDate));
+    }
+
+    /**
+     * Returns a comparator implementing the sort keys, or null if there are none.
+     * Missing values sort first. Ties are broken by policy ID, so that a limited query
+     * returns the same policies in the same order on every backend.
+     *
+     * @return the comparator, or null
+     */
+    public Comparator<Policy> comparator() {
+        Comparator<Policy> comparator = null;
+        for (SortKey key : sortKeys) {
+            Comparator<Policy> next = comparatorFor(key.getField());
+            if (!key.isAscending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator == null ? null : comparator.thenComparing(Policy::getId);
+    }
+
+    /**
+     * Normalizes a customer name for prefix matching.
+     *
+     * @param name the name, may be null
+     * @return the lower-cased name, or an empty string for null
+     */
+    public static String normalizeName(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+
+    private static Comparator<Policy> comparatorFor(SortField field) {
+        switch (field) {
+            case ID:
+                return Comparator.comparing(Policy::getId, Comparator.nullsFirst(Comparator.naturalOrder()));
+            case FIRST_NAME:
+                return Comparator.comparing(Policy::getFirstName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case LAST_NAME:
+                return Comparator.comparing(Policy::getLastName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case TYPE:
+                return Comparator.comparing(Policy::getType);
+            case DATE:
+                return Comparator.comparing(Policy::getDate, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default:
+                throw new IllegalArgumentException("Unknown sort field: " + field);
+        }
+    }
+}
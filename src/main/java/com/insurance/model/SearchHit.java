@@ -0,0 +1,55 @@
+package com.insurance.model;
+
+/**
+ * A full-text search result: a policy whose remarks, or a claim whose description,
+ * matched the query.
+ */
+public class SearchHit {
+
+    /**
+     * The kind of text that matched.
+     */
+    public enum Source {
+        POLICY_REMARKS, CLAIM_DESCRIPTION
+    }
+
+    private final Source source;
+    private final String id;
+    private final String policyId;
+    private final double score;
+
+    /**
+     * Creates a search hit.
+     *
+     * @param source   the kind of text that matched
+     * @param id       the ID of the matching policy or claim
+     * @param policyId the ID of the policy, or of the policy the claim belongs to
+     * @param score    the relevance score
+     */
+    public SearchHit(Source source, String id, String policyId, double score) {
+        this.source = source;
+        this.id = id;
+        this.policyId = policyId;
+        this.score = score;
+    }
+
+    /** @return the kind of text that matched */
+    public Source getSource() {
+        return source;
+    }
+
+    /** @return the ID of the matching policy or claim */
+    public String getId() {
+        return id;
+    }
+
+    /** @return the ID of the policy, or of the policy the claim belongs to */
+    public String getPolicyId() {
+        return policyId;
+    }
+
+    /** @return the relevance score; higher is better */
+    public double getScore() {
+        return score;
+    }
+}
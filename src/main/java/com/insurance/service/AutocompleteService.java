@@ -0,0 +1,85 @@
+package com.insurance.service;
+
+import com.insurance.data.InsuranceRepository;
+import com.insurance.index.RadixTree;
+import com.insurance.model.Policy;
+
+/**
+ * Implementation of IAutocompleteService backed by two {@link RadixTree}s: one over
+ * policy IDs and one over customer names.
+ *
+ * Both trees are built from the repository on startup and kept in sync by observing
+ * the sales service. The ID tree maps each policy to its customer name, so a deletion,
+ * which only carries the policy ID, can release the name as well; the name tree counts
+ * the policies held under each name and drops a name with its last policy.
+ * Design Pattern: Observer
+ */
+public class AutocompleteService implements IAutocompleteService, PolicyObserver {
+
+    private final RadixTree<String> policyIds = new RadixTree<>();
+    private final RadixTree<int[]> customerNames = new RadixTree<>();
+
+    /**
+     * Creates a new AutocompleteService over the policies currently in the repository.
+     *
+     * @param repository the repository to read the policies from
+     */
+    public AutocompleteService(InsuranceRepository repository) {
+        for (Policy policy : repository.getAllPolicies()) {
+            add(policy);
+        }
+    }
+
+    @Override
+    public int completePolicyIds(CharSequence prefix, String[] completions) {
+        return policyIds.complete(prefix, completions);
+    }
+
+    @Override
+    public int completeCustomerNames(CharSequence prefix, String[] completions) {
+        return customerNames.complete(prefix, completions);
+    }
+
+    @Override
+    public void onPolicyCreated(Policy policy) {
+        add(policy);
+    }
+
+    @Override
+    public synchronized void onPolicyDeleted(String policyId) {
+        String name = policyIds.remove(policyId);
+        if (name == null) {
+            return;
+        }
+        int[] count = customerNames.get(name);
+        if (count != null && --count[0] == 0) {
+            customerNames.remove(name);
+        }
+    }
+
+    private synchronized void add(Policy policy) {
+        String name = customerName(policy);
+        String previous = policyIds.put(policy.getId(), name);
+        if (name.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            int[] count = customerNames.get(previous);
+            if (count != null && --count[0] == 0) {
+                customerNames.remove(previous);
+            }
+        }
+        int[] count = customerNames.get(name);
+        if (count == null) {
+            customerNames.put(name, new int[] {1});
+        } else {
+            count[0]++;
+        }
+    }
+
+    private static String customerName(Policy policy) {
+        String first = policy.getFirstName() == null ? "" : policy.getFirstName();
+        String last = policy.getLastName() == null ? "" : policy.getLastName();
+        return RadixTree.normalize((first + " " + last).trim());
+    }
+}
@@ -1,12 +1,14 @@
 package com.insurance.service;
 
-import com.insurance.data.InsuranceDataManager;
+import com.insurance.data.InsuranceRepository;
 import com.insurance.factory.InsuranceFactory;
 import com.insurance.model.Claim;
 import com.insurance.model.Policy;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Implementation of IClaimService.
@@ -14,36 +16,47 @@ import java.util.List;
  */
 public class ClaimService implements IClaimService {
 
-    private final InsuranceDataManager dataManager;
+    private final InsuranceRepository repository;
+    private final Executor executor;
 
     /**
      * Creates a new ClaimService.
      *
-     * @param dataManager the data manager for persisting claims
+     * @param repository the repository for persisting claims
+     * @param executor   runs the asynchronous variants of the operations
      */
-    public ClaimService(InsuranceDataManager dataManager) {
-        this.dataManager = dataManager;
+    public ClaimService(InsuranceRepository repository, Executor executor) {
+        this.repository = repository;
+        this.executor = executor;
     }
 
     @Override
     public Claim submitClaim(String policyId, String description, LocalDate claimDate) {
         // Verify the policy exists
-        Policy policy = dataManager.getPolicyById(policyId);
+        Policy policy = repository.getPolicyById(policyId);
         if (policy == null) {
             throw new IllegalArgumentException("Policy not found: " + policyId);
         }
 
         // Create and save the claim
         Claim claim = InsuranceFactory.createClaim(policyId, description, claimDate);
-        dataManager.saveClaim(claim);
+        repository.saveClaim(claim);
 
         return claim;
     }
 
     @Override
     public List<Claim> getClaimsByPolicy(String policyId) {
-        return dataManager.getClaimsByPolicyId(policyId);
+        return repository.getClaimsByPolicyId(policyId);
     }
 
+    @Override
+    public CompletableFuture<Claim> submitClaimAsync(String policyId, String description, LocalDate claimDate) {
+        return CompletableFuture.supplyAsync(() -> submitClaim(policyId, description, claimDate), executor);
+    }
 
+    @Override
+    public CompletableFuture<List<Claim>> getClaimsByPolicyAsync(String policyId) {
+        return CompletableFuture.supplyAsync(() -> getClaimsByPolicy(policyId), executor);
+    }
 }
@@ -1,9 +1,17 @@
 package com.insurance.service;
 
-import com.insurance.data.InsuranceDataManager;
+import com.insurance.data.InsuranceRepository;
+import com.insurance.factory.IdGenerator;
 import com.insurance.model.Policy;
+import com.insurance.model.PolicyCriteria;
+import com.insurance.transfer.PolicyExporter;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * Implementation of IDataService.
@@ -11,24 +19,104 @@ import java.util.List;
  */
 public class DataService implements IDataService {
 
-    private final InsuranceDataManager dataManager;
+    private final InsuranceRepository repository;
+    private final Executor executor;
 
     /**
      * Creates a new DataService.
      *
-     * @param dataManager the data manager to delegate to
+     * @param repository the repository to delegate to
+     * @param executor   runs the asynchronous variants of the reads
      */
-    public DataService(InsuranceDataManager dataManager) {
-        this.dataManager = dataManager;
+    public DataService(InsuranceRepository repository, Executor executor) {
+        this.repository = repository;
+        this.executor = executor;
     }
 
     @Override
     public List<Policy> getAllPolicies() {
-        return dataManager.getAllPolicies();
+        return repository.getAllPolicies();
+    }
+
+    @Override
+    public int getPolicyCount() {
+        return repository.getPolicyCount();
+    }
+
+    @Override
+    public List<Policy> getPolicies(int offset, int limit) {
+        return repository.getPolicies(offset, limit);
+    }
+
+    @Override
+    public List<Policy> getPoliciesAfter(String afterId, int limit) {
+        return repository.getPoliciesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Policy> findPolicies(PolicyCriteria criteria) {
+        return repository.findPolicies(criteria);
     }
 
     @Override
     public Policy getPolicyById(String policyId) {
-        return dataManager.getPolicyById(policyId);
+        Policy policy = repository.getPolicyById(policyId);
+        if (policy == null && policyId != null) {
+            // The ID may have been typed in lower case or with hyphens
+            long id = IdGenerator.decode(policyId);
+            if (id >= 0) {
+                policy = repository.getPolicyById(IdGenerator.encodeBase32(id));
+                if (policy == null) {
+                    policy = repository.getPolicyById(IdGenerator.encodeDecimal(id));
+                }
+            }
+        }
+        return policy;
+    }
+
+    @Override
+    public long exportData(Path file, PolicyExporter.Content content) throws IOException {
+        return new PolicyExporter(repository, PolicyExporter.DEFAULT_PAGE_SIZE).export(file, content);
+    }
+
+    @Override
+    public CompletableFuture<List<Policy>> getAllPoliciesAsync() {
+        return CompletableFuture.supplyAsync(this::getAllPolicies, executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getPolicyCountAsync() {
+        return CompletableFuture.supplyAsync(this::getPolicyCount, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Policy>> getPoliciesAsync(int offset, int limit) {
+        return CompletableFuture.supplyAsync(() -> getPolicies(offset, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Policy>> getPoliciesAfterAsync(String afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> getPoliciesAfter(afterId, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<Policy>> findPoliciesAsync(PolicyCriteria criteria) {
+        return CompletableFuture.supplyAsync(() -> findPolicies(criteria), executor);
+    }
+
+    @Override
+    public CompletableFuture<Policy> getPolicyByIdAsync(String policyId) {
+        return CompletableFuture.supplyAsync(() -> getPolicyById(policyId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> exportDataAsync(Path file, PolicyExporter.Content content) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return exportData(file, content);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.insurance.service;
+
+/**
+ * Service interface for completing policy IDs and customer names as they are typed.
+ * Completions are written into a caller-supplied array so that a lookup per keystroke
+ * does not allocate.
+ */
+public interface IAutocompleteService {
+
+    /**
+     * Completes a policy ID prefix, ignoring case.
+     *
+     * @param prefix      the typed prefix
+     * @param completions receives the matching policy IDs in sorted order
+     * @return the number of IDs written, at most {@code completions.length}
+     */
+    int completePolicyIds(CharSequence prefix, String[] completions);
+
+    /**
+     * Completes a customer name prefix. Names are completed as "first last" in lower case;
+     * case and repeated whitespace in the prefix are ignored.
+     *
+     * @param prefix      the typed prefix
+     * @param completions receives the matching customer names in sorted order
+     * @return the number of names written, at most {@code completions.length}
+     */
+    int completeCustomerNames(CharSequence prefix, String[] completions);
+}
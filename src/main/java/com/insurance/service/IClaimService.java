@@ -4,6 +4,7 @@ import com.insurance.model.Claim;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for managing insurance claims.
@@ -17,6 +18,8 @@ public interface IClaimService {
      * @param description claim description
      * @param claimDate   date the claim is submitted
      * @return the created claim
+     * @throws IllegalArgumentException if the policy does not exist
+     * @throws IllegalStateException    if the claim could not be stored
      */
     Claim submitClaim(String policyId, String description, LocalDate claimDate);
 
@@ -28,6 +31,22 @@ public interface IClaimService {
      */
     List<Claim> getClaimsByPolicy(String policyId);
 
+    /**
+     * Submits a new claim for an existing policy in the background.
+     * The future fails with an IllegalArgumentException if the policy does not exist.
+     *
+     * @param policyId    the ID of the policy to claim against
+     * @param description claim description
+     * @param claimDate   date the claim is submitted
+     * @return a future completed with the created claim
+     */
+    CompletableFuture<Claim> submitClaimAsync(String policyId, String description, LocalDate claimDate);
 
-
+    /**
+     * Returns all claims associated with a specific policy, read in the background.
+     *
+     * @param policyId the policy ID to filter by
+     * @return a future completed with the claims for that policy
+     */
+    CompletableFuture<List<Claim>> getClaimsByPolicyAsync(String policyId);
 }
\ No newline at end of file
@@ -25,4 +25,159 @@ public interface IConfigService {
      * @return the developer names
      */
     String getDeveloperNames();
+
+    /**
+     * Returns the journal size in bytes above which it is compacted into a new data file snapshot.
+     *
+     * @return the compaction threshold in bytes
+     */
+    long getJournalCompactionThresholdBytes();
+
+    /**
+     * Returns whether journal writes are batched by the group-commit writer.
+     *
+     * @return true if group commit is enabled
+     */
+    boolean isGroupCommitEnabled();
+
+    /**
+     * Returns how long the group-commit writer collects mutations before flushing them together.
+     *
+     * @return the group-commit window in milliseconds
+     */
+    long getGroupCommitWindowMillis();
+
+    /**
+     * Returns the on-disk format of the data file snapshot ("json", "ndjson" or "binary").
+     *
+     * @return the snapshot format name
+     */
+    String getSnapshotFormat();
+
+    /**
+     * Returns whether JSON snapshots are indented for reading, or written on one line.
+     *
+     * @return true to pretty-print JSON snapshots
+     */
+    boolean isSnapshotPrettyPrint();
+
+    /**
+     * Returns the persistence backend: "file" for the journaled data file or "jdbc" for the embedded SQL database.
+     *
+     * @return the storage backend name
+     */
+    String getStorageBackend();
+
+    /**
+     * Returns the JDBC URL of the embedded SQL database used by the "jdbc" backend.
+     *
+     * @return the JDBC URL
+     */
+    String getJdbcUrl();
+
+    /**
+     * Returns how many hash-partitioned data shards each insurance type is split into.
+     * Zero keeps all data in a single data file.
+     *
+     * @return the number of shards per insurance type
+     */
+    int getDataShardsPerType();
+
+    /**
+     * Returns how the file backend holds policies in memory: "map" for one object per
+     * policy, or "columnar" for the compact column store.
+     *
+     * @return the policy store name
+     */
+    String getPolicyStore();
+
+    /**
+     * Returns whether transaction log lines are written by a background thread
+     * instead of synchronously by each caller.
+     *
+     * @return true if asynchronous logging is enabled
+     */
+    boolean isAsyncLoggingEnabled();
+
+    /**
+     * Returns how many log lines can wait in memory when logging asynchronously.
+     *
+     * @return the log buffer capacity in lines
+     */
+    int getLogBufferCapacity();
+
+    /**
+     * Returns the longest a log line waits in memory before it is written when logging asynchronously.
+     *
+     * @return the log flush interval in milliseconds
+     */
+    long getLogFlushIntervalMillis();
+
+    /**
+     * Returns what a caller does when the asynchronous log buffer is full:
+     * "block" to wait for room, or "drop" to discard the line.
+     *
+     * @return the backpressure policy name
+     */
+    String getLogBackpressure();
+
+    /**
+     * Returns the size after which the transaction log file is rolled over into a segment.
+     *
+     * @return the maximum log file size in bytes
+     */
+    long getLogMaxFileBytes();
+
+    /**
+     * Returns whether the transaction log file is also rolled over when the day changes.
+     *
+     * @return true if the log is rotated daily
+     */
+    boolean isLogRotateDaily();
+
+    /**
+     * Returns how many days rolled-over log segments are kept. Zero keeps them forever.
+     *
+     * @return the log retention in days
+     */
+    int getLogRetentionDays();
+
+    /**
+     * Returns how many rolled-over log segments are kept, newest first. Zero keeps all.
+     *
+     * @return the maximum number of log segments
+     */
+    int getLogMaxSegments();
+
+    /**
+     * Returns the node number preferred for generated IDs. Processes sharing a data store
+     * need different node numbers, so each leases its own: this one if it is free, otherwise
+     * the next node no running process holds.
+     *
+     * @return the preferred node number, from 0 to 1023
+     */
+    int getIdNodeId();
+
+    /**
+     * Returns how generated IDs are written: "base32" or "decimal".
+     *
+     * @return the ID encoding
+     */
+    String getIdEncoding();
+
+    /**
+     * Returns whether the data files are watched for changes made by other instances of the
+     * application sharing the data directory, so that they are applied while running.
+     *
+     * @return true if the data files are watched
+     */
+    boolean isDataWatchEnabled();
+
+    /**
+     * Returns how often the data files are checked for changes when no file system event
+     * arrives, as on network shares that do not report changes.
+     *
+     * @return the poll interval in milliseconds
+     */
+    long getDataWatchPollMillis();
 }
\ No newline at end of file
@@ -1,11 +1,18 @@
 package com.insurance.service;
 
 import com.insurance.model.Policy;
+import com.insurance.model.PolicyCriteria;
+import com.insurance.transfer.PolicyExporter;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for reading policy data.
+ * Each read has a variant returning a CompletableFuture that runs in the background,
+ * for callers such as the UI thread that must not block on storage.
  */
 public interface IDataService {
 
@@ -17,10 +24,117 @@ public interface IDataService {
     List<Policy> getAllPolicies();
 
     /**
-     * Returns a specific policy by its ID.
+     * Returns the number of saved policies.
+     *
+     * @return the policy count
+     */
+    int getPolicyCount();
+
+    /**
+     * Returns one page of policies, ordered by policy ID.
+     *
+     * @param offset zero-based position of the first policy to return
+     * @param limit  maximum number of policies to return
+     * @return the policies of the page, possibly empty
+     */
+    List<Policy> getPolicies(int offset, int limit);
+
+    /**
+     * Returns the policies that follow a cursor, ordered by policy ID.
+     * Pass the ID of the last policy of a page to get the next page; unlike offset
+     * paging, pages stay consistent while policies are added or deleted.
+     *
+     * @param afterId the ID of the last policy already seen, or null to start from the beginning
+     * @param limit   maximum number of policies to return
+     * @return the policies of the page, possibly empty
+     */
+    List<Policy> getPoliciesAfter(String afterId, int limit);
+
+    /**
+     * Returns the policies matching the given criteria, sorted and limited as the criteria specify.
+     *
+     * @param criteria the filters, sort keys and limit to apply
+     * @return the matching policies
+     */
+    List<Policy> findPolicies(PolicyCriteria criteria);
+
+    /**
+     * Returns a specific policy by its ID. Generated IDs are also found when typed
+     * leniently, see {@link com.insurance.factory.IdGenerator#decode(String)}.
      *
      * @param policyId the policy ID to search for
      * @return the matching policy, or null if not found
      */
     Policy getPolicyById(String policyId);
+
+    /**
+     * Streams policies and/or claims to a CSV or NDJSON file, see {@link PolicyExporter}
+     * for the formats. Memory use does not grow with the size of the store.
+     *
+     * @param file    the file to write, replaced once the export is complete
+     * @param content what to export
+     * @return the number of records written
+     * @throws IOException if the file cannot be written or is not a supported format
+     */
+    long exportData(Path file, PolicyExporter.Content content) throws IOException;
+
+    /**
+     * Returns all saved policies, read in the background.
+     *
+     * @return a future completed with the list of all policies
+     */
+    CompletableFuture<List<Policy>> getAllPoliciesAsync();
+
+    /**
+     * Returns the number of saved policies, read in the background.
+     *
+     * @return a future completed with the policy count
+     */
+    CompletableFuture<Integer> getPolicyCountAsync();
+
+    /**
+     * Returns one page of policies ordered by policy ID, read in the background.
+     *
+     * @param offset zero-based position of the first policy to return
+     * @param limit  maximum number of policies to return
+     * @return a future completed with the policies of the page
+     * @see #getPolicies(int, int)
+     */
+    CompletableFuture<List<Policy>> getPoliciesAsync(int offset, int limit);
+
+    /**
+     * Returns the policies that follow a cursor ordered by policy ID, read in the background.
+     *
+     * @param afterId the ID of the last policy already seen, or null to start from the beginning
+     * @param limit   maximum number of policies to return
+     * @return a future completed with the policies of the page
+     * @see #getPoliciesAfter(String, int)
+     */
+    CompletableFuture<List<Policy>> getPoliciesAfterAsync(String afterId, int limit);
+
+    /**
+     * Returns the policies matching the given criteria, read in the background.
+     *
+     * @param criteria the filters, sort keys and limit to apply
+     * @return a future completed with the matching policies
+     */
+    CompletableFuture<List<Policy>> findPoliciesAsync(PolicyCriteria criteria);
+
+    /**
+     * Returns a specific policy by its ID, read in the background.
+     *
+     * @param policyId the policy ID to search for
+     * @return a future completed with the matching policy, or with null if not found
+     */
+    CompletableFuture<Policy> getPolicyByIdAsync(String policyId);
+
+    /**
+     * Streams policies and/or claims to a file in the background.
+     *
+     * @param file    the file to write
+     * @param content what to export
+     * @return a future completed with the number of records written, or failed with the IOException
+     * @see #exportData(Path, PolicyExporter.Content)
+     */
+    CompletableFuture<Long> exportDataAsync(Path file, PolicyExporter.Content content);
 }
\ No newline at end of file
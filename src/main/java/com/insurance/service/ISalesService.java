@@ -1,9 +1,13 @@
 package com.insurance.service;
 
+import com.insurance.model.ImportReport;
 import com.insurance.model.InsuranceType;
 import com.insurance.model.Policy;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service interface for selling insurance policies.
@@ -19,6 +23,7 @@ public interface ISalesService {
      * @param remarks   additional remarks
      * @param type      the type of insurance
      * @return the created policy
+     * @throws IllegalStateException if the policy could not be stored; nothing is logged or notified then
      */
     Policy createPolicy(String firstName, String lastName, LocalDate date, String remarks, InsuranceType type);
 
@@ -27,9 +32,41 @@ public interface ISalesService {
      *
      * @param policyId the ID of the policy to delete
      * @return true if the policy was found and deleted, false otherwise
+     * @throws IllegalStateException if the deletion could not be stored
      */
     boolean deletePolicy(String policyId);
 
+    /**
+     * Creates and saves a new insurance policy in the background.
+     *
+     * @param firstName customer first name
+     * @param lastName  customer last name
+     * @param date      policy date
+     * @param remarks   additional remarks
+     * @param type      the type of insurance
+     * @return a future completed with the created policy
+     */
+    CompletableFuture<Policy> createPolicyAsync(String firstName, String lastName, LocalDate date, String remarks, InsuranceType type);
+
+    /**
+     * Deletes a policy by its ID in the background.
+     *
+     * @param policyId the ID of the policy to delete
+     * @return a future completed with true if the policy was found and deleted
+     */
+    CompletableFuture<Boolean> deletePolicyAsync(String policyId);
+
+    /**
+     * Imports policies from a CSV or NDJSON file, see {@link com.insurance.transfer.PolicyImporter}
+     * for the accepted formats. Valid rows are saved and logged in batches; invalid rows are
+     * skipped and listed in the report. Observers are notified once, after the import.
+     *
+     * @param file the file to import
+     * @return the import report
+     * @throws IOException if the file cannot be read or is not a supported format
+     */
+    ImportReport importPolicies(Path file) throws IOException;
+
     /**
      * Registers an observer to be notified when a policy is created or deleted.
      *
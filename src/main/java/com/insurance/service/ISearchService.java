@@ -0,0 +1,42 @@
+package com.insurance.service;
+
+import com.insurance.model.CustomerMatch;
+import com.insurance.model.SearchHit;
+
+import java.util.List;
+
+/**
+ * Service interface for full-text search over policy remarks and claim descriptions,
+ * and for typo-tolerant customer name lookup.
+ */
+public interface ISearchService {
+
+    /**
+     * Searches policy remarks and claim descriptions.
+     * Terms are combined with AND; quoted text matches a phrase; OR, NOT, "-" and
+     * parentheses build boolean queries.
+     *
+     * @param query the search query, e.g. {@code "water damage" -glass}
+     * @param limit the maximum number of hits to return
+     * @return the hits, most relevant first
+     */
+    List<SearchHit> search(String query, int limit);
+
+    /**
+     * Finds the customers whose full name ("first last") is closest to the given name,
+     * tolerating typos. Insertions, deletions, substitutions and swaps of adjacent
+     * letters each count as one edit; case and extra whitespace are ignored.
+     *
+     * @param name        the customer name to look up, e.g. {@code "jon smtih"}
+     * @param maxDistance the largest number of edits to accept
+     * @param limit       the maximum number of customers to return
+     * @return the matching customers, closest first
+     */
+    List<CustomerMatch> findCustomers(String name, int maxDistance, int limit);
+
+    /**
+     * Saves the full-text index so the next start does not need to rebuild it.
+     * Should be called once when the application shuts down.
+     */
+    void close();
+}
@@ -2,6 +2,8 @@ package com.insurance.service;
 
 import com.insurance.model.Policy;
 
+import java.util.List;
+
 /**
  * Observer interface for policy lifecycle events.
  * Classes that want to be notified when policies are created or deleted
@@ -20,4 +22,31 @@ public interface PolicyObserver {
      * @param policyId the ID of the deleted policy
      */
     void onPolicyDeleted(String policyId);
+
+    /**
+     * Called once after a bulk import, instead of once per imported policy.
+     * By default each policy is passed to {@link #onPolicyCreated(Policy)}.
+     * @param policies the imported policies
+     */
+    default void onPoliciesImported(List<Policy> policies) {
+        for (Policy policy : policies) {
+            onPolicyCreated(policy);
+        }
+    }
+
+    /**
+     * Called when another instance of the application sharing the data files saved or deleted policies.
+     * By default the saved policies are passed to {@link #onPoliciesImported(List)} and each deleted
+     * ID to {@link #onPolicyDeleted(String)}.
+     * @param savedPolicies the policies added or changed by the other instance
+     * @param deletedPolicyIds the IDs of the policies it deleted
+     */
+    default void onExternalChanges(List<Policy> savedPolicies, List<String> deletedPolicyIds) {
+        if (!savedPolicies.isEmpty()) {
+            onPoliciesImported(savedPolicies);
+        }
+        for (String policyId : deletedPolicyIds) {
+            onPolicyDeleted(policyId);
+        }
+    }
 }
\ No newline at end of file
@@ -1,15 +1,24 @@
 package com.insurance.service;
 
-import com.insurance.data.InsuranceDataManager;
+import com.insurance.data.DataChangeListener;
+import com.insurance.data.InsuranceRepository;
 import com.insurance.factory.InsuranceFactory;
 import com.insurance.logger.AppLogger;
+import com.insurance.model.Claim;
+import com.insurance.model.ImportReport;
 import com.insurance.model.InsuranceType;
 import com.insurance.model.Policy;
+import com.insurance.transfer.PolicyImporter;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * Implementation of ISalesService.
@@ -18,17 +27,24 @@ import java.util.List;
  */
 public class SalesService implements ISalesService {
 
-    private final InsuranceDataManager dataManager;
-    private final List<PolicyObserver> observers = new ArrayList<>();
+    private final InsuranceRepository repository;
+    private final Executor executor;
+    // Observers are notified from background threads while the UI may register or remove them
+    private final List<PolicyObserver> observers = new CopyOnWriteArrayList<>();
     private static final DateTimeFormatter LOG_DATE_FORMAT = DateTimeFormatter.ofPattern("d.M.yyyy");
 
     /**
      * Creates a new SalesService.
+     * Policies saved or deleted by other instances sharing the repository's data files
+     * are passed on to the observers as well.
      *
-     * @param dataManager the data manager for persisting policies
+     * @param repository the repository for persisting policies
+     * @param executor   runs the asynchronous variants of the operations
      */
-    public SalesService(InsuranceDataManager dataManager) {
-        this.dataManager = dataManager;
+    public SalesService(InsuranceRepository repository, Executor executor) {
+        this.repository = repository;
+        this.executor = executor;
+        repository.addChangeListener(new ExternalChangeForwarder());
     }
 
     @Override
@@ -37,8 +53,8 @@ public class SalesService implements ISalesService {
         // Create the policy using the factory
         Policy policy = InsuranceFactory.createPolicy(firstName, lastName, date, remarks, type);
 
-        // Save to data file
-        dataManager.savePolicy(policy);
+        // Save to data file; a failed save throws, so it is neither logged nor notified
+        repository.savePolicy(policy);
 
         // Log the transaction
         String formattedDate = date.format(LOG_DATE_FORMAT);
@@ -53,9 +69,9 @@ public class SalesService implements ISalesService {
     @Override
     public boolean deletePolicy(String policyId) {
         // Look up policy details before deletion for informative logging
-        Policy policy = dataManager.getPolicyById(policyId);
+        Policy policy = repository.getPolicyById(policyId);
 
-        boolean deleted = dataManager.deletePolicy(policyId);
+        boolean deleted = repository.deletePolicy(policyId);
 
         if (deleted) {
             // Log the deletion with full policy details
@@ -75,6 +91,43 @@ public class SalesService implements ISalesService {
         return deleted;
     }
 
+    @Override
+    public CompletableFuture<Policy> createPolicyAsync(String firstName, String lastName, LocalDate date,
+                                                       String remarks, InsuranceType type) {
+        return CompletableFuture.supplyAsync(() -> createPolicy(firstName, lastName, date, remarks, type), executor);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> deletePolicyAsync(String policyId) {
+        return CompletableFuture.supplyAsync(() -> deletePolicy(policyId), executor);
+    }
+
+    @Override
+    public ImportReport importPolicies(Path file) throws IOException {
+        List<Policy> imported = new ArrayList<>();
+        PolicyImporter importer = new PolicyImporter(PolicyImporter.DEFAULT_BATCH_SIZE);
+        // Rows whose ID is already taken are rejected instead of overwriting that policy
+        ImportReport report = importer.importFile(file, id -> repository.getPolicyById(id) != null, batch -> {
+            // One journal append per shard for the whole batch instead of one per policy
+            List<Policy> saved = repository.savePolicies(batch);
+
+            List<String[]> records = new ArrayList<>(saved.size());
+            for (Policy policy : saved) {
+                records.add(new String[] {policy.getFirstName(), policy.getLastName(),
+                        policy.getDate().format(LOG_DATE_FORMAT), policy.getRemarks(),
+                        policy.getType().getDisplayName() + " (IMPORT)"});
+            }
+            AppLogger.getInstance().logAll(records);
+            imported.addAll(saved);
+            return saved;
+        });
+
+        if (!imported.isEmpty()) {
+            notifyObserversImported(imported);
+        }
+        return report;
+    }
+
     @Override
     public void addPolicyObserver(PolicyObserver observer) {
         observers.add(observer);
@@ -106,4 +159,41 @@ public class SalesService implements ISalesService {
             observer.onPolicyDeleted(policyId);
         }
     }
+
+    /**
+     * Notifies all registered observers that policies were imported.
+     *
+     * @param policies the imported policies
+     */
+    private void notifyObserversImported(List<Policy> policies) {
+        for (PolicyObserver observer : observers) {
+            observer.onPoliciesImported(policies);
+        }
+    }
+
+    /**
+     * Passes changes made by other instances on to the observers.
+     * Changes made through this service are notified by the service itself.
+     */
+    private class ExternalChangeForwarder implements DataChangeListener {
+
+        @Override
+        public void onPolicySaved(Policy policy) {
+        }
+
+        @Override
+        public void onPolicyDeleted(String policyId) {
+        }
+
+        @Override
+        public void onClaimSaved(Claim claim) {
+        }
+
+        @Override
+        public void onExternalChanges(List<Policy> savedPolicies, List<String> deletedPolicyIds) {
+            for (PolicyObserver observer : observers) {
+                observer.onExternalChanges(savedPolicies, deletedPolicyIds);
+            }
+        }
+    }
 }
\ No newline at end of file
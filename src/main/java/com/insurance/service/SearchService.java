@@ -0,0 +1,158 @@
+package com.insurance.service;
+
+import com.insurance.data.DataChangeListener;
+import com.insurance.data.InsuranceRepository;
+import com.insurance.index.FuzzyNameIndex;
+import com.insurance.index.InvertedIndex;
+import com.insurance.model.Claim;
+import com.insurance.model.CustomerMatch;
+import com.insurance.model.Policy;
+import com.insurance.model.SearchHit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of ISearchService backed by an {@link InvertedIndex}.
+ *
+ * The index holds one document per policy (its remarks) and one per claim (its
+ * description). It is kept up to date by listening to repository changes, and is
+ * saved next to the data file on shutdown. On startup the saved index is used if
+ * its fingerprint matches the current data; otherwise it is rebuilt.
+ * Claims of a deleted policy are dropped from the index together with the policy.
+ *
+ * Customer names are held in a {@link FuzzyNameIndex}, built in memory on startup
+ * and kept up to date the same way.
+ */
+public class SearchService implements ISearchService, DataChangeListener {
+
+    private static final Path INDEX_FILE = Paths.get("database", "purchases.index");
+    private static final String POLICY_KEY = "P:";
+    private static final String CLAIM_KEY = "C:";
+
+    private final InsuranceRepository repository;
+    private final FuzzyNameIndex names = new FuzzyNameIndex();
+    private final InvertedIndex index;
+
+    /**
+     * Creates a new SearchService, loading or building its index.
+     * The service must then be registered as a change listener of the repository,
+     * so that the index follows later mutations.
+     *
+     * @param repository the repository whose policies and claims are searched
+     */
+    public SearchService(InsuranceRepository repository) {
+        this.repository = repository;
+        this.index = openIndex();
+    }
+
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        List<SearchHit> hits = new ArrayList<>();
+        for (InvertedIndex.Hit hit : index.search(query, limit)) {
+            String key = hit.getKey();
+            if (key.startsWith(POLICY_KEY)) {
+                String policyId = key.substring(POLICY_KEY.length());
+                hits.add(new SearchHit(SearchHit.Source.POLICY_REMARKS, policyId, policyId, hit.getScore()));
+            } else {
+                hits.add(new SearchHit(SearchHit.Source.CLAIM_DESCRIPTION,
+                        key.substring(CLAIM_KEY.length()), hit.getPayload(), hit.getScore()));
+            }
+        }
+        return hits;
+    }
+
+    @Override
+    public List<CustomerMatch> findCustomers(String name, int maxDistance, int limit) {
+        List<CustomerMatch> customers = new ArrayList<>();
+        for (FuzzyNameIndex.Match match : names.search(name, maxDistance, limit)) {
+            customers.add(new CustomerMatch(match.getName(), match.getDistance(), match.getIds()));
+        }
+        return customers;
+    }
+
+    @Override
+    public void close() {
+        repository.removeChangeListener(this);
+        try {
+            index.save(INDEX_FILE);
+        } catch (IOException e) {
+            System.err.println("Failed to save search index: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPolicySaved(Policy policy) {
+        names.put(policy.getId(), customerName(policy));
+        index.put(POLICY_KEY + policy.getId(), policy.getRemarks(), null);
+    }
+
+    @Override
+    public void onPolicyDeleted(String policyId) {
+        names.remove(policyId);
+        index.remove(POLICY_KEY + policyId);
+        for (Claim claim : repository.getClaimsByPolicyId(policyId)) {
+            index.remove(CLAIM_KEY + claim.getId());
+        }
+    }
+
+    @Override
+    public void onClaimSaved(Claim claim) {
+        index.put(CLAIM_KEY + claim.getId(), claim.getDescription(), claim.getPolicyId());
+    }
+
+    /**
+     * Loads the saved index if it matches the current data, otherwise builds a new one.
+     */
+    private InvertedIndex openIndex() {
+        List<Policy> policies = repository.getAllPolicies();
+        long expected = 0;
+        Map<String, String> customerNames = new HashMap<>(policies.size() * 2);
+        for (Policy policy : policies) {
+            customerNames.put(policy.getId(), customerName(policy));
+            expected += InvertedIndex.fingerprintOf(POLICY_KEY + policy.getId(), policy.getRemarks(), null);
+        }
+        // One read of all claims, grouped by policy; claims of deleted policies are not indexed
+        Map<String, List<Claim>> claimsByPolicy = new HashMap<>();
+        for (Claim claim : repository.getAllClaims()) {
+            if (customerNames.containsKey(claim.getPolicyId())) {
+                claimsByPolicy.computeIfAbsent(claim.getPolicyId(), id -> new ArrayList<>()).add(claim);
+                expected += InvertedIndex.fingerprintOf(CLAIM_KEY + claim.getId(), claim.getDescription(), claim.getPolicyId());
+            }
+        }
+        names.putAll(customerNames);
+
+        if (Files.exists(INDEX_FILE)) {
+            try {
+                InvertedIndex saved = InvertedIndex.load(INDEX_FILE);
+                if (saved.getFingerprint() == expected) {
+                    return saved;
+                }
+                System.err.println("Search index is out of date, rebuilding.");
+            } catch (IOException e) {
+                System.err.println("Failed to load search index, rebuilding: " + e.getMessage());
+            }
+        }
+
+        InvertedIndex built = new InvertedIndex();
+        for (Policy policy : policies) {
+            built.put(POLICY_KEY + policy.getId(), policy.getRemarks(), null);
+            for (Claim claim : claimsByPolicy.getOrDefault(policy.getId(), List.of())) {
+                built.put(CLAIM_KEY + claim.getId(), claim.getDescription(), claim.getPolicyId());
+            }
+        }
+        return built;
+    }
+
+    private static String customerName(Policy policy) {
+        String first = policy.getFirstName() == null ? "" : policy.getFirstName();
+        String last = policy.getLastName() == null ? "" : policy.getLastName();
+        return first + " " + last;
+    }
+}
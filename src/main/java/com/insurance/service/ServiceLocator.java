@@ -2,6 +2,14 @@ package com.insurance.service;
 
 import com.insurance.config.ConfigService;
 import com.insurance.data.InsuranceDataManager;
+import com.insurance.data.InsuranceRepository;
+import com.insurance.data.JdbcInsuranceRepository;
+import com.insurance.factory.IdGenerator;
+import com.insurance.logger.AppLogger;
+
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Central access point for all application services.
@@ -13,6 +21,10 @@ public class ServiceLocator {
     private static IClaimService claimService;
     private static IDataService dataService;
     private static IConfigService configService;
+    private static ISearchService searchService;
+    private static AutocompleteService autocompleteService;
+    private static InsuranceRepository repository;
+    private static ExecutorService executor;
 
     /** Private constructor to prevent instantiation. */
     private ServiceLocator() {
@@ -23,12 +35,66 @@ public class ServiceLocator {
      * Must be called once at application startup.
      */
     public static void initialize() {
-        InsuranceDataManager dataManager = new InsuranceDataManager();
-
         configService = ConfigService.getInstance();
-        salesService = new SalesService(dataManager);
-        claimService = new ClaimService(dataManager);
-        dataService = new DataService(dataManager);
+
+        repository = createRepository(configService);
+        repository.load();
+
+        // Every process sharing the data directory leases its own node, so their IDs never collide
+        IdGenerator.getInstance().configureLeased(Paths.get("database"), configService.getIdNodeId(),
+                configService.getIdEncoding());
+
+        AppLogger.getInstance().configureRotation(configService.getLogMaxFileBytes(),
+                configService.isLogRotateDaily(), configService.getLogRetentionDays(),
+                configService.getLogMaxSegments());
+        if (configService.isAsyncLoggingEnabled()) {
+            AppLogger.getInstance().startAsync(configService.getLogBufferCapacity(),
+                    configService.getLogFlushIntervalMillis(), configService.getLogBackpressure());
+        }
+
+        // Runs the asynchronous service variants; blocking storage calls park a virtual thread, not the UI
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        salesService = new SalesService(repository, executor);
+        claimService = new ClaimService(repository, executor);
+        dataService = new DataService(repository, executor);
+        SearchService search = new SearchService(repository);
+        repository.addChangeListener(search);
+        searchService = search;
+        autocompleteService = new AutocompleteService(repository);
+        salesService.addPolicyObserver(autocompleteService);
+    }
+
+    /**
+     * Releases resources held by the services, flushing pending data to disk.
+     * Should be called once when the application shuts down.
+     */
+    public static void shutdown() {
+        if (executor != null) {
+            // Waits for submitted work, such as a save still in progress, before storage is closed
+            executor.close();
+        }
+        if (searchService != null) {
+            searchService.close();
+        }
+        if (repository != null) {
+            repository.close();
+        }
+        // Writes log lines still buffered by asynchronous logging
+        AppLogger.getInstance().close();
+    }
+
+    /**
+     * Creates the persistence backend selected in the configuration.
+     *
+     * @param config the configuration service
+     * @return the embedded SQL repository if "jdbc" is configured, otherwise the file-based data manager
+     */
+    private static InsuranceRepository createRepository(IConfigService config) {
+        if ("jdbc".equalsIgnoreCase(config.getStorageBackend())) {
+            return new JdbcInsuranceRepository(config.getJdbcUrl());
+        }
+        return new InsuranceDataManager(config);
     }
 
     /**
@@ -58,6 +124,24 @@ public class ServiceLocator {
         return dataService;
     }
 
+    /**
+     * Returns the search service for full-text search over remarks and claim descriptions.
+     *
+     * @return the search service
+     */
+    public static ISearchService getSearchService() {
+        return searchService;
+    }
+
+    /**
+     * Returns the autocomplete service for policy IDs and customer names.
+     *
+     * @return the autocomplete service
+     */
+    public static IAutocompleteService getAutocompleteService() {
+        return autocompleteService;
+    }
+
     /**
      * Returns the config service for application settings.
      *
@@ -0,0 +1,63 @@
+package com.insurance.transfer;
+
+import com.insurance.service.ServiceLocator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Command-line tool that exports the configured data store to a file,
+ * for example for a nightly data warehouse extract.
+ *
+ * Usage: {@code ExportCommand <policies|claims|joined> <file>}, where the file is a .csv,
+ * .ndjson or .jsonl file, optionally gzip-compressed (.gz). "joined" exports each policy
+ * with its claims, see {@link PolicyExporter.Content#POLICIES_WITH_CLAIMS}.
+ */
+public class ExportCommand {
+
+    /** Private constructor to prevent instantiation. */
+    private ExportCommand() {
+    }
+
+    /**
+     * Entry point of the export tool.
+     *
+     * @param args what to export and the file to write
+     * @throws IOException if the file could not be written
+     */
+    public static void main(String[] args) throws IOException {
+        PolicyExporter.Content content = args.length == 2 ? parseContent(args[0]) : null;
+        if (content == null) {
+            System.err.println("Usage: ExportCommand <policies|claims|joined> <file.csv|file.ndjson>[.gz]");
+            System.exit(1);
+        }
+        Path file = Paths.get(args[1]);
+
+        ServiceLocator.initialize();
+        try {
+            long start = System.nanoTime();
+            long records = ServiceLocator.getDataService().exportData(file, content);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            System.out.printf("Exported %,d records to %s (%,d bytes) in %,d ms%n",
+                    records, file, Files.size(file), elapsedMillis);
+        } finally {
+            ServiceLocator.shutdown();
+        }
+    }
+
+    private static PolicyExporter.Content parseContent(String argument) {
+        switch (argument.toLowerCase(Locale.ROOT)) {
+            case "policies":
+                return PolicyExporter.Content.POLICIES;
+            case "claims":
+                return PolicyExporter.Content.CLAIMS;
+            case "joined":
+                return PolicyExporter.Content.POLICIES_WITH_CLAIMS;
+            default:
+                return null;
+        }
+    }
+}
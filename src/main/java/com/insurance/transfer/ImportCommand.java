@@ -0,0 +1,52 @@
+package com.insurance.transfer;
+
+import com.insurance.model.ImportReport;
+import com.insurance.service.ServiceLocator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command-line tool that imports policies into the configured data store
+ * and prints the import report.
+ *
+ * Usage: {@code ImportCommand <file>}, where the file is a .csv, .ndjson or .jsonl
+ * file, optionally gzip-compressed (.gz). See {@link PolicyImporter} for the fields.
+ */
+public class ImportCommand {
+
+    /** Private constructor to prevent instantiation. */
+    private ImportCommand() {
+    }
+
+    /**
+     * Entry point of the import tool.
+     *
+     * @param args the file to import
+     * @throws IOException if the file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ImportCommand <policies.csv|policies.ndjson>[.gz]");
+            System.exit(1);
+        }
+        Path file = Paths.get(args[0]);
+
+        ServiceLocator.initialize();
+        try {
+            ImportReport report = ServiceLocator.getSalesService().importPolicies(file);
+            System.out.printf("Imported %s: %,d rows, %,d imported, %,d rejected in %,d ms (%,.0f rows/s)%n",
+                    report.getSource(), report.getRows(), report.getImported(), report.getRejected(),
+                    report.getElapsedMillis(), report.getRowsPerSecond());
+            for (String rejection : report.getRejections()) {
+                System.out.println("  rejected " + rejection);
+            }
+            if (report.getRejected() > report.getRejections().size()) {
+                System.out.printf("  ... and %,d more%n", report.getRejected() - report.getRejections().size());
+            }
+        } finally {
+            ServiceLocator.shutdown();
+        }
+    }
+}
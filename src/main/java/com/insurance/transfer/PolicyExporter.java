@@ -0,0 +1,377 @@
+package com.insurance.transfer;
+
+import com.insurance.data.AtomicFileWriter;
+import com.insurance.data.InsuranceRepository;
+import com.insurance.model.Claim;
+import com.insurance.model.Policy;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams policies and claims from the repository to a CSV or NDJSON file.
+ *
+ * Policies are read page by page in ID order through keyset paging, and the claims of
+ * each page are fetched with one lookup, so memory use depends on the page size only,
+ * not on the size of the store. Changes made while an export runs may or may not be
+ * included, but no policy is written twice. Claims are exported with their policy;
+ * claims of deleted policies are left out.
+ *
+ * The file is written through a buffered file channel into a temporary file that replaces
+ * the target once complete, so an interrupted export never leaves a truncated extract.
+ * The format is taken from the file extension (.csv, .ndjson, .jsonl), optionally followed
+ * by .gz for gzip compression. Field names match the data files and {@link PolicyImporter},
+ * so a policy export can be imported again.
+ */
+public class PolicyExporter {
+
+    /** Number of policies read from the repository at a time unless configured otherwise. */
+    public static final int DEFAULT_PAGE_SIZE = 1_000;
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    /**
+     * What an export contains.
+     */
+    public enum Content {
+        /** One record per policy. */
+        POLICIES,
+        /** One record per claim. */
+        CLAIMS,
+        /**
+         * Policies joined with their claims: in CSV one row per claim repeating the policy
+         * columns, or one row with empty claim columns for a policy without claims; in NDJSON
+         * one record per policy with a "claims" array.
+         */
+        POLICIES_WITH_CLAIMS
+    }
+
+    private final InsuranceRepository repository;
+    private final int pageSize;
+
+    /**
+     * Creates an exporter.
+     *
+     * @param repository the repository to read from
+     * @param pageSize   the number of policies read at a time
+     */
+    public PolicyExporter(InsuranceRepository repository, int pageSize) {
+        this.repository = repository;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * Exports the store to a file, replacing it if it exists.
+     *
+     * @param file    the CSV or NDJSON file to write, optionally with a .gz extension
+     * @param content what to export
+     * @return the number of records written, not counting a CSV header
+     * @throws IOException if the file cannot be written or has an unsupported extension
+     */
+    public long export(Path file, Content content) throws IOException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        RecordFormat format;
+        if (name.endsWith(".csv")) {
+            format = new CsvFormat();
+        } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            format = new NdjsonFormat();
+        } else {
+            throw new IOException("Unsupported export file " + file + "; expected .csv, .ndjson or .jsonl");
+        }
+
+        long[] records = new long[1];
+        AtomicFileWriter.writeChannel(file, channel -> {
+            OutputStream out = Channels.newOutputStream(channel);
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    compressed != null ? compressed : out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            records[0] = write(writer, format, content);
+            writer.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+            // The channel is closed and forced by AtomicFileWriter
+        });
+        return records[0];
+    }
+
+    private long write(Writer writer, RecordFormat format, Content content) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        format.header(line, content);
+        writer.append(line);
+
+        long records = 0;
+        String afterId = null;
+        List<Policy> page;
+        do {
+            page = repository.getPoliciesAfter(afterId, pageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            Map<String, List<Claim>> claims = content == Content.POLICIES
+                    ? Collections.emptyMap()
+                    : repository.getClaimsByPolicyIds(ids(page));
+            for (Policy policy : page) {
+                List<Claim> policyClaims = claims.getOrDefault(policy.getId(), Collections.emptyList());
+                line.setLength(0);
+                switch (content) {
+                    case POLICIES:
+                        format.policy(line, policy);
+                        records++;
+                        break;
+                    case CLAIMS:
+                        for (Claim claim : policyClaims) {
+                            format.claim(line, claim);
+                        }
+                        records += policyClaims.size();
+                        break;
+                    default:
+                        records += format.policyWithClaims(line, policy, policyClaims);
+                        break;
+                }
+                writer.append(line);
+            }
+            afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+        return records;
+    }
+
+    private static List<String> ids(List<Policy> policies) {
+        List<String> ids = new ArrayList<>(policies.size());
+        for (Policy policy : policies) {
+            ids.add(policy.getId());
+        }
+        return ids;
+    }
+
+    private static String date(LocalDate date) {
+        return date != null ? date.toString() : null;
+    }
+
+    /**
+     * Appends records of one file format to a line buffer, each ending with a newline.
+     */
+    private abstract static class RecordFormat {
+
+        abstract void header(StringBuilder out, Content content);
+
+        abstract void policy(StringBuilder out, Policy policy);
+
+        abstract void claim(StringBuilder out, Claim claim);
+
+        /** Appends a policy joined with its claims; returns the number of records appended. */
+        abstract int policyWithClaims(StringBuilder out, Policy policy, List<Claim> claims);
+    }
+
+    /**
+     * CSV with a header row; fields containing commas, quotes or line breaks are quoted.
+     */
+    private static class CsvFormat extends RecordFormat {
+
+        private static final String POLICY_COLUMNS = "id,type,firstName,lastName,date,remarks";
+        private static final String CLAIM_COLUMNS = "id,policyId,description,claimDate";
+        private static final String JOINED_CLAIM_COLUMNS = "claimId,claimDescription,claimDate";
+
+        @Override
+        void header(StringBuilder out, Content content) {
+            switch (content) {
+                case POLICIES:
+                    out.append(POLICY_COLUMNS);
+                    break;
+                case CLAIMS:
+                    out.append(CLAIM_COLUMNS);
+                    break;
+                default:
+                    out.append(POLICY_COLUMNS).append(',').append(JOINED_CLAIM_COLUMNS);
+                    break;
+            }
+            out.append('\n');
+        }
+
+        @Override
+        void policy(StringBuilder out, Policy policy) {
+            policyFields(out, policy);
+            out.append('\n');
+        }
+
+        @Override
+        void claim(StringBuilder out, Claim claim) {
+            field(out, claim.getId()).append(',');
+            field(out, claim.getPolicyId()).append(',');
+            claimFields(out, claim);
+            out.append('\n');
+        }
+
+        @Override
+        int policyWithClaims(StringBuilder out, Policy policy, List<Claim> claims) {
+            if (claims.isEmpty()) {
+                policyFields(out, policy);
+                out.append(",,,\n");
+                return 1;
+            }
+            for (Claim claim : claims) {
+                policyFields(out, policy);
+                out.append(',');
+                field(out, claim.getId()).append(',');
+                claimFields(out, claim);
+                out.append('\n');
+            }
+            return claims.size();
+        }
+
+        private static void policyFields(StringBuilder out, Policy policy) {
+            field(out, policy.getId()).append(',');
+            field(out, policy.getType().name()).append(',');
+            field(out, policy.getFirstName()).append(',');
+            field(out, policy.getLastName()).append(',');
+            field(out, date(policy.getDate())).append(',');
+            field(out, policy.getRemarks());
+        }
+
+        private static void claimFields(StringBuilder out, Claim claim) {
+            field(out, claim.getDescription()).append(',');
+            field(out, date(claim.getClaimDate()));
+        }
+
+        private static StringBuilder field(StringBuilder out, String value) {
+            if (value == null) {
+                return out;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                return out.append(value);
+            }
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    out.append('"');
+                }
+                out.append(c);
+            }
+            return out.append('"');
+        }
+    }
+
+    /**
+     * One JSON object per line, with the field names of the data files.
+     */
+    private static class NdjsonFormat extends RecordFormat {
+
+        @Override
+        void header(StringBuilder out, Content content) {
+            // NDJSON has no header
+        }
+
+        @Override
+        void policy(StringBuilder out, Policy policy) {
+            policyFields(out, policy);
+            out.append("}\n");
+        }
+
+        @Override
+        void claim(StringBuilder out, Claim claim) {
+            claimObject(out, claim);
+            out.append('\n');
+        }
+
+        @Override
+        int policyWithClaims(StringBuilder out, Policy policy, List<Claim> claims) {
+            policyFields(out, policy);
+            out.append(",\"claims\":[");
+            for (int i = 0; i < claims.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                claimObject(out, claims.get(i));
+            }
+            out.append("]}\n");
+            return 1;
+        }
+
+        /** Appends an unterminated policy object, so fields can follow. */
+        private static void policyFields(StringBuilder out, Policy policy) {
+            out.append("{\"type\":");
+            string(out, policy.getType().name());
+            out.append(",\"id\":");
+            string(out, policy.getId());
+            out.append(",\"firstName\":");
+            string(out, policy.getFirstName());
+            out.append(",\"lastName\":");
+            string(out, policy.getLastName());
+            out.append(",\"date\":");
+            string(out, date(policy.getDate()));
+            out.append(",\"remarks\":");
+            string(out, policy.getRemarks());
+        }
+
+        private static void claimObject(StringBuilder out, Claim claim) {
+            out.append("{\"id\":");
+            string(out, claim.getId());
+            out.append(",\"policyId\":");
+            string(out, claim.getPolicyId());
+            out.append(",\"description\":");
+            string(out, claim.getDescription());
+            out.append(",\"claimDate\":");
+            string(out, date(claim.getClaimDate()));
+            out.append('}');
+        }
+
+        private static void string(StringBuilder out, String value) {
+            if (value == null) {
+                out.append("null");
+                return;
+            }
+            out.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        out.append("\\\"");
+                        break;
+                    case '\\':
+                        out.append("\\\\");
+                        break;
+                    case '\n':
+                        out.append("\\n");
+                        break;
+                    case '\r':
+                        out.append("\\r");
+                        break;
+                    case '\t':
+                        out.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            out.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.append(c);
+                        }
+                        break;
+                }
+            }
+            out.append('"');
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package com.insurance.transfer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.ImportReport;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads policies from a CSV or NDJSON file for bulk import.
+ *
+ * The file is read sequentially in chunks of records; chunks are parsed, validated and
+ * turned into policies through {@link InsuranceFactory} in parallel, while the caller's
+ * sink persists the policies of earlier chunks in batches. Chunks are handed to the sink
+ * in file order, so the import is deterministic regardless of parallelism.
+ *
+ * Both formats use the field names of the data files: {@code id} (optional; a new ID
+ * is generated when missing; a row whose ID already exists, or appeared earlier in the
+ * file, is rejected rather than overwriting a policy), {@code firstName}, {@code lastName}, {@code date}
+ * (yyyy-MM-dd, d.M.yyyy or dd/MM/yyyy), {@code type} (e.g. CAR or Car) and
+ * {@code remarks} (optional). CSV files need a header row naming the columns, in any
+ * order and case, with spaces allowed ("First Name", "Insurance Type"); fields may be quoted, with "" for a quote inside a quoted field.
+ * The format is taken from the file extension (.csv, .ndjson, .jsonl), optionally
+ * followed by .gz for gzip-compressed files.
+ */
+public class PolicyImporter {
+
+    /** Number of policies handed to the sink at a time unless configured otherwise. */
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private static final int CHUNK_SIZE = 2_000;
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+    private static final DateTimeFormatter[] DATE_FORMATS = {
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("d.M.uuuu").withResolverStyle(ResolverStyle.STRICT),
+        DateTimeFormatter.ofPattern("dd/MM/uuuu").withResolverStyle(ResolverStyle.STRICT)
+    };
+
+    private final int batchSize;
+
+    /**
+     * Creates an importer.
+     *
+     * @param batchSize the number of policies handed to the sink at a time
+     */
+    public PolicyImporter(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Imports a file.
+     *
+     * @param file        the CSV or NDJSON file, optionally gzip-compressed
+     * @param existingIds tells whether a policy with the given ID already exists; rows with such an ID are rejected
+     * @param sink        receives the valid policies in batches, in file order, and returns those it saved;
+     *                    called on the calling thread. Rows it did not save, or whose batch it failed
+     *                    with an exception, are reported as rejected
+     * @return the import report
+     * @throws IOException if the file cannot be read or is not a supported format
+     */
+    public ImportReport importFile(Path file, Predicate<String> existingIds, Function<List<Policy>, List<Policy>> sink)
+            throws IOException {
+        long start = System.nanoTime();
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean gzip = name.endsWith(".gz");
+        if (gzip) {
+            name = name.substring(0, name.length() - 3);
+        }
+        boolean csv = name.endsWith(".csv");
+        if (!csv && !name.endsWith(".ndjson") && !name.endsWith(".jsonl")) {
+            throw new IOException("Unsupported import file " + file + "; expected .csv, .ndjson or .jsonl");
+        }
+
+        Progress progress = new Progress(existingIds);
+        try (InputStream raw = Files.newInputStream(file);
+             InputStream in = gzip ? new GZIPInputStream(raw, 64 * 1024) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 256 * 1024)) {
+            RecordReader records = csv ? new CsvRecordReader(reader) : new RecordReader(reader);
+            RowParser parser = csv ? ((CsvRecordReader) records).createParser() : PolicyImporter::parseJson;
+
+            Deque<CompletableFuture<ParsedChunk>> inFlight = new ArrayDeque<>();
+            int maxInFlight = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 2);
+            Chunk chunk;
+            while ((chunk = records.nextChunk()) != null) {
+                Chunk parsing = chunk;
+                inFlight.add(CompletableFuture.supplyAsync(() -> parse(parsing, parser)));
+                if (inFlight.size() >= maxInFlight) {
+                    progress.accept(join(inFlight.poll()), sink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                progress.accept(join(inFlight.poll()), sink);
+            }
+            progress.flush(sink);
+        }
+        return new ImportReport(file.toString(), progress.rows, progress.imported, progress.rejected,
+                (System.nanoTime() - start) / 1_000_000, progress.rejections);
+    }
+
+    /**
+     * Accumulates parsed chunks into batches for the sink and counts rows.
+     * Rows with an explicit ID are checked here, in file order, against the existing
+     * policies and the IDs of earlier rows; generated IDs are unique already.
+     */
+    private class Progress {
+
+        final Predicate<String> existingIds;
+        final Set<String> explicitIds = new HashSet<>();
+        long rows;
+        long imported;
+        long rejected;
+        final List<String> rejections = new ArrayList<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+
+        Progress(Predicate<String> existingIds) {
+            this.existingIds = existingIds;
+        }
+
+        void accept(ParsedChunk parsed, Function<List<Policy>, List<Policy>> sink) {
+            rows += parsed.rows;
+            parsed.rejections.forEach(this::reject);
+            for (Row row : parsed.policies) {
+                String id = row.policy.getId();
+                if (row.explicitId && !explicitIds.add(id)) {
+                    reject("line " + row.line + ": duplicate ID '" + id + "' of an earlier row");
+                    continue;
+                }
+                if (row.explicitId && existingIds.test(id)) {
+                    reject("line " + row.line + ": a policy with ID '" + id + "' already exists");
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    flush(sink);
+                }
+            }
+        }
+
+        void reject(String rejection) {
+            rejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(rejection);
+            }
+        }
+
+        void flush(Function<List<Policy>, List<Policy>> sink) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Policy> policies = new ArrayList<>(batch.size());
+            batch.forEach(row -> policies.add(row.policy));
+            Set<Policy> saved = Collections.newSetFromMap(new IdentityHashMap<>());
+            String failure = "not saved";
+            try {
+                saved.addAll(sink.apply(policies));
+            } catch (RuntimeException e) {
+                failure = "not saved: " + e.getMessage();
+            }
+            imported += saved.size();
+            for (Row row : batch) {
+                if (!saved.contains(row.policy)) {
+                    reject("line " + row.line + ": policy '" + row.policy.getId() + "' " + failure);
+                }
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private static ParsedChunk join(CompletableFuture<ParsedChunk> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /** Parses the records of a chunk; runs on a pool thread. */
+    private static ParsedChunk parse(Chunk chunk, RowParser parser) {
+        ParsedChunk parsed = new ParsedChunk(chunk.count);
+        for (int i = 0; i < chunk.count; i++) {
+            try {
+                Row row = parser.parse(chunk.records[i]);
+                row.line = chunk.lines[i];
+                parsed.policies.add(row);
+            } catch (RejectedRowException e) {
+                parsed.rejections.add("line " + chunk.lines[i] + ": " + e.getMessage());
+            } catch (RuntimeException e) {
+                parsed.rejections.add("line " + chunk.lines[i] + ": unreadable row (" + e.getMessage() + ")");
+            }
+        }
+        return parsed;
+    }
+
+    private static Row parseJson(String record) throws RejectedRowException {
+        JsonObject json;
+        try {
+            JsonElement element = JsonParser.parseString(record);
+            if (!element.isJsonObject()) {
+                throw new RejectedRowException("expected a JSON object");
+            }
+            json = element.getAsJsonObject();
+        } catch (RuntimeException e) {
+            throw new RejectedRowException("malformed JSON");
+        }
+        return buildPolicy(string(json, "id"), string(json, "firstName"), string(json, "lastName"),
+                string(json, "date"), string(json, "type"), string(json, "remarks"));
+    }
+
+    private static String string(JsonObject json, String field) {
+        JsonElement value = json.get(field);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    /**
+     * Validates the fields of one row and creates its policy.
+     *
+     * @throws RejectedRowException if a required field is missing or invalid
+     */
+    private static Row buildPolicy(String id, String firstName, String lastName, String dateText,
+                                      String typeText, String remarks) throws RejectedRowException {
+        firstName = trim(firstName);
+        lastName = trim(lastName);
+        if (firstName.isEmpty()) {
+            throw new RejectedRowException("missing first name");
+        }
+        if (lastName.isEmpty()) {
+            throw new RejectedRowException("missing last name");
+        }
+        LocalDate date = parseDate(trim(dateText));
+        InsuranceType type = parseType(trim(typeText));
+        id = trim(id);
+        remarks = trim(remarks);
+        return id.isEmpty()
+                ? new Row(InsuranceFactory.createPolicy(firstName, lastName, date, remarks, type), false)
+                : new Row(InsuranceFactory.restorePolicy(id, firstName, lastName, date, remarks, type), true);
+    }
+
+    private static LocalDate parseDate(String text) throws RejectedRowException {
+        if (text.isEmpty()) {
+            throw new RejectedRowException("missing date");
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(text, format);
+            } catch (DateTimeParseException e) {
+                // Try the next format
+            }
+        }
+        throw new RejectedRowException("invalid date '" + text + "'");
+    }
+
+    private static InsuranceType parseType(String text) throws RejectedRowException {
+        if (text.isEmpty()) {
+            throw new RejectedRowException("missing insurance type");
+        }
+        for (InsuranceType type : InsuranceType.values()) {
+            if (type.name().equalsIgnoreCase(text) || type.getDisplayName().equalsIgnoreCase(text)) {
+                return type;
+            }
+        }
+        throw new RejectedRowException("unknown insurance type '" + text + "'");
+    }
+
+    private static String trim(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    /**
+     * Turns one record into a policy.
+     */
+    @FunctionalInterface
+    private interface RowParser {
+        Row parse(String record) throws RejectedRowException;
+    }
+
+    /**
+     * The policy of one valid row, with whether its ID was given in the file.
+     */
+    private static class Row {
+
+        final Policy policy;
+        final boolean explicitId;
+        long line;
+
+        Row(Policy policy, boolean explicitId) {
+            this.policy = policy;
+            this.explicitId = explicitId;
+        }
+    }
+
+    /**
+     * A validation failure of one row. Rejections are expected, so no stack trace is captured.
+     */
+    private static class RejectedRowException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        RejectedRowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * A run of consecutive records with the line numbers they start on.
+     */
+    private static class Chunk {
+
+        final String[] records = new String[CHUNK_SIZE];
+        final long[] lines = new long[CHUNK_SIZE];
+        int count;
+    }
+
+    /**
+     * The policies and rejections of one chunk.
+     */
+    private static class ParsedChunk {
+
+        final int rows;
+        final List<Row> policies;
+        final List<String> rejections = new ArrayList<>();
+
+        ParsedChunk(int rows) {
+            this.rows = rows;
+            this.policies = new ArrayList<>(rows);
+        }
+    }
+
+    /**
+     * Splits a file into chunks of records, one non-blank line per record.
+     */
+    private static class RecordReader {
+
+        final BufferedReader reader;
+        long lineNumber;
+
+        RecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /** Returns the next line, without a leading byte order mark, or null at the end. */
+        String readLine() throws IOException {
+            String line = reader.readLine();
+            if (line != null && lineNumber++ == 0 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            return line;
+        }
+
+        /** Reads one record and returns it, or null at the end; sets {@code lineNumber} past it. */
+        String nextRecord() throws IOException {
+            String line;
+            while ((line = readLine()) != null) {
+                if (!line.isBlank()) {
+                    return line;
+                }
+            }
+            return null;
+        }
+
+        Chunk nextChunk() throws IOException {
+            Chunk chunk = new Chunk();
+            while (chunk.count < CHUNK_SIZE) {
+                long first = lineNumber + 1;
+                String record = nextRecord();
+                if (record == null) {
+                    break;
+                }
+                chunk.records[chunk.count] = record;
+                chunk.lines[chunk.count++] = first;
+            }
+            return chunk.count > 0 ? chunk : null;
+        }
+    }
+
+    /**
+     * Reads CSV records, which may span lines inside quoted fields, after the header row.
+     */
+    private static class CsvRecordReader extends RecordReader {
+
+        private static final Map<String, String> COLUMN_ALIASES = Map.of(
+                "policyid", "id",
+                "policydate", "date",
+                "insurancetype", "type",
+                "policytype", "type");
+
+        private final Map<String, Integer> columns = new HashMap<>();
+
+        CsvRecordReader(BufferedReader reader) throws IOException {
+            super(reader);
+            String header = nextRecord();
+            if (header == null) {
+                return;
+            }
+            String[] names = splitCsv(header);
+            for (int i = 0; i < names.length; i++) {
+                String column = names[i].replaceAll("[^A-Za-z]", "").toLowerCase(Locale.ROOT);
+                columns.put(COLUMN_ALIASES.getOrDefault(column, column), i);
+            }
+            for (String required : new String[] {"firstname", "lastname", "date", "type"}) {
+                if (!columns.containsKey(required)) {
+                    throw new IOException("CSV header lacks the " + required + " column: " + header);
+                }
+            }
+        }
+
+        @Override
+        String nextRecord() throws IOException {
+            String record = super.nextRecord();
+            if (record == null || quoteCount(record) % 2 == 0) {
+                return record;
+            }
+            StringBuilder joined = new StringBuilder(record);
+            int quotes = quoteCount(record);
+            String line;
+            while (quotes % 2 != 0 && (line = readLine()) != null) {
+                joined.append('\n').append(line);
+                quotes += quoteCount(line);
+            }
+            return joined.toString();
+        }
+
+        RowParser createParser() {
+            int id = columns.getOrDefault("id", -1);
+            int firstName = columns.get("firstname");
+            int lastName = columns.get("lastname");
+            int date = columns.get("date");
+            int type = columns.get("type");
+            int remarks = columns.getOrDefault("remarks", -1);
+            return record -> {
+                String[] fields = splitCsv(record);
+                return buildPolicy(field(fields, id), field(fields, firstName), field(fields, lastName),
+                        field(fields, date), field(fields, type), field(fields, remarks));
+            };
+        }
+
+        private static String field(String[] fields, int column) {
+            return column >= 0 && column < fields.length ? fields[column] : null;
+        }
+
+        private static int quoteCount(String text) {
+            int count = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /** Splits a CSV record into fields, unquoting quoted fields. */
+        static String[] splitCsv(String record) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < record.length(); i++) {
+                char c = record.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields.toArray(new String[0]);
+        }
+    }
+}
@@ -3,23 +3,37 @@ package com.insurance.ui_controller;
 import com.insurance.model.Claim;
 import com.insurance.model.Policy;
 import com.insurance.navigation.NavigationManager;
+import com.insurance.service.IDataService;
 import com.insurance.service.PolicyObserver;
 import com.insurance.service.ServiceLocator;
 import javafx.application.Platform;
 import javafx.beans.binding.DoubleBinding;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 /**
  * Controller for the Policy Management view.
  * Displays all policies in a table with actions for claim submission and deletion.
+ * Policies are ordered by ID and fetched from the data service one page at a time
+ * as the table scrolls, so opening the view does not load the whole portfolio.
+ * All service calls run in the background; results are applied on the JavaFX
+ * Application Thread, and a progress indicator is shown while any call is running.
  *
  * Design Pattern: Observer - implements PolicyObserver to react to policy changes
  */
@@ -32,8 +46,10 @@ public class PolicyManagementController implements PolicyObserver {
     @FXML private TableColumn<Policy, String> typeColumn;
     @FXML private TableColumn<Policy, String> dateColumn;
     @FXML private TableColumn<Policy, Void> actionsColumn;
+    @FXML private ProgressIndicator progressIndicator;
 
-    private final ObservableList<Policy> policyData = FXCollections.observableArrayList();
+    private final PagedPolicyList policyData = new PagedPolicyList(ServiceLocator.getDataService());
+    private int runningTasks;
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
     /**
@@ -56,20 +72,29 @@ public class PolicyManagementController implements PolicyObserver {
      * Configures the table columns to display policy properties.
      */
     private void setupTableColumns() {
-        idColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getId()));
+        idColumn.setCellValueFactory(cellData -> text(cellData.getValue(), Policy::getId));
 
-        firstNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getFirstName()));
+        firstNameColumn.setCellValueFactory(cellData -> text(cellData.getValue(), Policy::getFirstName));
 
-        lastNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getLastName()));
+        lastNameColumn.setCellValueFactory(cellData -> text(cellData.getValue(), Policy::getLastName));
 
         typeColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getType().getDisplayName()));
+                text(cellData.getValue(), policy -> policy.getType().getDisplayName()));
 
         dateColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getDate().format(DATE_FORMAT)));
+                text(cellData.getValue(), policy -> policy.getDate().format(DATE_FORMAT)));
+
+        // Rows come pre-sorted by ID from the data service; sorting would need every row in memory
+        for (TableColumn<Policy, ?> column : policyTable.getColumns()) {
+            column.setSortable(false);
+        }
+    }
+
+    /**
+     * Returns a cell value for a policy column; rows whose policy is not available show as blank.
+     */
+    private static SimpleStringProperty text(Policy policy, Function<Policy, String> getter) {
+        return new SimpleStringProperty(policy != null ? getter.apply(policy) : null);
     }
 
     /**
@@ -116,7 +141,8 @@ public class PolicyManagementController implements PolicyObserver {
             @Override
             protected void updateItem(Void item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty) {
+                // Rows whose page is still loading have no policy to act on yet
+                if (empty || getTableRow() == null || getTableRow().getItem() == null) {
                     setGraphic(null);
                 } else {
                     setGraphic(buttonBox);
@@ -142,11 +168,10 @@ public class PolicyManagementController implements PolicyObserver {
     }
 
     /**
-     * Loads all policies from the data service into the table.
+     * Binds the table to the paged policy list; rows are fetched as they are displayed.
      */
     private void loadPolicies() {
-        policyData.clear();
-        policyData.addAll(ServiceLocator.getDataService().getAllPolicies());
+        policyData.refresh();
         policyTable.setItems(policyData);
     }
 
@@ -176,8 +201,23 @@ public class PolicyManagementController implements PolicyObserver {
      * @param policy the policy to view claims for
      */
     private void onViewClaimsClicked(Policy policy) {
-        java.util.List<Claim> claims = ServiceLocator.getClaimService().getClaimsByPolicy(policy.getId());
+        track(ServiceLocator.getClaimService().getClaimsByPolicyAsync(policy.getId()))
+                .whenComplete((claims, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        showErrorAlert("Failed to load claims: " + causeOf(error).getMessage());
+                    } else {
+                        showClaims(policy, claims);
+                    }
+                }));
+    }
 
+    /**
+     * Shows a dialog listing the claims of a policy.
+     *
+     * @param policy the policy the claims belong to
+     * @param claims the claims to list
+     */
+    private void showClaims(Policy policy, List<Claim> claims) {
         Alert claimsDialog = new Alert(Alert.AlertType.INFORMATION);
         claimsDialog.setTitle("Policy Claims");
         claimsDialog.setHeaderText("Claims for policy: " + policy.getId());
@@ -212,16 +252,17 @@ public class PolicyManagementController implements PolicyObserver {
 
         dialog.showAndWait().ifPresent(description -> {
             if (!description.trim().isEmpty()) {
-                try {
-                    ServiceLocator.getClaimService().submitClaim(
-                            policy.getId(),
-                            description.trim(),
-                            java.time.LocalDate.now()
-                    );
-                    showInformationAlert("Claim submitted successfully!");
-                } catch (Exception e) {
-                    showErrorAlert("Failed to submit claim: " + e.getMessage());
-                }
+                track(ServiceLocator.getClaimService().submitClaimAsync(
+                        policy.getId(),
+                        description.trim(),
+                        LocalDate.now()
+                )).whenComplete((claim, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        showErrorAlert("Failed to submit claim: " + causeOf(error).getMessage());
+                    } else {
+                        showInformationAlert("Claim submitted successfully!");
+                    }
+                }));
             } else {
                 showErrorAlert("Claim description cannot be empty.");
             }
@@ -243,12 +284,14 @@ public class PolicyManagementController implements PolicyObserver {
 
         confirmDialog.showAndWait().ifPresent(response -> {
             if (response == ButtonType.OK) {
-                boolean deleted = ServiceLocator.getSalesService().deletePolicy(policy.getId());
-                if (deleted) {
-                    showInformationAlert("Policy deleted successfully!");
-                } else {
-                    showErrorAlert("Failed to delete policy.");
-                }
+                track(ServiceLocator.getSalesService().deletePolicyAsync(policy.getId()))
+                        .whenComplete((deleted, error) -> Platform.runLater(() -> {
+                            if (error == null && deleted) {
+                                showInformationAlert("Policy deleted successfully!");
+                            } else {
+                                showErrorAlert("Failed to delete policy.");
+                            }
+                        }));
             }
         });
     }
@@ -265,28 +308,79 @@ public class PolicyManagementController implements PolicyObserver {
 
     /**
      * Observer callback when a new policy is created.
-     * Adds the new policy to the table.
+     * Reloads the table so the new policy appears at its position in ID order.
      *
      * @param policy the newly created policy
      */
     @Override
     public void onPolicyCreated(Policy policy) {
         // Update table on JavaFX Application Thread
-        Platform.runLater(() -> policyData.add(policy));
+        Platform.runLater(policyData::refresh);
+    }
+
+    /**
+     * Observer callback after a bulk import.
+     * Reloads the table once rather than once per imported policy.
+     *
+     * @param policies the imported policies
+     */
+    @Override
+    public void onPoliciesImported(List<Policy> policies) {
+        // Update table on JavaFX Application Thread
+        Platform.runLater(policyData::refresh);
     }
 
     /**
     * Observer callback when a policy is deleted.
-    * Removes the deleted policy from the table.
+    * Reloads the table so the deleted policy disappears.
     *
     * @param policyId the ID of the deleted policy
     */
     @Override
     public void onPolicyDeleted(String policyId) {
         // Update table on JavaFX Application Thread
-        Platform.runLater(() ->
-                policyData.removeIf(p -> p.getId().equals(policyId))
-        );
+        Platform.runLater(policyData::refresh);
+    }
+
+    /**
+     * Observer callback when another instance of the application changed policies.
+     * Reloads the table once for the whole batch of changes.
+     *
+     * @param savedPolicies the policies added or changed by the other instance
+     * @param deletedPolicyIds the IDs of the policies it deleted
+     */
+    @Override
+    public void onExternalChanges(List<Policy> savedPolicies, List<String> deletedPolicyIds) {
+        // Update table on JavaFX Application Thread
+        Platform.runLater(policyData::refresh);
+    }
+
+    /**
+     * Shows the progress indicator until the given background call completes.
+     * Must be called on the JavaFX Application Thread.
+     *
+     * @param future the running call
+     * @param <T>    the result type
+     * @return the same future, for chaining
+     */
+    private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        runningTasks++;
+        progressIndicator.setVisible(true);
+        progressIndicator.setManaged(true);
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (--runningTasks == 0) {
+                progressIndicator.setVisible(false);
+                progressIndicator.setManaged(false);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * Returns the exception thrown by a background call, unwrapped from the future's completion exception.
+     */
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 
     /**
@@ -312,4 +406,111 @@ public class PolicyManagementController implements PolicyObserver {
         alert.setContentText(message);
         alert.showAndWait();
     }
-}
\ No newline at end of file
+
+    /**
+     * Read-only list of all policies in ID order that fetches pages from the data
+     * service in the background and keeps only the most recently used pages in memory.
+     * Rows of a page that is still loading read as null and are replaced once it arrives.
+     * Must only be used on the JavaFX Application Thread.
+     */
+    private class PagedPolicyList extends ObservableListBase<Policy> {
+
+        private static final int PAGE_SIZE = 200;
+        private static final int CACHED_PAGES = 8;
+
+        private final IDataService dataService;
+        private final Map<Integer, List<Policy>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Policy>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+        private final Set<Integer> loadingPages = new HashSet<>();
+        private int size;
+        /** Incremented on refresh so that pages requested before it are discarded. */
+        private int generation;
+
+        PagedPolicyList(IDataService dataService) {
+            this.dataService = dataService;
+        }
+
+        @Override
+        public Policy get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+            }
+            int pageIndex = index / PAGE_SIZE;
+            List<Policy> page = pages.get(pageIndex);
+            if (page == null) {
+                load(pageIndex);
+                return null;
+            }
+            int position = index % PAGE_SIZE;
+            if (position < page.size()) {
+                return page.get(position);
+            }
+            // Policies were deleted since the count was taken; re-sync once the current layout pass is done
+            pages.remove(pageIndex);
+            Platform.runLater(this::refresh);
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Drops the cached pages and re-reads the policy count in the background, then
+         * tells the table that every row may have changed.
+         */
+        void refresh() {
+            int requested = ++generation;
+            pages.clear();
+            loadingPages.clear();
+            track(dataService.getPolicyCountAsync()).whenComplete((count, error) -> Platform.runLater(() -> {
+                if (requested != generation) {
+                    return;
+                }
+                if (error != null) {
+                    System.err.println("Failed to count policies: " + causeOf(error).getMessage());
+                    return;
+                }
+                int oldSize = size;
+                size = count;
+                beginChange();
+                nextReplace(0, size, Collections.nCopies(oldSize, null));
+                endChange();
+            }));
+        }
+
+        /**
+         * Fetches a page in the background unless it is already being fetched, then
+         * replaces its placeholder rows.
+         */
+        private void load(int pageIndex) {
+            if (!loadingPages.add(pageIndex)) {
+                return;
+            }
+            int requested = generation;
+            track(dataService.getPoliciesAsync(pageIndex * PAGE_SIZE, PAGE_SIZE)).whenComplete((page, error) -> Platform.runLater(() -> {
+                if (requested != generation) {
+                    return;
+                }
+                loadingPages.remove(pageIndex);
+                if (error != null) {
+                    System.err.println("Failed to load policies: " + causeOf(error).getMessage());
+                    return;
+                }
+                pages.put(pageIndex, page);
+                int from = pageIndex * PAGE_SIZE;
+                int to = Math.min(size, from + PAGE_SIZE);
+                if (from < to) {
+                    beginChange();
+                    nextReplace(from, to, Collections.nCopies(to - from, null));
+                    endChange();
+                }
+            }));
+        }
+    }
+}
@@ -3,9 +3,11 @@ package com.insurance.ui_controller;
 import com.insurance.model.InsuranceType;
 import com.insurance.navigation.NavigationManager;
 import com.insurance.service.ServiceLocator;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import java.time.LocalDate;
+import java.util.concurrent.CompletionException;
 
 /**
  * Controller for the sell insurance view.
@@ -18,6 +20,8 @@ public class SellInsuranceController {
     @FXML private TextField lastNameField;
     @FXML private DatePicker datePicker;
     @FXML private TextArea remarksArea;
+    @FXML private Button saveButton;
+    @FXML private ProgressIndicator savingIndicator;
 
     private InsuranceType insuranceType;
 
@@ -31,7 +35,8 @@ public class SellInsuranceController {
 
     /**
      * Handles the Save button click.
-     * Validates input, creates the policy, and clears the form.
+     * Validates input and creates the policy in the background; the Save button is
+     * disabled and a progress indicator shown until the policy is saved.
      */
     @FXML
     private void onSaveClicked() {
@@ -45,16 +50,34 @@ public class SellInsuranceController {
             return;
         }
 
-        ServiceLocator.getSalesService().createPolicy(
+        setSaving(true);
+        ServiceLocator.getSalesService().createPolicyAsync(
                 firstName,
                 lastName,
                 selectedDate,
                 remarks,
                 insuranceType
-        );
+        ).whenComplete((policy, error) -> Platform.runLater(() -> {
+            setSaving(false);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                showErrorAlert("Failed to create policy: " + cause.getMessage());
+                return;
+            }
+            showInformationAlert("Policy created successfully!");
+            clearForm();
+        }));
+    }
 
-        showInformationAlert("Policy created successfully!");
-        clearForm();
+    /**
+     * Disables the Save button and shows the progress indicator while a policy is being saved.
+     *
+     * @param saving true while the save runs
+     */
+    private void setSaving(boolean saving) {
+        saveButton.setDisable(saving);
+        savingIndicator.setVisible(saving);
+        savingIndicator.setManaged(saving);
     }
 
 
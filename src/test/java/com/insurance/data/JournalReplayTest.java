@@ -0,0 +1,98 @@
+package com.insurance.data;
+
+import com.insurance.factory.IdGenerator;
+import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that the mutations of one run of {@link InsuranceDataManager} are there after a restart,
+ * whether they are replayed from the journal or were compacted into the snapshot, in every
+ * policy store, snapshot format and shard layout, with and without group commit.
+ */
+class JournalReplayTest {
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestData.clearDataDirectory();
+        IdGenerator.getInstance().configure(1, "base32");
+    }
+
+    /** Every combination of policy store, snapshot format, shards per type, group commit and compaction. */
+    static Stream<Arguments> layouts() {
+        List<Arguments> layouts = new ArrayList<>();
+        for (String store : new String[] {"map", "columnar"}) {
+            for (String format : new String[] {"json", "ndjson", "binary"}) {
+                for (int shards : new int[] {0, 2}) {
+                    for (boolean groupCommit : new boolean[] {false, true}) {
+                        // Never compacting replays everything from the journal; compacting on every write replays nothing
+                        for (long threshold : new long[] {Long.MAX_VALUE, 1}) {
+                            layouts.add(Arguments.of(store, format, shards, groupCommit, threshold));
+                        }
+                    }
+                }
+            }
+        }
+        return layouts.stream();
+    }
+
+    @ParameterizedTest(name = "{0} {1} shards={2} groupCommit={3} compaction={4}")
+    @MethodSource("layouts")
+    void mutationsSurviveRestarts(String store, String format, int shards, boolean groupCommit, long threshold) {
+        TestConfig config = new TestConfig(store, format, shards, groupCommit, threshold);
+        Policy car = TestData.policy(IdGenerator.getInstance().nextId(), "Dana", InsuranceType.CAR);
+        Policy apartment = TestData.policy("0badcafe", "Omer", InsuranceType.APARTMENT);
+        Policy life = TestData.policy(IdGenerator.getInstance().nextId(), "Noa", InsuranceType.LIFE);
+        Claim dent = new Claim(IdGenerator.getInstance().nextId(), car.getId(), "dent", LocalDate.of(2026, 3, 1));
+        Claim leak = new Claim("c-leak", apartment.getId(), null, null);
+
+        InsuranceDataManager first = new InsuranceDataManager(config);
+        first.load();
+        first.savePolicy(car);
+        first.savePolicies(List.of(apartment, life));
+        first.saveClaim(dent);
+        first.close();
+
+        InsuranceDataManager second = new InsuranceDataManager(config);
+        second.load();
+        assertEquals(3, second.getPolicyCount());
+        second.deletePolicy(life.getId());
+        second.saveClaim(leak);
+        second.close();
+
+        InsuranceDataManager third = new InsuranceDataManager(config);
+        try {
+            third.load();
+            assertEquals(2, third.getPolicyCount());
+            TestData.assertSamePolicy(car, third.getPolicyById(car.getId()));
+            TestData.assertSamePolicy(apartment, third.getPolicyById(apartment.getId()));
+            assertNull(third.getPolicyById(life.getId()));
+
+            List<Claim> carClaims = third.getClaimsByPolicyId(car.getId());
+            assertEquals(1, carClaims.size());
+            TestData.assertSameClaim(dent, carClaims.get(0));
+            List<Claim> apartmentClaims = third.getClaimsByPolicyId(apartment.getId());
+            assertEquals(1, apartmentClaims.size());
+            TestData.assertSameClaim(leak, apartmentClaims.get(0));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> third.savePolicy(TestData.policy(car.getId(), "Matan", InsuranceType.CAR)));
+        } finally {
+            third.close();
+        }
+    }
+}
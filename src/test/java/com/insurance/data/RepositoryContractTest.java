@@ -0,0 +1,132 @@
+package com.insurance.data;
+
+import com.insurance.factory.IdGenerator;
+import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the save, duplicate and delete contract of {@link InsuranceRepository}, which every
+ * backend must honour: the data files, in a map and a columnar store, and the embedded database.
+ */
+class RepositoryContractTest {
+
+    private InsuranceRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        TestData.clearDataDirectory();
+        IdGenerator.getInstance().configure(1, "base32");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (repository != null) {
+            repository.close();
+        }
+    }
+
+    /** Creates and loads the repository for a backend. */
+    private InsuranceRepository open(String backend) {
+        switch (backend) {
+            case "map":
+                repository = new InsuranceDataManager(new TestConfig());
+                break;
+            case "columnar":
+                repository = new InsuranceDataManager(new TestConfig("columnar", "json", 0, false, Long.MAX_VALUE));
+                break;
+            default:
+                repository = new JdbcInsuranceRepository("jdbc:h2:mem:contract");
+                break;
+        }
+        repository.load();
+        return repository;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "jdbc"})
+    void savedPolicyCanBeRead(String backend) {
+        InsuranceRepository repository = open(backend);
+        Policy policy = TestData.policy("p1", "Dana", InsuranceType.CAR);
+
+        repository.savePolicy(policy);
+
+        TestData.assertSamePolicy(policy, repository.getPolicyById("p1"));
+        assertEquals(1, repository.getPolicyCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "jdbc"})
+    void savedClaimIsListedUnderItsPolicy(String backend) {
+        InsuranceRepository repository = open(backend);
+        repository.savePolicy(TestData.policy("p1", "Dana", InsuranceType.CAR));
+        Claim claim = new Claim("c1", "p1", "dent", LocalDate.of(2026, 3, 1));
+
+        repository.saveClaim(claim);
+
+        List<Claim> claims = repository.getClaimsByPolicyId("p1");
+        assertEquals(1, claims.size());
+        TestData.assertSameClaim(claim, claims.get(0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "jdbc"})
+    void duplicateSaveIsRejectedAndKeepsTheOriginal(String backend) {
+        InsuranceRepository repository = open(backend);
+        Policy original = TestData.policy("p1", "Dana", InsuranceType.CAR);
+        repository.savePolicy(original);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> repository.savePolicy(TestData.policy("p1", "Omer", InsuranceType.LIFE)));
+
+        TestData.assertSamePolicy(original, repository.getPolicyById("p1"));
+        assertEquals(1, repository.getPolicyCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "jdbc"})
+    void savePoliciesReturnsOnlyTheSavedPolicies(String backend) {
+        InsuranceRepository repository = open(backend);
+        repository.savePolicy(TestData.policy("p1", "Dana", InsuranceType.CAR));
+        Policy fresh = TestData.policy("p2", "Omer", InsuranceType.APARTMENT);
+
+        List<Policy> saved = repository.savePolicies(List.of(
+                TestData.policy("p1", "Noa", InsuranceType.LIFE), fresh, TestData.policy("p2", "Matan", InsuranceType.CAR)));
+
+        assertEquals(1, saved.size());
+        assertSame(fresh, saved.get(0));
+        assertEquals("Dana", repository.getPolicyById("p1").getFirstName());
+        assertEquals("Omer", repository.getPolicyById("p2").getFirstName());
+        assertEquals(2, repository.getPolicyCount());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "jdbc"})
+    void deleteRemovesThePolicyOnce(String backend) {
+        InsuranceRepository repository = open(backend);
+        repository.savePolicy(TestData.policy("p1", "Dana", InsuranceType.CAR));
+        repository.savePolicy(TestData.policy("p2", "Omer", InsuranceType.LIFE));
+
+        assertTrue(repository.deletePolicy("p1"));
+        assertFalse(repository.deletePolicy("p1"));
+
+        assertNull(repository.getPolicyById("p1"));
+        assertEquals(1, repository.getPolicyCount());
+        assertFalse(repository.deletePolicy("missing"));
+    }
+}
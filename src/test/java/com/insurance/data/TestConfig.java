@@ -0,0 +1,159 @@
+package com.insurance.data;
+
+import com.insurance.service.IConfigService;
+
+/**
+ * Configuration for tests of the repositories, with the storage settings given up front
+ * and the data watcher disabled.
+ */
+class TestConfig implements IConfigService {
+
+    private final String policyStore;
+    private final String snapshotFormat;
+    private final int shardsPerType;
+    private final boolean groupCommit;
+    private final long compactionThresholdBytes;
+
+    /**
+     * Creates a configuration with the given storage settings.
+     *
+     * @param policyStore              "map" or "columnar"
+     * @param snapshotFormat           "json", "ndjson" or "binary"
+     * @param shardsPerType            the number of data shards per insurance type, 0 for a single data file
+     * @param groupCommit              whether journal writes are batched by the group-commit writer
+     * @param compactionThresholdBytes the journal size above which it is compacted
+     */
+    TestConfig(String policyStore, String snapshotFormat, int shardsPerType, boolean groupCommit,
+               long compactionThresholdBytes) {
+        this.policyStore = policyStore;
+        this.snapshotFormat = snapshotFormat;
+        this.shardsPerType = shardsPerType;
+        this.groupCommit = groupCommit;
+        this.compactionThresholdBytes = compactionThresholdBytes;
+    }
+
+    /** Creates a configuration for a single JSON data file in a map store, without group commit. */
+    TestConfig() {
+        this("map", "json", 0, false, Long.MAX_VALUE);
+    }
+
+    @Override
+    public String getCompanyName() {
+        return "Test";
+    }
+
+    @Override
+    public String getAppVersion() {
+        return "test";
+    }
+
+    @Override
+    public String getDeveloperNames() {
+        return "Test";
+    }
+
+    @Override
+    public long getJournalCompactionThresholdBytes() {
+        return compactionThresholdBytes;
+    }
+
+    @Override
+    public boolean isGroupCommitEnabled() {
+        return groupCommit;
+    }
+
+    @Override
+    public long getGroupCommitWindowMillis() {
+        return 5;
+    }
+
+    @Override
+    public String getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    @Override
+    public boolean isSnapshotPrettyPrint() {
+        return false;
+    }
+
+    @Override
+    public String getStorageBackend() {
+        return "files";
+    }
+
+    @Override
+    public String getJdbcUrl() {
+        return "jdbc:h2:mem:test";
+    }
+
+    @Override
+    public int getDataShardsPerType() {
+        return shardsPerType;
+    }
+
+    @Override
+    public String getPolicyStore() {
+        return policyStore;
+    }
+
+    @Override
+    public boolean isAsyncLoggingEnabled() {
+        return false;
+    }
+
+    @Override
+    public int getLogBufferCapacity() {
+        return 1024;
+    }
+
+    @Override
+    public long getLogFlushIntervalMillis() {
+        return 100;
+    }
+
+    @Override
+    public String getLogBackpressure() {
+        return "block";
+    }
+
+    @Override
+    public long getLogMaxFileBytes() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLogRotateDaily() {
+        return false;
+    }
+
+    @Override
+    public int getLogRetentionDays() {
+        return 0;
+    }
+
+    @Override
+    public int getLogMaxSegments() {
+        return 0;
+    }
+
+    @Override
+    public int getIdNodeId() {
+        return 1;
+    }
+
+    @Override
+    public String getIdEncoding() {
+        return "base32";
+    }
+
+    @Override
+    public boolean isDataWatchEnabled() {
+        return false;
+    }
+
+    @Override
+    public long getDataWatchPollMillis() {
+        return 1000;
+    }
+}
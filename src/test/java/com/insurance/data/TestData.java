@@ -0,0 +1,87 @@
+package com.insurance.data;
+
+import com.insurance.factory.InsuranceFactory;
+import com.insurance.model.Claim;
+import com.insurance.model.InsuranceType;
+import com.insurance.model.Policy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Policies, claims and assertions shared by the repository tests.
+ */
+final class TestData {
+
+    /** Private constructor to prevent instantiation. */
+    private TestData() {
+    }
+
+    /**
+     * Deletes the data directory, which the data files are written to relative to the
+     * working directory, so that each test starts without data.
+     *
+     * @throws IOException if a file could not be deleted
+     */
+    static void clearDataDirectory() throws IOException {
+        Path directory = Paths.get("database");
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Creates a policy with fixed date and remarks.
+     *
+     * @param id        the policy ID
+     * @param firstName customer first name
+     * @param type      the type of insurance
+     * @return the policy
+     */
+    static Policy policy(String id, String firstName, InsuranceType type) {
+        return InsuranceFactory.restorePolicy(id, firstName, "Levi", LocalDate.of(2026, 2, 16), "remark " + id, type);
+    }
+
+    /**
+     * Asserts that a policy was read back with the same fields it was saved with.
+     *
+     * @param expected the saved policy
+     * @param actual   the policy read back
+     */
+    static void assertSamePolicy(Policy expected, Policy actual) {
+        assertNotNull(actual, "policy " + expected.getId());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getFirstName(), actual.getFirstName());
+        assertEquals(expected.getLastName(), actual.getLastName());
+        assertEquals(expected.getDate(), actual.getDate());
+        assertEquals(expected.getRemarks(), actual.getRemarks());
+    }
+
+    /**
+     * Asserts that a claim was read back with the same fields it was saved with.
+     *
+     * @param expected the saved claim
+     * @param actual   the claim read back
+     */
+    static void assertSameClaim(Claim expected, Claim actual) {
+        assertNotNull(actual, "claim " + expected.getId());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getPolicyId(), actual.getPolicyId());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getClaimDate(), actual.getClaimDate());
+    }
+}